@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.HashiGenerator;
+import model.HashiGrid;
+
+/**
+ * Corpus de grilles reproductible : la k-ième grille de taille size est
+ * produite par un générateur initialisé avec la graine SEED + k.
+ */
+public final class Corpus {
+
+	// CONSTANTES
+
+	public static final long SEED = 0x5EEDL;
+	public static final int DEFAULT_COUNT = 20;
+
+	// FONCTIONS PUBLIQUES ET STATIQUES
+
+	/**
+	 * Îles des count premières grilles de taille size.
+	 */
+	public static List<int[][]> puzzles(int size, int count) {
+		List<int[][]> l = new ArrayList<int[][]>();
+		for (int k = 0; k < count; k++) {
+			HashiGenerator g = new HashiGenerator(size, SEED + k);
+			g.generateRandomGrid();
+			l.add(g.getIslands());
+		}
+		return l;
+	}
+
+	/**
+	 * Grilles résolues correspondant à puzzles(size, count).
+	 */
+	public static List<HashiGrid> solutions(int size, int count) {
+		List<HashiGrid> l = new ArrayList<HashiGrid>();
+		for (int k = 0; k < count; k++) {
+			HashiGenerator g = new HashiGenerator(size, SEED + k);
+			g.generateRandomGrid();
+			l.add(g.getLastGridSolution());
+		}
+		return l;
+	}
+
+	// CONSTRUCTEUR (PRIVES, NON INSTANCIABLE)
+
+	private Corpus() {
+		// rien ici
+	}
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.HashiGenerator;
+import model.HashiGrid;
+
+/**
+ * Génération d'une grille aléatoire, à partir d'une graine fixe, avec ou
+ * sans contrôle de l'unicité de la solution. Le contrôle de l'unicité n'a
+ * pas de limite de nœuds et ne termine pas en un temps raisonnable sur les
+ * grilles de 50x50 : il n'est mesuré que jusqu'à 13x13.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+
+	private static final int GENERATION_ATTEMPTS = 1000;
+
+	@Benchmark
+	public HashiGrid generateRandomGrid(AnySize s) {
+		s.generator.generateRandomGrid();
+		return s.generator.getLastGeneratedGrid();
+	}
+
+	@Benchmark
+	public HashiGrid generateUniqueGrid(SmallSize s) {
+		s.generator.generateUniqueGrid(GENERATION_ATTEMPTS);
+		return s.generator.getLastGeneratedGrid();
+	}
+
+	@State(Scope.Thread)
+	public static class AnySize {
+
+		@Param({"7", "10", "13", "50", "100"})
+		public int size;
+
+		HashiGenerator generator;
+
+		@Setup
+		public void setUp() {
+			generator = new HashiGenerator(size, Corpus.SEED);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SmallSize {
+
+		@Param({"7", "10", "13"})
+		public int size;
+
+		HashiGenerator generator;
+
+		@Setup
+		public void setUp() {
+			generator = new HashiGenerator(size, Corpus.SEED);
+		}
+	}
+}
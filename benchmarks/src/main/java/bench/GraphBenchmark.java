@@ -0,0 +1,101 @@
+package bench;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.EdgeTable;
+import model.Graph;
+import model.HashiGrid;
+
+/**
+ * Connexité du graphe des îles d'une grille résolue du corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+	@Param({"7", "10", "13", "50", "100"})
+	public int size;
+
+	private Graph[] graphs;
+	private int[][] edgeEnds;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		List<HashiGrid> solutions = Corpus.solutions(size,
+				Corpus.DEFAULT_COUNT);
+		graphs = new Graph[solutions.size()];
+		edgeEnds = new int[solutions.size()][];
+		for (int k = 0; k < graphs.length; k++) {
+			HashiGrid s = solutions.get(k);
+			EdgeTable t = s.getEdgeTable();
+			graphs[k] = new Graph(t.nbIslands());
+			int n = 0;
+			int[] ends = new int[2 * t.nbEdges()];
+			for (int e = 0; e < t.nbEdges(); e++) {
+				if (s.bridgesOn(e) > 0) {
+					ends[n++] = t.edgeFrom(e);
+					ends[n++] = t.edgeTo(e);
+				}
+			}
+			edgeEnds[k] = Arrays.copyOf(ends, n);
+			for (int j = 0; j < n; j += 2) {
+				graphs[k].addEdge(ends[j], ends[j + 1]);
+				graphs[k].addEdge(ends[j + 1], ends[j]);
+			}
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	public boolean isConnected() {
+		return graphs[nextIndex()].isConnected();
+	}
+
+	/**
+	 * Retire puis remet toutes les arêtes (dans l'ordre inverse de leur
+	 * ajout), en testant la connexité à chaque étape.
+	 */
+	@Benchmark
+	public int removeAndRestoreEdges() {
+		int k = nextIndex();
+		Graph g = graphs[k];
+		int[] ends = edgeEnds[k];
+		int connected = 0;
+		for (int j = ends.length - 2; j >= 0; j -= 2) {
+			g.removeEdge(ends[j], ends[j + 1]);
+			g.removeEdge(ends[j + 1], ends[j]);
+			connected += g.isConnected() ? 1 : 0;
+		}
+		for (int j = 0; j < ends.length; j += 2) {
+			g.addEdge(ends[j], ends[j + 1]);
+			g.addEdge(ends[j + 1], ends[j]);
+			connected += g.isConnected() ? 1 : 0;
+		}
+		return connected;
+	}
+
+	private int nextIndex() {
+		int k = next;
+		next = (next + 1) % graphs.length;
+		return k;
+	}
+}
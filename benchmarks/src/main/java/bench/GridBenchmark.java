@@ -0,0 +1,95 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Coord;
+import model.Direction;
+import model.EdgeTable;
+import model.HashiGrid;
+
+/**
+ * Requêtes de HashiGrid utilisées par les solveurs. Chaque appel parcourt
+ * toutes les îles (ou toutes les arêtes) d'une grille du corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	@Param({"7", "10", "13", "50", "100"})
+	public int size;
+
+	private List<int[][]> puzzles;
+	private HashiGrid[] grids;
+	private HashiGrid[] solutions;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		puzzles = Corpus.puzzles(size, Corpus.DEFAULT_COUNT);
+		grids = new HashiGrid[puzzles.size()];
+		for (int k = 0; k < grids.length; k++) {
+			grids[k] = new HashiGrid(puzzles.get(k), null);
+		}
+		solutions = Corpus.solutions(size, Corpus.DEFAULT_COUNT)
+				.toArray(new HashiGrid[0]);
+		next = 0;
+	}
+
+	@Benchmark
+	public HashiGrid construct() {
+		return new HashiGrid(puzzles.get(nextIndex()), null);
+	}
+
+	@Benchmark
+	public void findNeighborFrom(Blackhole bh) {
+		HashiGrid g = grids[nextIndex()];
+		EdgeTable t = g.getEdgeTable();
+		for (int i = 0; i < t.nbIslands(); i++) {
+			Coord c = t.islandCoord(i);
+			for (Direction d : DIRECTIONS) {
+				bh.consume(g.findNeighborFrom(c, d));
+			}
+		}
+	}
+
+	@Benchmark
+	public void canBuildBridge(Blackhole bh) {
+		HashiGrid g = grids[nextIndex()];
+		EdgeTable t = g.getEdgeTable();
+		for (int e = 0; e < t.nbEdges(); e++) {
+			bh.consume(g.canBuildBridge(t.islandCoord(t.edgeFrom(e)),
+					t.edgeDirection(e), t.islandCoord(t.edgeTo(e))));
+		}
+	}
+
+	@Benchmark
+	public boolean isValidGrid() {
+		return solutions[nextIndex()].isValidGrid();
+	}
+
+	private int nextIndex() {
+		int k = next;
+		next = (next + 1) % grids.length;
+		return k;
+	}
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.HashiGrid;
+import model.HashiSolver;
+import model.SolverLimits;
+import model.SolverOutcome;
+
+/**
+ * Solveur basique et solveur par back tracking. Ils ne terminent pas en un
+ * temps raisonnable sur toutes les grilles au-delà de 7x7 : chaque
+ * résolution est limitée à NODE_BUDGET nœuds, et les grilles sur lesquelles
+ * le solveur basique dépasse la pile sont écartées du corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LegacySolverBenchmark {
+
+	private static final long NODE_BUDGET = 100000;
+
+	@Param({"7"})
+	public int size;
+
+	private List<int[][]> puzzles;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		puzzles = new ArrayList<int[][]>();
+		for (int[][] p : Corpus.puzzles(size, Corpus.DEFAULT_COUNT)) {
+			try {
+				new HashiSolver(new HashiGrid(p, null)).tryEasySolver(
+						new SolverLimits(0, NODE_BUDGET));
+				puzzles.add(p);
+			} catch (StackOverflowError e) {
+				// grille écartée
+			}
+		}
+		next = 0;
+	}
+
+	@Benchmark
+	public SolverOutcome easySolver() {
+		HashiSolver s = new HashiSolver(new HashiGrid(nextPuzzle(), null));
+		return s.tryEasySolver(new SolverLimits(0, NODE_BUDGET));
+	}
+
+	@Benchmark
+	public SolverOutcome backTrackSolver() {
+		HashiSolver s = new HashiSolver(new HashiGrid(nextPuzzle(), null));
+		return s.tryBackTrackSolver(new SolverLimits(0, NODE_BUDGET));
+	}
+
+	private int[][] nextPuzzle() {
+		int[][] p = puzzles.get(next);
+		next = (next + 1) % puzzles.size();
+		return p;
+	}
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.HashiGrid;
+import model.HashiSolver;
+import model.SolverLimits;
+import model.SolverOutcome;
+
+/**
+ * Résolution complète des grilles du corpus (construction de la grille
+ * comprise, voir GridBenchmark.construct), une grille par appel. Les
+ * solveurs par propagation sont limités à NODE_BUDGET nœuds : les grilles
+ * de 7x7 à 13x13 sont résolues bien avant, mais une partie des grilles de
+ * 50x50 et toutes celles de 100x100 l'épuisent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+	private static final long NODE_BUDGET = 100000;
+
+	@Param({"7", "10", "13", "50", "100"})
+	public int size;
+
+	private List<int[][]> puzzles;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		puzzles = Corpus.puzzles(size, Corpus.DEFAULT_COUNT);
+		next = 0;
+	}
+
+	@Benchmark
+	public SolverOutcome propagationSolver() {
+		HashiSolver s = new HashiSolver(new HashiGrid(nextPuzzle(), null));
+		return s.tryPropagationSolver(new SolverLimits(0, NODE_BUDGET));
+	}
+
+	@Benchmark
+	public SolverOutcome parallelSolver() {
+		HashiSolver s = new HashiSolver(new HashiGrid(nextPuzzle(), null));
+		return s.tryParallelSolver(new SolverLimits(0, NODE_BUDGET));
+	}
+
+	@Benchmark
+	public boolean satSolver() {
+		HashiSolver s = new HashiSolver(new HashiGrid(nextPuzzle(), null));
+		s.trySatSolver();
+		return s.isSolved();
+	}
+
+	private int[][] nextPuzzle() {
+		int[][] p = puzzles.get(next);
+		next = (next + 1) % puzzles.size();
+		return p;
+	}
+}
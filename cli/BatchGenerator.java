@@ -0,0 +1,245 @@
+package cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import model.BulkGenerator;
+import model.HashiCodec;
+import model.HashiGenerator;
+import model.HashiGrid;
+import model.RuleTier;
+import util.Contract;
+import util.Puzzle;
+import util.Utils;
+
+/**
+ * Génération en masse, sans interface graphique, d'un paquet de grilles
+ * reproductible (voir BulkGenerator) : la grille k est écrite dans le
+ * fichier hashi-<dimensions>-<k> du répertoire de sortie, au format de
+ * Utils.loadGridFrom, ou sous cet identifiant dans un unique recueil (voir
+ * PuzzleCollection), ou encore, avec sa solution, dans un unique fichier
+ * binaire (voir HashiCodec). Le débit obtenu est affiché. Les dimensions sont
+ * une taille (grille carrée) ou lignesxcolonnes.
+ * Le paquet peut être ciblé par densité d'îles, unicité et niveau de
+ * difficulté ; le taux d'acceptation des candidats est alors affiché.
+ */
+public final class BatchGenerator {
+
+	// CONSTANTES
+
+	private static final String USAGE = "usage: java cli.BatchGenerator"
+			+ " [-t threads] [-s size|heightxwidth] [-r seed] [-f first]"
+			+ " [-u] [-d density] [-g easy|capacity|isolation] [-c|-b]"
+			+ " count directory|file";
+	private static final int DEFAULT_SIZE = 7;
+	private static final long DEFAULT_SEED = 0;
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	// ATTRIBUTS
+
+	private final BulkGenerator generator;
+	private final int threads;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un traitement utilisant generator sur threads fils.
+	 */
+	public BatchGenerator(BulkGenerator generator, int threads) {
+		Contract.checkCondition(generator != null && threads > 0);
+
+		this.generator = generator;
+		this.threads = threads;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Génère les grilles first à first + count - 1 et les écrit dans le
+	 * répertoire dir, créé au besoin.
+	 */
+	public void run(int first, int count, File dir) throws IOException,
+			InterruptedException {
+		Contract.checkCondition(first >= 0 && count >= 0 && dir != null);
+
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("cannot create " + dir);
+		}
+		long start = System.nanoTime();
+		List<int[][]> grids = generator.generate(first, count, threads);
+		long wall = System.nanoTime() - start;
+		for (int k = 0; k < count; k++) {
+			Utils.createFileFrom(new File(dir, name(first, count, k)),
+					grids.get(k));
+		}
+		printSummary(count, wall);
+	}
+
+	/**
+	 * Génère les grilles first à first + count - 1 et les écrit dans le
+	 * recueil f.
+	 */
+	public void runCollection(int first, int count, File f)
+			throws IOException, InterruptedException {
+		Contract.checkCondition(first >= 0 && count >= 0 && f != null);
+
+		long start = System.nanoTime();
+		List<int[][]> grids = generator.generate(first, count, threads);
+		long wall = System.nanoTime() - start;
+		List<Puzzle> puzzles = new ArrayList<Puzzle>(count);
+		for (int k = 0; k < count; k++) {
+			puzzles.add(new Puzzle(name(first, count, k), grids.get(k)));
+		}
+		Utils.createCollectionFrom(f, puzzles);
+		printSummary(count, wall);
+	}
+
+	/**
+	 * Génère les grilles first à first + count - 1 et les écrit, avec leurs
+	 * solutions, dans le fichier binaire f.
+	 */
+	public void runBinary(int first, int count, File f) throws IOException,
+			InterruptedException {
+		Contract.checkCondition(first >= 0 && count >= 0 && f != null);
+
+		long start = System.nanoTime();
+		List<HashiGrid> solutions = generator.generateSolutions(first, count,
+				threads);
+		long wall = System.nanoTime() - start;
+		HashiCodec.save(f, solutions, true);
+		printSummary(count, wall);
+	}
+
+	// OUTILS
+
+	/**
+	 * Nom de la grille first + k d'un paquet de count grilles.
+	 */
+	private String name(int first, int count, int k) {
+		int digits = String.valueOf(first + count - 1).length();
+		return String.format(Locale.ROOT, "hashi-%s-%0" + digits + "d",
+				dimensions(generator), first + k);
+	}
+
+	/**
+	 * Affiche le bilan de la génération de count grilles en wall
+	 * nanosecondes.
+	 */
+	private void printSummary(int count, long wall) {
+		String dimensions = dimensions(generator);
+		System.out.printf(Locale.ROOT, "grids: %d (size %s, seed %d%s%s%s),"
+				+ " threads: %d%n", count, dimensions, generator.getSeed(),
+				generator.isUniqueOnly() ? ", unique" : "",
+				generator.getDensity() > 0 ? ", density "
+						+ generator.getDensity() : "",
+				generator.getTier() != null ? ", tier " + generator.getTier()
+						.name().toLowerCase(Locale.ROOT) : "", threads);
+		System.out.printf(Locale.ROOT, "generation time: %.3f s,"
+				+ " throughput: %.1f grids/s%n", wall / NANOS_PER_SECOND,
+				count / (wall / NANOS_PER_SECOND));
+		long candidates = generator.candidatesNb();
+		if (candidates > 0 && (generator.isUniqueOnly()
+				|| generator.getTier() != null)) {
+			System.out.printf(Locale.ROOT, "candidates: %d, acceptance:"
+					+ " %.1f%% (rejected: %d not unique, %d too easy,"
+					+ " %d too hard)%n", candidates, 100.0 * count / candidates,
+					generator.notUniqueNb(), generator.tooEasyNb(),
+					generator.tooHardNb());
+		}
+	}
+
+	/**
+	 * Dimensions des grilles de g : leur taille si elles sont carrées, et
+	 * lignesxcolonnes sinon.
+	 */
+	private static String dimensions(BulkGenerator g) {
+		return g.getHeight() == g.getWidth() ? String.valueOf(g.getHeight())
+				: g.getHeight() + "x" + g.getWidth();
+	}
+
+	private static boolean isValidSize(int n) {
+		return HashiGenerator.MIN_SIZE <= n && n <= HashiGenerator.MAX_SIZE;
+	}
+
+	// POINT D'ENTREE
+
+	public static void main(String[] args) throws IOException,
+			InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		int height = DEFAULT_SIZE;
+		int width = DEFAULT_SIZE;
+		long seed = DEFAULT_SEED;
+		int first = 0;
+		boolean isUniqueOnly = false;
+		double density = 0;
+		RuleTier tier = null;
+		boolean isCollection = false;
+		boolean isBinary = false;
+		int count = -1;
+		File dir = null;
+		try {
+			for (int k = 0; k < args.length; k++) {
+				switch (args[k]) {
+				case "-t":
+					threads = Integer.parseInt(args[++k]);
+					break;
+				case "-s":
+					String[] dims = args[++k].split("x", 2);
+					height = Integer.parseInt(dims[0]);
+					width = Integer.parseInt(dims[dims.length - 1]);
+					break;
+				case "-r":
+					seed = Long.parseLong(args[++k]);
+					break;
+				case "-f":
+					first = Integer.parseInt(args[++k]);
+					break;
+				case "-u":
+					isUniqueOnly = true;
+					break;
+				case "-d":
+					density = Double.parseDouble(args[++k]);
+					break;
+				case "-g":
+					tier = RuleTier.valueOf(args[++k].toUpperCase(
+							Locale.ROOT));
+					break;
+				case "-c":
+					isCollection = true;
+					break;
+				case "-b":
+					isBinary = true;
+					break;
+				default:
+					if (count < 0) {
+						count = Integer.parseInt(args[k]);
+					} else if (dir == null) {
+						dir = new File(args[k]);
+					} else {
+						throw new IllegalArgumentException(args[k]);
+					}
+				}
+			}
+		} catch (RuntimeException e) {
+			dir = null;
+		}
+		if (dir == null || count < 0 || threads <= 0 || first < 0
+				|| isCollection && isBinary || !isValidSize(height)
+				|| !isValidSize(width) || !(0 <= density && density <= 1)) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		BatchGenerator g = new BatchGenerator(new BulkGenerator(height,
+				width, seed, isUniqueOnly, density, tier), threads);
+		if (isCollection) {
+			g.runCollection(first, count, dir);
+		} else if (isBinary) {
+			g.runBinary(first, count, dir);
+		} else {
+			g.run(first, count, dir);
+		}
+	}
+}
@@ -0,0 +1,495 @@
+package cli;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import model.Branching;
+import model.DifficultyGrader;
+import model.HashiCodec;
+import model.HashiGrid;
+import model.HashiSolver;
+import model.RuleTier;
+import model.SolverLimits;
+import model.SolverOutcome;
+import util.BadSyntaxException;
+import util.Contract;
+import util.Puzzle;
+import util.PuzzleCollection;
+import util.Utils;
+
+/**
+ * Résolution en masse, sans interface graphique, de grilles au format de
+ * Utils.loadGridFrom, de recueils de grilles (voir PuzzleCollection) ou de
+ * fichiers binaires (voir HashiCodec). Un recueil ou un fichier binaire est
+ * lu au fil de l'eau : la file des grilles en attente est
+ * bornée, le fil principal résolvant lui-même une grille quand elle est
+ * pleine. Les grilles sont résolues en parallèle sur un pool de
+ * threads, chacune dans une limite de temps et de nœuds optionnelle ; pour
+ * chacune on écrit son état (une valeur de SolverOutcome, ou ERROR), son
+ * temps de traitement et les statistiques du solveur (SolverStats), puis
+ * un bilan : débit en grilles par seconde et percentiles des latences.
+ * Le solveur grade évalue plutôt la difficulté des grilles (voir
+ * DifficultyGrader) : le niveau de règles le plus difficile, les étapes de
+ * chaque niveau et s'il a fallu deviner remplacent les statistiques.
+ */
+public final class BatchSolver {
+
+	// CONSTANTES
+
+	private static final String USAGE = "usage: java cli.BatchSolver"
+			+ " [-t threads]"
+			+ " [-s easy|backtrack|propagation|parallel|sat|grade]"
+			+ " [-b reading|domain|demand] [-l millis] [-n nodes] [-o report]"
+			+ " file|collection|binary|directory...";
+	private static final String DEFAULT_SOLVER = "propagation";
+	private static final double[] PERCENTILES = {50, 90, 99, 100};
+	private static final double NANOS_PER_MILLI = 1e6;
+	private static final double NANOS_PER_SECOND = 1e9;
+	private static final int QUEUE_PER_THREAD = 4;
+
+	// ATTRIBUTS
+
+	private final int threads;
+	private final String solver;
+	private final Branching branching;
+	private final long timeoutMillis;
+	private final long maxNodes;
+	private final List<File> files;
+
+	// CLASSES INTERNES
+
+	/**
+	 * Résultat du traitement d'une grille.
+	 */
+	private static class Result {
+		private final String name;
+		private final String status;
+		private final long nanos;
+		private final String stats;
+
+		private Result(String name, String status, long nanos,
+				String stats) {
+			this.name = name;
+			this.status = status;
+			this.nanos = nanos;
+			this.stats = stats;
+		}
+	}
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un traitement des fichiers files avec le solveur solver sur
+	 * threads threads.
+	 */
+	public BatchSolver(int threads, String solver, List<File> files) {
+		this(threads, solver, Branching.READING_ORDER, 0, 0, files);
+	}
+
+	/**
+	 * Crée un traitement des fichiers files avec le solveur solver et
+	 * l'heuristique de branchement branching sur threads threads, chaque
+	 * grille étant limitée à timeoutMillis millisecondes et maxNodes nœuds
+	 * (0 pour ne pas limiter).
+	 */
+	public BatchSolver(int threads, String solver, Branching branching,
+			long timeoutMillis, long maxNodes, List<File> files) {
+		Contract.checkCondition(threads > 0 && isKnownSolver(solver)
+				&& branching != null && timeoutMillis >= 0 && maxNodes >= 0
+				&& files != null);
+
+		this.threads = threads;
+		this.solver = solver;
+		this.branching = branching;
+		this.timeoutMillis = timeoutMillis;
+		this.maxNodes = maxNodes;
+		this.files = new ArrayList<File>(files);
+	}
+
+	// COMMANDES
+
+	/**
+	 * Résout toutes les grilles et écrit le rapport dans out.
+	 */
+	public void run(PrintWriter out) throws InterruptedException {
+		ExecutorService pool = new ThreadPoolExecutor(threads, threads, 0,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(
+						threads * QUEUE_PER_THREAD),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+		List<Future<Result>> futures = new ArrayList<Future<Result>>();
+		long start = System.nanoTime();
+		for (final File f : files) {
+			if (isBinary(f)) {
+				submitBinary(pool, f, futures);
+			} else if (isCollection(f)) {
+				submitCollection(pool, f, futures);
+			} else {
+				futures.add(pool.submit(new Callable<Result>() {
+					@Override
+					public Result call() {
+						return solve(f);
+					}
+				}));
+			}
+		}
+		List<Result> results = new ArrayList<Result>();
+		for (Future<Result> f : futures) {
+			try {
+				results.add(f.get());
+			} catch (ExecutionException e) {
+				// L'erreur d'une résolution est relancée telle quelle
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+		long wall = System.nanoTime() - start;
+		pool.shutdown();
+		writeReport(out, results, wall);
+	}
+
+	// OUTILS
+
+	/**
+	 * Soumet à pool la résolution de chacune des grilles du recueil f, lues
+	 * une à une, et ajoute les tâches à futures. Une erreur de lecture
+	 * interrompt le recueil et est rapportée comme une grille en erreur.
+	 */
+	private void submitCollection(ExecutorService pool, File f,
+			List<Future<Result>> futures) {
+		try {
+			PuzzleCollection c = new PuzzleCollection(f);
+			try {
+				Puzzle p;
+				while ((p = c.read()) != null) {
+					final String name = f.getPath() + "#" + p.getId();
+					final int[][] islands = p.getIslands();
+					futures.add(pool.submit(new Callable<Result>() {
+						@Override
+						public Result call() {
+							return solve(name, islands, System.nanoTime());
+						}
+					}));
+				}
+			} finally {
+				c.close();
+			}
+		} catch (IOException | BadSyntaxException e) {
+			futures.add(CompletableFuture.completedFuture(error(f.getPath(),
+					e.getMessage(), System.nanoTime())));
+		}
+	}
+
+	/**
+	 * Soumet à pool la résolution de chacune des grilles du fichier binaire
+	 * f, et ajoute les tâches à futures. Le fichier est projeté en mémoire ;
+	 * le fil principal ne fait que repérer les enregistrements, chaque tâche
+	 * décode le sien. La grille k est nommée f#k.
+	 */
+	private void submitBinary(ExecutorService pool, File f,
+			List<Future<Result>> futures) {
+		try {
+			ByteBuffer buf = HashiCodec.map(f);
+			for (int k = 0; buf.hasRemaining(); k++) {
+				final String name = f.getPath() + "#" + k;
+				final ByteBuffer record = buf.duplicate();
+				HashiCodec.skip(buf);
+				futures.add(pool.submit(new Callable<Result>() {
+					@Override
+					public Result call() {
+						long start = System.nanoTime();
+						try {
+							return solve(name, HashiCodec.decode(record, false),
+									start);
+						} catch (BadSyntaxException e) {
+							return error(name, e.getMessage(), start);
+						}
+					}
+				}));
+			}
+		} catch (IOException | BadSyntaxException e) {
+			futures.add(CompletableFuture.completedFuture(error(f.getPath(),
+					e.getMessage(), System.nanoTime())));
+		}
+	}
+
+	/**
+	 * Charge et résout la grille du fichier f.
+	 */
+	private Result solve(File f) {
+		long start = System.nanoTime();
+		try {
+			return solve(f.getPath(), Utils.loadGridFrom(f.getPath()), start);
+		} catch (IOException | BadSyntaxException e) {
+			return error(f.getPath(), e.getMessage(), start);
+		}
+	}
+
+	/**
+	 * Résout la grille d'îles islands, de nom name, dont le traitement a
+	 * commencé à l'instant start.
+	 */
+	private Result solve(String name, int[][] islands, long start) {
+		if (!Utils.isValidTab(islands)) {
+			return error(name, "invalid grid", start);
+		}
+		return solve(name, new HashiGrid(islands, null), start);
+	}
+
+	/**
+	 * Résout la grille grid, de nom name, dont le traitement a commencé à
+	 * l'instant start.
+	 */
+	private Result solve(String name, HashiGrid grid, long start) {
+		String status;
+		String stats = "";
+		try {
+			SolverLimits limits = new SolverLimits(timeoutMillis, maxNodes);
+			if (solver.equals("grade")) {
+				return grade(name, grid, limits, start);
+			}
+			HashiSolver s = new HashiSolver(grid);
+			s.setBranching(branching);
+			SolverOutcome outcome;
+			switch (solver) {
+			case "easy":
+				outcome = s.tryEasySolver(limits);
+				break;
+			case "backtrack":
+				outcome = s.tryBackTrackSolver(limits);
+				break;
+			case "parallel":
+				outcome = s.tryParallelSolver(limits);
+				break;
+			case "sat":
+				outcome = s.trySatSolver(limits);
+				break;
+			default:
+				outcome = s.tryPropagationSolver(limits);
+			}
+			if (outcome == SolverOutcome.SOLVED && !grid.isValidGrid()) {
+				outcome = SolverOutcome.UNSOLVED;
+			}
+			status = outcome.name();
+			stats = s.getStats().toString();
+		} catch (Exception e) {
+			status = "ERROR (" + e.getMessage() + ")";
+		} catch (StackOverflowError e) {
+			status = "ERROR (stack overflow)";
+		}
+		return new Result(name, status, System.nanoTime() - start, stats);
+	}
+
+	/**
+	 * Évalue la difficulté de la grille grid, de nom name, dont le
+	 * traitement a commencé à l'instant start (voir DifficultyGrader). Les
+	 * limites limits ne portent que sur la résolution qui suit les règles
+	 * quand il faut deviner.
+	 */
+	private static Result grade(String name, HashiGrid grid,
+			SolverLimits limits, long start) {
+		DifficultyGrader g = new DifficultyGrader(grid);
+		g.setLimits(limits);
+		g.grade();
+		StringBuilder stats = new StringBuilder();
+		stats.append("tier=").append(g.getHardestTier());
+		for (RuleTier t : RuleTier.values()) {
+			stats.append(' ').append(t.name().toLowerCase(Locale.ROOT))
+					.append('=').append(g.stepsNb(t));
+		}
+		stats.append(" guessed=").append(g.isGuessed());
+		return new Result(name, g.getOutcome().name(),
+				System.nanoTime() - start, stats.toString());
+	}
+
+	/**
+	 * Résultat en erreur, de message message, de la grille name dont le
+	 * traitement a commencé à l'instant start.
+	 */
+	private static Result error(String name, String message, long start) {
+		return new Result(name, "ERROR (" + message + ")",
+				System.nanoTime() - start, "");
+	}
+
+	/**
+	 * Écrit une ligne par grille, dans l'ordre des fichiers, puis le bilan.
+	 */
+	private void writeReport(PrintWriter out, List<Result> results,
+			long wall) {
+		int solved = 0;
+		int timeouts = 0;
+		long[] latencies = new long[results.size()];
+		for (int k = 0; k < results.size(); k++) {
+			Result r = results.get(k);
+			out.printf(Locale.ROOT, "%s\t%s\t%.3f ms\t%s%n",
+					r.name, r.status, r.nanos / NANOS_PER_MILLI,
+					r.stats);
+			if (r.status.equals(SolverOutcome.SOLVED.name())) {
+				solved++;
+			} else if (r.status.equals(SolverOutcome.TIMEOUT.name())) {
+				timeouts++;
+			}
+			latencies[k] = r.nanos;
+		}
+		Arrays.sort(latencies);
+		out.printf(Locale.ROOT, "%nsolver: %s, threads: %d%n", solver,
+				threads);
+		out.printf(Locale.ROOT, "puzzles: %d, solved: %d, not solved: %d"
+				+ " (timeouts: %d)%n", results.size(), solved,
+				results.size() - solved, timeouts);
+		out.printf(Locale.ROOT, "wall time: %.3f s, throughput: %.1f"
+				+ " puzzles/s%n", wall / NANOS_PER_SECOND,
+				results.size() / (wall / NANOS_PER_SECOND));
+		if (latencies.length > 0) {
+			for (double p : PERCENTILES) {
+				out.printf(Locale.ROOT, "latency p%.0f: %.3f ms%n", p,
+						percentile(latencies, p) / NANOS_PER_MILLI);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Percentile p (méthode du rang le plus proche) du tableau trié sorted.
+	 */
+	private static long percentile(long[] sorted, double p) {
+		int rank = (int) Math.ceil(p / 100 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+	}
+
+	/**
+	 * Teste si f est un fichier binaire ; un fichier illisible n'en est pas
+	 * un.
+	 */
+	private static boolean isBinary(File f) {
+		try {
+			return HashiCodec.isEncoded(f);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Teste si f est un recueil ; un fichier illisible n'en est pas un, son
+	 * erreur sera rapportée à sa résolution.
+	 */
+	private static boolean isCollection(File f) {
+		try {
+			return PuzzleCollection.isCollection(f);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static boolean isKnownSolver(String s) {
+		return s.equals("easy") || s.equals("backtrack")
+				|| s.equals("propagation") || s.equals("parallel")
+				|| s.equals("sat") || s.equals("grade");
+	}
+
+	/**
+	 * Heuristique de branchement de nom name (reading, domain ou demand),
+	 * ou null si ce nom est inconnu.
+	 */
+	private static Branching branchingOf(String name) {
+		switch (name) {
+		case "reading":
+			return Branching.READING_ORDER;
+		case "domain":
+			return Branching.MIN_DOMAIN;
+		case "demand":
+			return Branching.MAX_DEMAND;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Ajoute à la liste files le fichier f, ou les fichiers du répertoire
+	 * f triés par nom.
+	 */
+	private static void collect(File f, List<File> files) {
+		File[] content = f.listFiles();
+		if (content != null) {
+			Arrays.sort(content);
+			for (File g : content) {
+				if (g.isFile()) {
+					files.add(g);
+				}
+			}
+		} else {
+			files.add(f);
+		}
+	}
+
+	// POINT D'ENTREE
+
+	public static void main(String[] args) throws IOException,
+			InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String solver = DEFAULT_SOLVER;
+		Branching branching = Branching.READING_ORDER;
+		String report = null;
+		long timeoutMillis = 0;
+		long maxNodes = 0;
+		List<File> files = new ArrayList<File>();
+		try {
+			for (int k = 0; k < args.length; k++) {
+				switch (args[k]) {
+				case "-t":
+					threads = Integer.parseInt(args[++k]);
+					break;
+				case "-s":
+					solver = args[++k];
+					break;
+				case "-b":
+					branching = branchingOf(args[++k]);
+					break;
+				case "-l":
+					timeoutMillis = Long.parseLong(args[++k]);
+					break;
+				case "-n":
+					maxNodes = Long.parseLong(args[++k]);
+					break;
+				case "-o":
+					report = args[++k];
+					break;
+				default:
+					collect(new File(args[k]), files);
+				}
+			}
+		} catch (RuntimeException e) {
+			files.clear();
+		}
+		if (files.isEmpty() || threads <= 0 || !isKnownSolver(solver)
+				|| branching == null || timeoutMillis < 0 || maxNodes < 0) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		PrintWriter out = report == null ? new PrintWriter(System.out)
+				: new PrintWriter(new FileWriter(report));
+		new BatchSolver(threads, solver, branching, timeoutMillis, maxNodes,
+				files).run(out);
+		out.close();
+	}
+}
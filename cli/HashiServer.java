@@ -0,0 +1,692 @@
+package cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import model.Branching;
+import model.BulkGenerator;
+import model.DifficultyGrader;
+import model.EdgeTable;
+import model.HashiGenerator;
+import model.HashiGrid;
+import model.HashiSolver;
+import model.RuleTier;
+import model.SolverLimits;
+import model.SolverOutcome;
+import util.BadSyntaxException;
+import util.Contract;
+import util.Json;
+import util.Utils;
+
+/**
+ * Service HTTP embarqué (com.sun.net.httpserver) de résolution, de
+ * validation et de génération de grilles :
+ * POST /solve résout la grille du corps de la requête, POST /validate
+ * compte ses solutions et évalue sa difficulté, GET ou POST /generate
+ * génère une grille. Une grille est lue au format de Utils.loadGridFrom,
+ * ou en JSON (voir Json.gridFrom) si le corps commence par '[' ou '{'. Les
+ * paramètres sont passés dans l'URL ; les réponses sont en JSON.
+ * Chaque requête est traitée sur son propre fil virtuel quand la JVM en
+ * dispose (Java 21 et plus), et sinon sur un pool de fils extensible. Le
+ * travail des solveurs est borné par un sémaphore de concurrency jetons :
+ * au-delà, les requêtes attendent leur tour sans occuper de processeur.
+ * Une résolution parallèle prend tous les jetons, et tourne sur un pool
+ * propre au service de concurrency fils.
+ * Chaque requête a une échéance (paramètre timeout, en millisecondes) qui
+ * couvre l'attente d'un jeton et la résolution : une requête qui n'obtient
+ * pas de jeton à temps reçoit une réponse 503, et une résolution arrêtée
+ * par l'échéance a l'issue TIMEOUT. La latence d'une requête reste ainsi
+ * bornée par son échéance, quelle que soit la charge.
+ */
+public final class HashiServer {
+
+	// CONSTANTES
+
+	private static final String USAGE = "usage: java cli.HashiServer"
+			+ " [-p port] [-c concurrency] [-l millis]";
+	private static final int DEFAULT_PORT = 8080;
+	private static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+	private static final long MAX_TIMEOUT_MILLIS = 600000;
+	private static final int MAX_BODY_SIZE = 16 << 20;
+	private static final int DEFAULT_GENERATED_SIZE = 7;
+	// Un candidat de cette taille se génère et s'évalue en quelques
+	// secondes : au-delà, le travail qui suit l'échéance serait trop long
+	private static final int MAX_GENERATED_SIZE = 200;
+	private static final int OK = 200;
+	private static final int BAD_REQUEST = 400;
+	private static final int NOT_FOUND = 404;
+	private static final int BAD_METHOD = 405;
+	private static final int TOO_LARGE = 413;
+	private static final int SERVER_ERROR = 500;
+	private static final int UNAVAILABLE = 503;
+	private static final String JSON_TYPE = "application/json; charset=utf-8";
+	private static final String TEXT_TYPE = "text/plain; charset=utf-8";
+
+	// ATTRIBUTS
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	private final int concurrency;
+	// Pool des résolutions parallèles, qui prennent tous les jetons
+	private final ForkJoinPool parallelPool;
+	private final long defaultTimeoutMillis;
+
+	// CLASSES INTERNES
+
+	/**
+	 * Erreur de requête, renvoyée au client avec le code status.
+	 */
+	@SuppressWarnings("serial")
+	private static class RequestException extends Exception {
+
+		private final int status;
+
+		private RequestException(int status, String message) {
+			super(message);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * Réponse à une requête : code, type et corps.
+	 */
+	private static class Response {
+
+		private final int status;
+		private final String type;
+		private final String body;
+
+		private Response(int status, String type, String body) {
+			this.status = status;
+			this.type = type;
+			this.body = body;
+		}
+	}
+
+	/**
+	 * Requête en cours : paramètres, corps et échéance.
+	 */
+	private class Request {
+
+		private final HttpExchange exchange;
+		private final Map<String, String> params;
+		private final long deadline;
+
+		private Request(HttpExchange exchange) throws RequestException {
+			this.exchange = exchange;
+			params = parseQuery(exchange.getRequestURI().getRawQuery());
+			long timeout = longParam("timeout", defaultTimeoutMillis);
+			if (timeout <= 0 || timeout > MAX_TIMEOUT_MILLIS) {
+				throw new RequestException(BAD_REQUEST, "Invalid timeout");
+			}
+			deadline = System.nanoTime()
+					+ TimeUnit.MILLISECONDS.toNanos(timeout);
+		}
+
+		/**
+		 * Millisecondes restant avant l'échéance, au moins 1.
+		 */
+		private long remainingMillis() {
+			return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline
+					- System.nanoTime()));
+		}
+
+		private String param(String name, String defaultValue) {
+			String v = params.get(name);
+			return v == null ? defaultValue : v;
+		}
+
+		private long longParam(String name, long defaultValue)
+				throws RequestException {
+			String v = params.get(name);
+			try {
+				return v == null ? defaultValue : Long.parseLong(v);
+			} catch (NumberFormatException e) {
+				throw new RequestException(BAD_REQUEST, "Invalid " + name);
+			}
+		}
+
+		/**
+		 * Valeur entière du paramètre name. Lève une RequestException (400)
+		 * si elle n'est pas un int, en particulier si elle le dépasse.
+		 */
+		private int intParam(String name, int defaultValue)
+				throws RequestException {
+			String v = params.get(name);
+			try {
+				return v == null ? defaultValue : Integer.parseInt(v);
+			} catch (NumberFormatException e) {
+				throw new RequestException(BAD_REQUEST, "Invalid " + name);
+			}
+		}
+
+		private double doubleParam(String name, double defaultValue)
+				throws RequestException {
+			String v = params.get(name);
+			try {
+				return v == null ? defaultValue : Double.parseDouble(v);
+			} catch (NumberFormatException e) {
+				throw new RequestException(BAD_REQUEST, "Invalid " + name);
+			}
+		}
+
+		/**
+		 * Grille du corps de la requête.
+		 */
+		private int[][] grid() throws IOException, RequestException {
+			String body = readBody(exchange);
+			try {
+				String s = body.trim();
+				if (s.startsWith("[") || s.startsWith("{")) {
+					return Json.gridFrom(Json.parse(s));
+				}
+				int[][] islands = Utils.loadGridFrom(new StringReader(body));
+				if (!Utils.isValidTab(islands)) {
+					throw new BadSyntaxException("Invalid grid");
+				}
+				return islands;
+			} catch (BadSyntaxException e) {
+				throw new RequestException(BAD_REQUEST, e.getMessage());
+			}
+		}
+
+		/**
+		 * Prend un jeton du sémaphore avant l'échéance. Lève une
+		 * RequestException (503) si aucun ne s'est libéré à temps.
+		 */
+		private void acquire() throws RequestException {
+			acquire(1);
+		}
+
+		/**
+		 * Prend n jetons du sémaphore avant l'échéance. Lève une
+		 * RequestException (503) s'ils ne se sont pas libérés à temps.
+		 */
+		private void acquire(int n) throws RequestException {
+			try {
+				if (!permits.tryAcquire(n, deadline - System.nanoTime(),
+						TimeUnit.NANOSECONDS)) {
+					throw new RequestException(UNAVAILABLE, "Server busy");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RequestException(UNAVAILABLE, "Interrupted");
+			}
+		}
+	}
+
+	/**
+	 * Traitement d'une route : toutes les erreurs sont transformées en
+	 * réponses JSON.
+	 */
+	private abstract class Route implements HttpHandler {
+
+		private final String path;
+		private final boolean isGetAllowed;
+
+		private Route(String path, boolean isGetAllowed) {
+			this.path = path;
+			this.isGetAllowed = isGetAllowed;
+		}
+
+		abstract Response handle(Request r) throws IOException,
+				RequestException;
+
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			Response response;
+			try {
+				String method = exchange.getRequestMethod();
+				if (!exchange.getRequestURI().getPath().equals(path)) {
+					throw new RequestException(NOT_FOUND, "Not found");
+				}
+				if (!method.equals("POST")
+						&& !(isGetAllowed && method.equals("GET"))) {
+					throw new RequestException(BAD_METHOD,
+							"Method not allowed");
+				}
+				response = handle(new Request(exchange));
+			} catch (RequestException e) {
+				response = error(e.status, e.getMessage());
+			} catch (RuntimeException e) {
+				response = error(SERVER_ERROR, String.valueOf(e));
+			} catch (StackOverflowError e) {
+				response = error(SERVER_ERROR, "Stack overflow");
+			}
+			send(exchange, response);
+		}
+	}
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un service écoutant sur le port port (0 pour un port libre
+	 * quelconque), qui fait travailler au plus concurrency solveurs à la
+	 * fois, l'échéance par défaut des requêtes étant de
+	 * defaultTimeoutMillis millisecondes. Le service n'est pas démarré.
+	 */
+	public HashiServer(int port, int concurrency, long defaultTimeoutMillis)
+			throws IOException {
+		Contract.checkCondition(port >= 0 && concurrency > 0
+				&& defaultTimeoutMillis > 0
+				&& defaultTimeoutMillis <= MAX_TIMEOUT_MILLIS);
+
+		server = HttpServer.create(new InetSocketAddress(port), 0);
+		executor = newRequestExecutor();
+		permits = new Semaphore(concurrency, true);
+		this.concurrency = concurrency;
+		parallelPool = new ForkJoinPool(concurrency);
+		this.defaultTimeoutMillis = defaultTimeoutMillis;
+		server.setExecutor(executor);
+		server.createContext("/solve", new Route("/solve", false) {
+			@Override
+			Response handle(Request r) throws IOException,
+					RequestException {
+				return solve(r);
+			}
+		});
+		server.createContext("/validate", new Route("/validate", false) {
+			@Override
+			Response handle(Request r) throws IOException,
+					RequestException {
+				return validate(r);
+			}
+		});
+		server.createContext("/generate", new Route("/generate", true) {
+			@Override
+			Response handle(Request r) throws IOException,
+					RequestException {
+				return generate(r);
+			}
+		});
+	}
+
+	// REQUETES
+
+	/**
+	 * Port sur lequel le service écoute.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	// COMMANDES
+
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Arrête le service, en laissant au plus delaySeconds secondes aux
+	 * requêtes en cours pour se terminer.
+	 */
+	public void stop(int delaySeconds) {
+		server.stop(delaySeconds);
+		executor.shutdownNow();
+		parallelPool.shutdownNow();
+	}
+
+	// OUTILS
+
+	/**
+	 * POST /solve?solver=...&branching=...&timeout=... : résout la grille.
+	 * La réponse donne l'issue, le temps de résolution, les statistiques du
+	 * solveur et, si la grille est résolue, ses ponts
+	 * [ligne1, colonne1, ligne2, colonne2, nombre].
+	 * Le solveur parallèle occupe concurrency fils du pool parallelPool :
+	 * il prend tous les jetons.
+	 */
+	private Response solve(Request r) throws IOException, RequestException {
+		HashiGrid grid = new HashiGrid(r.grid(), null);
+		HashiSolver s = new HashiSolver(grid);
+		s.setBranching(branchingOf(r.param("branching", "reading")));
+		String solver = r.param("solver", "propagation");
+		int n = solver.equals("parallel") ? concurrency : 1;
+		r.acquire(n);
+		SolverOutcome outcome;
+		long start = System.nanoTime();
+		try {
+			SolverLimits limits = new SolverLimits(r.remainingMillis(), 0);
+			switch (solver) {
+			case "easy":
+				outcome = s.tryEasySolver(limits);
+				break;
+			case "backtrack":
+				outcome = s.tryBackTrackSolver(limits);
+				break;
+			case "propagation":
+				outcome = s.tryPropagationSolver(limits);
+				break;
+			case "parallel":
+				outcome = s.tryParallelSolver(limits, parallelPool);
+				break;
+			case "sat":
+				outcome = s.trySatSolver(limits);
+				break;
+			default:
+				throw new RequestException(BAD_REQUEST, "Unknown solver");
+			}
+		} finally {
+			permits.release(n);
+		}
+		if (outcome == SolverOutcome.SOLVED && !grid.isValidGrid()) {
+			outcome = SolverOutcome.UNSOLVED;
+		}
+		StringBuilder b = new StringBuilder();
+		b.append("{\"outcome\":").append(Json.quote(outcome.name()));
+		b.append(",\"millis\":").append(millisSince(start));
+		b.append(",\"stats\":").append(Json.quote(s.getStats().toString()));
+		if (outcome == SolverOutcome.SOLVED) {
+			b.append(",\"bridges\":").append(bridgesToJson(grid));
+		}
+		return new Response(OK, JSON_TYPE, b.append('}').toString());
+	}
+
+	/**
+	 * POST /validate?timeout=... : compte les solutions de la grille (au
+	 * plus 2) et évalue sa difficulté (voir DifficultyGrader). Si
+	 * l'échéance est atteinte, le compte n'est qu'un minorant, l'issue est
+	 * TIMEOUT et l'unicité inconnue (null).
+	 */
+	private Response validate(Request r) throws IOException,
+			RequestException {
+		HashiGrid grid = new HashiGrid(r.grid(), null);
+		r.acquire();
+		int solutions;
+		SolverOutcome outcome;
+		boolean isCounted;
+		DifficultyGrader grader = new DifficultyGrader(grid);
+		try {
+			SolverLimits limits = new SolverLimits(r.remainingMillis(), 0);
+			HashiSolver s = new HashiSolver(grid);
+			solutions = s.countSolutions(2, limits);
+			outcome = s.getOutcome();
+			isCounted = outcome == SolverOutcome.SOLVED
+					|| outcome == SolverOutcome.UNSOLVED;
+			if (isCounted) {
+				grader.setLimits(limits);
+				grader.grade();
+			}
+		} finally {
+			permits.release();
+		}
+		StringBuilder b = new StringBuilder();
+		b.append("{\"outcome\":").append(Json.quote(outcome.name()));
+		b.append(",\"solutions\":").append(solutions);
+		b.append(",\"unique\":").append(isCounted
+				? String.valueOf(solutions == 1) : "null");
+		if (grader.getOutcome() != null) {
+			RuleTier t = grader.getHardestTier();
+			b.append(",\"tier\":").append(t == null ? "null"
+					: Json.quote(t.name().toLowerCase(Locale.ROOT)));
+			b.append(",\"steps\":").append(grader.stepsNb());
+			b.append(",\"guessed\":").append(grader.isGuessed());
+		}
+		return new Response(OK, JSON_TYPE, b.append('}').toString());
+	}
+
+	/**
+	 * GET ou POST /generate?size=...|height=...&width=...&density=...
+	 * &tier=...&unique=true&seed=...&format=json|text&timeout=... : génère
+	 * une grille (voir BulkGenerator) ; la même graine donne la même
+	 * grille. Les dimensions sont au plus MAX_GENERATED_SIZE. Si
+	 * l'échéance est atteinte avant qu'un candidat convienne, la réponse
+	 * est 503 et la génération est interrompue.
+	 * La génération tourne sur son propre fil, qui garde le jeton jusqu'à
+	 * ce qu'elle se soit vraiment arrêtée : le jeton passe à ce fil s'il
+	 * démarre, et reste sinon à la requête qui le rend.
+	 */
+	private Response generate(Request r) throws IOException,
+			RequestException {
+		int size = r.intParam("size", DEFAULT_GENERATED_SIZE);
+		int height = r.intParam("height", size);
+		int width = r.intParam("width", size);
+		double density = r.doubleParam("density", 0);
+		long seed = r.longParam("seed", System.nanoTime());
+		boolean isUniqueOnly = Boolean.parseBoolean(r.param("unique",
+				"false"));
+		String format = r.param("format", "json");
+		RuleTier tier = null;
+		if (r.param("tier", null) != null) {
+			try {
+				tier = RuleTier.valueOf(r.param("tier", null).toUpperCase(
+						Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				throw new RequestException(BAD_REQUEST, "Unknown tier");
+			}
+		}
+		if (!isValidSize(height) || !isValidSize(width) || density < 0
+				|| density > 1 || !format.equals("json")
+				&& !format.equals("text")) {
+			throw new RequestException(BAD_REQUEST, "Invalid parameters");
+		}
+		final BulkGenerator g = new BulkGenerator(height, width, seed,
+				isUniqueOnly, density, tier);
+		r.acquire();
+		// Passe à true quand le fil de génération ou la requête prend le
+		// jeton à sa charge
+		final AtomicBoolean isPermitTaken = new AtomicBoolean();
+		int[][] islands;
+		try {
+			Future<List<int[][]>> f = executor.submit(
+					new Callable<List<int[][]>>() {
+						@Override
+						public List<int[][]> call()
+								throws InterruptedException {
+							if (!isPermitTaken.compareAndSet(false, true)) {
+								return null;
+							}
+							try {
+								return g.generate(0, 1, 1);
+							} finally {
+								permits.release();
+							}
+						}
+					});
+			try {
+				islands = f.get(r.remainingMillis(), TimeUnit.MILLISECONDS)
+						.get(0);
+			} catch (TimeoutException e) {
+				f.cancel(true);
+				throw new RequestException(UNAVAILABLE, "Deadline reached");
+			} catch (InterruptedException e) {
+				f.cancel(true);
+				Thread.currentThread().interrupt();
+				throw new RequestException(UNAVAILABLE, "Interrupted");
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		} finally {
+			if (isPermitTaken.compareAndSet(false, true)) {
+				permits.release();
+			}
+		}
+		if (format.equals("text")) {
+			StringWriter w = new StringWriter();
+			Utils.writeGridTo(w, islands);
+			return new Response(OK, TEXT_TYPE, w.toString());
+		}
+		return new Response(OK, JSON_TYPE, "{\"seed\":" + seed
+				+ ",\"candidates\":" + g.candidatesNb() + ",\"islands\":"
+				+ Json.gridToJson(islands) + "}");
+	}
+
+	/**
+	 * Ponts de la grille grid, en JSON.
+	 */
+	private static String bridgesToJson(HashiGrid grid) {
+		EdgeTable t = grid.getEdgeTable();
+		StringBuilder b = new StringBuilder();
+		b.append('[');
+		boolean isFirst = true;
+		for (int e = 0; e < t.nbEdges(); e++) {
+			int n = grid.bridgesOn(e);
+			if (n > 0) {
+				int i = t.edgeFrom(e);
+				int j = t.edgeTo(e);
+				b.append(isFirst ? "" : ",").append('[').append(t.islandX(i))
+						.append(',').append(t.islandY(i)).append(',')
+						.append(t.islandX(j)).append(',').append(t.islandY(j))
+						.append(',').append(n).append(']');
+				isFirst = false;
+			}
+		}
+		return b.append(']').toString();
+	}
+
+	private static Response error(int status, String message) {
+		return new Response(status, JSON_TYPE, "{\"error\":"
+				+ Json.quote(message == null ? "" : message) + "}");
+	}
+
+	private static void send(HttpExchange exchange, Response r)
+			throws IOException {
+		byte[] body = r.body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", r.type);
+		exchange.sendResponseHeaders(r.status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		try {
+			out.write(body);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Corps de la requête, lu en UTF-8. Lève une RequestException (413)
+	 * s'il dépasse MAX_BODY_SIZE octets.
+	 */
+	private static String readBody(HttpExchange exchange) throws IOException,
+			RequestException {
+		InputStream in = exchange.getRequestBody();
+		ByteArrayOutputStream buf = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		int n;
+		while ((n = in.read(chunk)) != -1) {
+			if (buf.size() + n > MAX_BODY_SIZE) {
+				throw new RequestException(TOO_LARGE, "Body too large");
+			}
+			buf.write(chunk, 0, n);
+		}
+		return new String(buf.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Paramètres de la chaîne de requête query, décodés.
+	 */
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> params = new HashMap<String, String>();
+		if (query != null) {
+			for (String pair : query.split("&")) {
+				int eq = pair.indexOf('=');
+				String key = eq < 0 ? pair : pair.substring(0, eq);
+				String value = eq < 0 ? "" : pair.substring(eq + 1);
+				params.put(URLDecoder.decode(key, StandardCharsets.UTF_8),
+						URLDecoder.decode(value, StandardCharsets.UTF_8));
+			}
+		}
+		return params;
+	}
+
+	/**
+	 * Heuristique de branchement de nom name, comme pour BatchSolver.
+	 */
+	private static Branching branchingOf(String name)
+			throws RequestException {
+		switch (name) {
+		case "reading":
+			return Branching.READING_ORDER;
+		case "domain":
+			return Branching.MIN_DOMAIN;
+		case "demand":
+			return Branching.MAX_DEMAND;
+		default:
+			throw new RequestException(BAD_REQUEST, "Unknown branching");
+		}
+	}
+
+	private static double millisSince(long start) {
+		return (System.nanoTime() - start) / 1000 / 1000.0;
+	}
+
+	private static boolean isValidSize(int n) {
+		return HashiGenerator.MIN_SIZE <= n && n <= MAX_GENERATED_SIZE;
+	}
+
+	/**
+	 * Exécuteur des requêtes : un fil virtuel par tâche si la JVM en
+	 * dispose, sinon un pool de fils extensible. La méthode est cherchée
+	 * par réflexion pour que le service compile et tourne dès Java 17.
+	 */
+	private static ExecutorService newRequestExecutor() {
+		try {
+			Method m = Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) m.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	// POINT D'ENTREE
+
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int concurrency = Runtime.getRuntime().availableProcessors();
+		long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+		try {
+			for (int k = 0; k < args.length; k++) {
+				switch (args[k]) {
+				case "-p":
+					port = Integer.parseInt(args[++k]);
+					break;
+				case "-c":
+					concurrency = Integer.parseInt(args[++k]);
+					break;
+				case "-l":
+					timeoutMillis = Long.parseLong(args[++k]);
+					break;
+				default:
+					throw new IllegalArgumentException(args[k]);
+				}
+			}
+		} catch (RuntimeException e) {
+			port = -1;
+		}
+		if (port < 0 || concurrency <= 0 || timeoutMillis <= 0
+				|| timeoutMillis > MAX_TIMEOUT_MILLIS) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		HashiServer s = new HashiServer(port, concurrency, timeoutMillis);
+		s.start();
+		System.out.println("listening on port " + s.getPort());
+	}
+}
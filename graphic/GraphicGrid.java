@@ -10,8 +10,9 @@ import javax.swing.JComponent;
 
 import model.Bridge;
 import model.Coord;
+import model.Direction;
+import model.EdgeTable;
 import model.HashiGrid;
-import model.Island;
 import util.Contract;
 
 @SuppressWarnings({ "serial" })
@@ -75,8 +76,8 @@ public class GraphicGrid extends JComponent {
 		model = grid;
 		islands = createGraphicIslands(grid);
 		bridges = createGraphicBridges(grid);
-		int size = model.getSize() * CELL_SIZE + 1;
-		setPreferredSize(new Dimension(size, size));
+		setPreferredSize(new Dimension(model.getWidth() * CELL_SIZE + 1,
+				model.getHeight() * CELL_SIZE + 1));
 	}
 	
 	/**
@@ -84,29 +85,28 @@ public class GraphicGrid extends JComponent {
 	 */
 	private List<GraphicIsland> createGraphicIslands(HashiGrid model) {
 		List<GraphicIsland> l = new ArrayList<GraphicIsland>();
-		for (int x = 0; x < model.getSize(); x++) {
-			for (int y = 0; y < model.getSize(); y++) {
-				Coord c = new Coord(x, y);
-				Island i = model.getIslandAt(c);
-				if (i != null) {
-					l.add(new GraphicIsland(i, c));
-				}
-			}
+		EdgeTable table = model.getEdgeTable();
+		for (int i = 0; i < model.nbIslands(); i++) {
+			l.add(new GraphicIsland(model.bridgesNb(i), table.islandCoord(i)));
 		}
 		return l;
 	}
 	
 	/**
-	 * Crée les GraphicBridge associés aux ponts du modèle.
+	 * Crée les GraphicBridge associés aux ponts du modèle : un par case
+	 * traversée par une arête portant des ponts.
 	 */
 	private List<GraphicBridge> createGraphicBridges(HashiGrid model) {
 		List<GraphicBridge> l = new ArrayList<GraphicBridge>();
-		for (int x = 0; x < model.getSize(); x++) {
-			for (int y = 0; y < model.getSize(); y++) {
-				Coord c = new Coord(x, y);
-				Bridge b = model.getBridgeAt(c);
-				if (b != null) {
-					l.add(new GraphicBridge(b, c));
+		EdgeTable table = model.getEdgeTable();
+		for (int e = 0; e < table.nbEdges(); e++) {
+			if (model.bridgesOn(e) > 0) {
+				Direction dir = table.edgeDirection(e);
+				Bridge b = new Bridge(dir, model.bridgesOn(e));
+				Coord c = table.islandCoord(table.edgeFrom(e));
+				for (int k = 1; k <= table.edgeLength(e); k++) {
+					l.add(new GraphicBridge(b, new Coord(c.x + k * dir.incX(),
+							c.y + k * dir.incY())));
 				}
 			}
 		}
@@ -118,11 +118,13 @@ public class GraphicGrid extends JComponent {
 	 */
 	private void paintGrid(Graphics g) {
 		g.setColor(Color.WHITE);
-		g.fillRect(0, 0, getHeight(), getWidth());
+		g.fillRect(0, 0, getWidth(), getHeight());
 		g.setColor(Color.LIGHT_GRAY);
-		for (int i = 0; i <= model.getSize(); i++) {
-			g.drawLine(i * CELL_SIZE, 0, i * CELL_SIZE, getWidth());
-			g.drawLine(0, i * CELL_SIZE, getHeight(), i * CELL_SIZE);
+		for (int y = 0; y <= model.getWidth(); y++) {
+			g.drawLine(y * CELL_SIZE, 0, y * CELL_SIZE, getHeight());
+		}
+		for (int x = 0; x <= model.getHeight(); x++) {
+			g.drawLine(0, x * CELL_SIZE, getWidth(), x * CELL_SIZE);
 		}
 	}
 	
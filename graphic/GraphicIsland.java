@@ -8,7 +8,6 @@ import java.awt.Graphics;
 import javax.swing.JComponent;
 
 import model.Coord;
-import model.Island;
 import util.Contract;
 
 @SuppressWarnings("serial")
@@ -24,23 +23,26 @@ public class GraphicIsland extends JComponent {
 	
 	// ATTRIBUTS
 	
-	private Island island;
+	private int bridgesNb;
 	private Coord coord;
 	
 	// CONSTRUCTEURS
 	
-	public GraphicIsland(Island i, Coord c) {
-		Contract.checkCondition(i != null && c != null);
+	/**
+	 * Crée le dessin d'une île demandant bridgesNb ponts, en c.
+	 */
+	public GraphicIsland(int bridgesNb, Coord c) {
+		Contract.checkCondition(bridgesNb > 0 && c != null);
 		
-		island = i;
+		this.bridgesNb = bridgesNb;
 		coord = c;
 		setPreferredSize(new Dimension(RADIUS, RADIUS));
 	}
 	
 	// REQUETES
 	
-	public Island getIsland() {
-		return island;
+	public int getBridgesNb() {
+		return bridgesNb;
 	}
 	
 	public Coord getCoord() {
@@ -76,7 +78,7 @@ public class GraphicIsland extends JComponent {
 	 */
 	private void drawNumber(Graphics g) {
 		g.setColor(Color.BLACK);
-		String nb = String.valueOf(island.bridgesNb());
+		String nb = String.valueOf(bridgesNb);
 		FontMetrics fm = g.getFontMetrics();
 		int nbWidth = fm.stringWidth(nb);
 		int offset_y = GraphicGrid.CELL_SIZE / 2 - nbWidth / 2;
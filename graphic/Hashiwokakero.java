@@ -8,8 +8,6 @@ import java.awt.event.ActionListener;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Observable;
-import java.util.Observer;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -24,32 +22,41 @@ import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 import model.HashiSolver;
+import model.SolverLimits;
+import model.SolverListener;
+import model.SolverOutcome;
+import model.SolverStats;
 import util.Utils;
 import model.HashiGenerator;
 import model.HashiGrid;
 
-@SuppressWarnings("deprecation")
 public class Hashiwokakero {
 	
 	// CONSTANTES
 	
 	private static final String DESCRIPTION = "\n"
-			+ "    There is two way to resolve the grids :\n\n"
+			+ "    There is four way to resolve the grids :\n\n"
 			+ "        - by using rules of the game\n"
 			+ "        - by using a back tracking\n"
-			+ "          algorithm\n\n"
+			+ "          algorithm\n"
+			+ "        - by propagating constraints\n"
+			+ "        - with a SAT solver\n\n"
 			+ "    If one of the algorithm doesn't\n"	
 			+ "    succed to resolve the grid, you may\n"
-			+ "    try the other.";
+			+ "    try the others.";
 	private static final String GRIDS_DIR = "puzzles/";
 	private static final String DEFAULT_GRID = "hashi-6x6";
 	
 	// Solveur
 	private static final int LEFT_PANEL_WIDTH = 250;
-	private static final int LEFT_PANEL_HEIGHT = 320;
+	private static final int LEFT_PANEL_HEIGHT = 400;
 	private static final int LABEL_HEIGHT = 20;
+	// Temps accordé à chaque résolution, pour ne pas bloquer l'interface
+	private static final long SOLVER_TIMEOUT_MILLIS = 10000;
 	
 	// Générateur
+	// Nombre de grilles tirées au plus pour en trouver une à solution unique
+	private static final int GENERATION_ATTEMPTS = 200;
 	private static final int WIDTH_SUPP = 200;
 	private static final int HEIGHT_SUPP = 20;
 	
@@ -66,6 +73,8 @@ public class Hashiwokakero {
 	private JLabel gridState;
 	private JButton easyResolve;
 	private JButton backTrackResolve;
+	private JButton propagationResolve;
+	private JButton satResolve;
 	private JComboBox<String> files;
 	private GraphicGrid grid;
 	private HashiSolver model;
@@ -119,6 +128,8 @@ public class Hashiwokakero {
 		grid = new GraphicGrid(model.getGrid());
 		easyResolve = new JButton("Easy solver");
 		backTrackResolve = new JButton("Back-tracking solver");
+		propagationResolve = new JButton("Propagation solver");
+		satResolve = new JButton("SAT solver");
 		String[] puzzles = new File(GRIDS_DIR).list();
 		Arrays.sort(puzzles);
 		files = new JComboBox<String>(puzzles);
@@ -147,9 +158,11 @@ public class Hashiwokakero {
 				desc.setEditable(false);
 				desc.setBorder(BorderFactory.createEtchedBorder());
 				q.add(desc, BorderLayout.CENTER);
-				r = new JPanel(new GridLayout(2, 1)); {
+				r = new JPanel(new GridLayout(4, 1)); {
 					r.add(easyResolve);
 					r.add(backTrackResolve);
+					r.add(propagationResolve);
+					r.add(satResolve);
 				}
 				r.setBorder(BorderFactory.createEtchedBorder());
 				q.add(r, BorderLayout.SOUTH);
@@ -210,9 +223,14 @@ public class Hashiwokakero {
 		
 		// Solveur
 		
-		((Observable) model).addObserver(new Observer() {
+		model.addSolverListener(new SolverListener() {
 			@Override
-			public void update(Observable o, Object arg) {
+			public void solveStarted(HashiSolver source, String solverName) {
+				// rien ici
+			}
+			
+			@Override
+			public void solveFinished(HashiSolver source, SolverStats stats) {
 				refresh();
 			}
 		});
@@ -228,11 +246,11 @@ public class Hashiwokakero {
 				}
 				grid.changeGrid(model.getGrid());
 				gridState.setVisible(false);
-				int size = GraphicGrid.CELL_SIZE
-						* (model.getGrid().getSize() + 1);
-				frame.setSize(new Dimension(
-						LEFT_PANEL_WIDTH + PANE_WIDTH + size,
-						LABEL_HEIGHT + PANE_HEIGHT + size
+				HashiGrid g = model.getGrid();
+				frame.setSize(new Dimension(LEFT_PANEL_WIDTH + PANE_WIDTH
+						+ GraphicGrid.CELL_SIZE * (g.getWidth() + 1),
+						LABEL_HEIGHT + PANE_HEIGHT
+						+ GraphicGrid.CELL_SIZE * (g.getHeight() + 1)
 				));
 				refresh();
 			}
@@ -241,7 +259,8 @@ public class Hashiwokakero {
 		easyResolve.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				model.tryEasySolver();
+				model.tryEasySolver(
+						new SolverLimits(SOLVER_TIMEOUT_MILLIS, 0));
 				gridState.setVisible(true);
 			}
 		});
@@ -249,7 +268,26 @@ public class Hashiwokakero {
 		backTrackResolve.addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				model.tryBackTrackSolver();
+				model.tryBackTrackSolver(
+						new SolverLimits(SOLVER_TIMEOUT_MILLIS, 0));
+				gridState.setVisible(true);
+			}
+		});
+		
+		propagationResolve.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				model.tryPropagationSolver(
+						new SolverLimits(SOLVER_TIMEOUT_MILLIS, 0));
+				gridState.setVisible(true);
+			}
+		});
+		
+		satResolve.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				model.trySatSolver(
+						new SolverLimits(SOLVER_TIMEOUT_MILLIS, 0));
 				gridState.setVisible(true);
 			}
 		});
@@ -267,7 +305,7 @@ public class Hashiwokakero {
 					return;
 				}
 				generator.setSize(size);
-				generator.generateRandomGrid();
+				generator.generateUniqueGrid(GENERATION_ATTEMPTS);
 				genGrid.changeGrid(generator.getLastGeneratedGrid());
 				resolve.setEnabled(true);
 				save.setEnabled(true);
@@ -309,17 +347,21 @@ public class Hashiwokakero {
 		gridName.setText(filename + " :");
 		if (model.isSolved()) {
 			gridState.setText("Success, grid resolved !");
+		} else if (model.getOutcome() == SolverOutcome.TIMEOUT) {
+			gridState.setText("Time limit reached");
 		} else {
 			gridState.setText("Resolve failure");
 		}
+		gridState.setToolTipText(model.getOutcome() == null ? null
+				: model.getStats().toString());
 		grid.repaint();
 	}
 	
 	private void generatorRefresh() {
-		int size = GraphicGrid.CELL_SIZE * (generator.getSize() + 1);
-		frame.setSize(new Dimension(
-				WIDTH_SUPP + PANE_WIDTH + size,
-				HEIGHT_SUPP + PANE_HEIGHT + size
+		frame.setSize(new Dimension(WIDTH_SUPP + PANE_WIDTH
+				+ GraphicGrid.CELL_SIZE * (generator.getWidth() + 1),
+				HEIGHT_SUPP + PANE_HEIGHT
+				+ GraphicGrid.CELL_SIZE * (generator.getHeight() + 1)
 		));
 		genGrid.repaint();
 	}	
@@ -0,0 +1,105 @@
+package model;
+
+/**
+ * Types (énumération) des heuristiques de branchement des solveurs par
+ * recherche (easy-solver amélioré, back tracking, propagation, parallèle).
+ * Une heuristique choisit la variable sur laquelle brancher, d'après une
+ * clé calculée pour chaque île à partir de sa demande (ponts restant à
+ * placer) et de ses options (arêtes pouvant encore recevoir un pont) : la
+ * plus petite clé est choisie en premier, à égalité l'île ou l'arête de
+ * plus petit indice. Elle fixe aussi l'ordre dans lequel les nombres de
+ * ponts d'une arête sont essayés.
+ * Le solveur SAT a sa propre heuristique et n'est pas concerné.
+ */
+public enum Branching {
+	/**
+	 * Ordre de lecture de la grille, du plus grand nombre de ponts au plus
+	 * petit : le comportement historique des solveurs.
+	 */
+	READING_ORDER {
+		@Override
+		int islandKey(int demand, int options) {
+			return 0;
+		}
+	},
+	/**
+	 * L'île ayant le moins d'options d'abord (à égalité, la plus forte
+	 * demande) : le domaine restant le plus petit.
+	 */
+	MIN_DOMAIN {
+		@Override
+		int islandKey(int demand, int options) {
+			return options * KEY_BASE + KEY_BASE - 1 - demand;
+		}
+	},
+	/**
+	 * L'île ayant la plus forte demande d'abord (à égalité, le moins
+	 * d'options).
+	 */
+	MAX_DEMAND {
+		@Override
+		int islandKey(int demand, int options) {
+			return (KEY_BASE - 1 - demand) * KEY_BASE + options;
+		}
+	};
+
+	// Majorant strict de la demande et des options d'une île
+	private static final int KEY_BASE = 16;
+	private static final int VALUE_BITS = 2;
+	private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+
+	// REQUETES
+
+	/**
+	 * Clé de branchement d'une île de demande demand et ayant options
+	 * arêtes libres. Plus elle est petite, plus l'île est contrainte.
+	 */
+	abstract int islandKey(int demand, int options);
+
+	/**
+	 * Ordre d'essai des nombres de ponts d'une arête de domaine [lo, hi],
+	 * dont l'extrémité la plus contrainte a la demande demand et options
+	 * arêtes libres. L'ordre est codé dans un entier, à parcourir avec
+	 * first() et rest().
+	 * En ordre de lecture, les valeurs sont essayées de hi à lo. Sinon la
+	 * valeur la plus probable vient d'abord : lo plus la part de la demande
+	 * revenant à l'arête si elle se répartit également entre les options,
+	 * arrondie au-dessus ; puis les autres, de la plus proche à la plus
+	 * lointaine, la plus grande d'abord à distance égale.
+	 */
+	int order(int lo, int hi, int demand, int options) {
+		int likely = hi;
+		if (this != READING_ORDER && options > 0) {
+			likely = Math.max(lo,
+					Math.min(hi, lo + (demand + options - 1) / options));
+		}
+		int code = 0;
+		int shift = 0;
+		for (int dist = 0; dist <= hi - lo; dist++) {
+			if (likely + dist <= hi && dist > 0) {
+				code |= (likely + dist + 1) << shift;
+				shift += VALUE_BITS;
+			}
+			if (likely - dist >= lo) {
+				code |= (likely - dist + 1) << shift;
+				shift += VALUE_BITS;
+			}
+		}
+		return code;
+	}
+
+	/**
+	 * Première valeur de l'ordre code, qui ne doit pas être épuisé.
+	 */
+	static int first(int code) {
+		return (code & VALUE_MASK) - 1;
+	}
+
+	/**
+	 * Ordre code privé de sa première valeur. L'ordre est épuisé quand il
+	 * vaut 0.
+	 */
+	static int rest(int code) {
+		return code >>> VALUE_BITS;
+	}
+}
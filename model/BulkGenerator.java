@@ -0,0 +1,333 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import util.Contract;
+
+/**
+ * Génération en masse et en parallèle de grilles reproductibles.
+ * Chaque grille k reçoit son propre flux aléatoire, obtenu par la k-ième
+ * division (SplittableRandom.split()) d'un générateur initialisé par la
+ * graine maîtresse : la grille k ne dépend que de la graine, des
+ * dimensions et de k, et non du nombre de fils ni de l'ordre dans lequel ils
+ * travaillent. Les fils ne partagent aucun générateur ; ils se répartissent
+ * les grilles en réclamant l'indice suivant sur un compteur atomique, et
+ * chacun écrit dans sa propre case du résultat.
+ * Les grilles peuvent être ciblées : densité d'îles, unicité de la
+ * solution, niveau de difficulté (voir DifficultyGrader). La grille k est
+ * alors le premier candidat acceptable tiré du flux k ; les candidats
+ * rejetés sont comptés par motif, ce qui donne le taux d'acceptation de
+ * la dernière génération.
+ */
+public final class BulkGenerator {
+
+	// CONSTANTES
+
+	// Limites déjà atteintes : la résolution qui suit les règles du
+	// DifficultyGrader quand il faut deviner est inutile pour trier les
+	// candidats, elle s'arrête aussitôt
+	private static final SolverLimits NO_GUESS;
+	static {
+		NO_GUESS = new SolverLimits();
+		NO_GUESS.cancel();
+	}
+
+	// ATTRIBUTS
+
+	private final int height;
+	private final int width;
+	private final long seed;
+	private final boolean isUniqueOnly;
+	private final double density;
+	private final RuleTier tier;
+
+	// Compteurs de la dernière génération
+	private final AtomicLong candidatesNb;
+	private final AtomicLong notUniqueNb;
+	private final AtomicLong tooEasyNb;
+	private final AtomicLong tooHardNb;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un générateur de grilles de height lignes et width colonnes à
+	 * partir de la graine maîtresse seed. Si isUniqueOnly, seules des
+	 * grilles à solution unique sont produites.
+	 */
+	public BulkGenerator(int height, int width, long seed,
+			boolean isUniqueOnly) {
+		this(height, width, seed, isUniqueOnly, 0, null);
+	}
+
+	/**
+	 * Crée un générateur ciblé : les grilles visent density îles par case
+	 * (0 pour le choix par défaut de HashiGenerator) et, si tier != null,
+	 * sont résolues par les règles du DifficultyGrader, sans deviner, avec
+	 * tier pour niveau le plus difficile. Une telle grille a une solution
+	 * unique, même si !isUniqueOnly.
+	 */
+	public BulkGenerator(int height, int width, long seed,
+			boolean isUniqueOnly, double density, RuleTier tier) {
+		Contract.checkCondition(HashiGenerator.MIN_SIZE <= height
+				&& height <= HashiGenerator.MAX_SIZE
+				&& HashiGenerator.MIN_SIZE <= width
+				&& width <= HashiGenerator.MAX_SIZE
+				&& 0 <= density && density <= 1);
+
+		this.height = height;
+		this.width = width;
+		this.seed = seed;
+		this.isUniqueOnly = isUniqueOnly;
+		this.density = density;
+		this.tier = tier;
+		candidatesNb = new AtomicLong();
+		notUniqueNb = new AtomicLong();
+		tooEasyNb = new AtomicLong();
+		tooHardNb = new AtomicLong();
+	}
+
+	// REQUETES
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public boolean isUniqueOnly() {
+		return isUniqueOnly;
+	}
+
+	/**
+	 * Densité d'îles visée, ou 0 pour le choix par défaut.
+	 */
+	public double getDensity() {
+		return density;
+	}
+
+	/**
+	 * Niveau de difficulté visé, ou null si la difficulté n'est pas ciblée.
+	 */
+	public RuleTier getTier() {
+		return tier;
+	}
+
+	/**
+	 * Nombre de candidats générés par la dernière génération, acceptés ou
+	 * non.
+	 */
+	public long candidatesNb() {
+		return candidatesNb.get();
+	}
+
+	/**
+	 * Nombre de candidats de la dernière génération rejetés parce que leur
+	 * solution n'est pas unique.
+	 */
+	public long notUniqueNb() {
+		return notUniqueNb.get();
+	}
+
+	/**
+	 * Nombre de candidats de la dernière génération rejetés parce qu'ils se
+	 * résolvent par des règles plus simples que le niveau visé.
+	 */
+	public long tooEasyNb() {
+		return tooEasyNb.get();
+	}
+
+	/**
+	 * Nombre de candidats de la dernière génération rejetés parce qu'ils
+	 * demandent des règles plus difficiles que le niveau visé, ou de
+	 * deviner.
+	 */
+	public long tooHardNb() {
+		return tooHardNb.get();
+	}
+
+	/**
+	 * Îles des grilles first à first + count - 1, générées sur threads fils.
+	 * Le résultat est le même pour toute valeur de threads, et la grille k
+	 * est la même quels que soient first et count.
+	 */
+	public List<int[][]> generate(int first, int count, int threads)
+			throws InterruptedException {
+		Contract.checkCondition(first >= 0 && count >= 0 && threads > 0);
+
+		int[][][] islands = new int[count][][];
+		generate(first, count, threads, islands, null);
+		return Arrays.asList(islands);
+	}
+
+	/**
+	 * Solutions des grilles first à first + count - 1, générées sur threads
+	 * fils : ce sont les grilles de generate(), avec les ponts posés par le
+	 * générateur.
+	 */
+	public List<HashiGrid> generateSolutions(int first, int count,
+			int threads) throws InterruptedException {
+		Contract.checkCondition(first >= 0 && count >= 0 && threads > 0);
+
+		HashiGrid[] solutions = new HashiGrid[count];
+		generate(first, count, threads, null, solutions);
+		return Arrays.asList(solutions);
+	}
+
+	// OUTILS
+
+	/**
+	 * Génère les grilles first à first + count - 1 sur threads fils, et
+	 * range la grille k dans islands[k] et sa solution dans solutions[k],
+	 * pour ceux de ces tableaux qui ne sont pas null.
+	 */
+	private void generate(int first, final int count, int threads,
+			final int[][][] islands, final HashiGrid[] solutions)
+			throws InterruptedException {
+		candidatesNb.set(0);
+		notUniqueNb.set(0);
+		tooEasyNb.set(0);
+		tooHardNb.set(0);
+		final SplittableRandom[] streams = streams(first, count);
+		final AtomicInteger next = new AtomicInteger();
+		final AtomicBoolean isStopped = new AtomicBoolean();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws InterruptedException {
+					int k;
+					while ((k = next.getAndIncrement()) < count) {
+						HashiGenerator g = generateGrid(streams[k],
+								isStopped);
+						if (islands != null) {
+							islands[k] = g.getIslands();
+						}
+						if (solutions != null) {
+							solutions[k] = g.getLastGridSolution();
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		try {
+			for (Future<Void> f : futures) {
+				f.get();
+			}
+		} catch (ExecutionException e) {
+			// L'erreur d'un fil de génération est relancée telle quelle
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			isStopped.set(true);
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Générateur ayant produit la grille obtenue à partir du flux random :
+	 * le premier candidat acceptable. Les candidats sont tirés tant que le
+	 * fil n'est pas interrompu ; le test d'unicité d'un candidat s'arrête
+	 * aussi dès que isStopped passe à true.
+	 */
+	private HashiGenerator generateGrid(SplittableRandom random,
+			AtomicBoolean isStopped) throws InterruptedException {
+		HashiGenerator g = new HashiGenerator(height, width, random);
+		g.setDensity(density);
+		do {
+			// Une génération interrompue laisse le fil marqué interrompu
+			g.generateRandomGrid();
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			candidatesNb.incrementAndGet();
+		} while (!isAccepted(g.getLastGeneratedGrid(), isStopped));
+		return g;
+	}
+
+	/**
+	 * Teste si le candidat grid répond à la cible, et sinon compte le motif
+	 * de son rejet. Le niveau est évalué avant l'unicité, qu'il garantit.
+	 * Une grille sans île, que les très petites dimensions peuvent donner,
+	 * est trop facile. Lève une InterruptedException si l'évaluation est
+	 * interrompue, ou si le test d'unicité est arrêté par isStopped.
+	 */
+	private boolean isAccepted(HashiGrid grid, AtomicBoolean isStopped)
+			throws InterruptedException {
+		if (grid.nbIslands() == 0) {
+			tooEasyNb.incrementAndGet();
+			return false;
+		}
+		if (tier != null) {
+			DifficultyGrader grader = new DifficultyGrader(grid);
+			grader.setLimits(NO_GUESS);
+			RuleTier t = grader.grade();
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if (grader.isGuessed() || t != null && t.compareTo(tier) > 0) {
+				tooHardNb.incrementAndGet();
+				return false;
+			}
+			if (t == null || t.compareTo(tier) < 0) {
+				tooEasyNb.incrementAndGet();
+				return false;
+			}
+			return true;
+		}
+		if (isUniqueOnly) {
+			PropagationSolver engine = new PropagationSolver(grid);
+			engine.setStopFlag(isStopped);
+			int n = engine.countSolutions(2);
+			if (engine.isInterrupted()) {
+				throw new InterruptedException();
+			}
+			if (n != 1) {
+				notUniqueNb.incrementAndGet();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Flux des grilles first à first + count - 1. Les divisions sont faites
+	 * dans l'ordre, dans le fil appelant : c'est ce qui rend le résultat
+	 * indépendant de l'ordonnancement.
+	 */
+	private SplittableRandom[] streams(int first, int count) {
+		SplittableRandom master = new SplittableRandom(seed);
+		for (int k = 0; k < first; k++) {
+			master.split();
+		}
+		SplittableRandom[] streams = new SplittableRandom[count];
+		for (int k = 0; k < count; k++) {
+			streams[k] = master.split();
+		}
+		return streams;
+	}
+}
@@ -0,0 +1,742 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import util.Contract;
+
+/**
+ * Solveur SAT par apprentissage de clauses (CDCL) sur une formule en forme
+ * normale conjonctive. Les variables sont numérotées à partir de 1 et un
+ * littéral est une variable (positif) ou sa négation (négatif), comme dans
+ * le format DIMACS.
+ * La propagation utilise deux littéraux surveillés par clause ; chaque
+ * conflit est analysé jusqu'au premier point d'implication unique (1UIP),
+ * la clause apprise est minimisée puis ajoutée, et la recherche remonte
+ * directement au niveau où elle devient unitaire. Les variables sont
+ * choisies par activité (VSIDS) avec mémorisation de leur dernière valeur,
+ * la recherche redémarre selon la suite de Luby et les clauses apprises les
+ * moins utiles (LBD élevé) sont régulièrement oubliées.
+ * Des clauses peuvent être ajoutées entre deux appels à solve() : les
+ * clauses apprises restent valides et sont conservées.
+ */
+public class CdclEngine {
+
+	// CONSTANTES
+
+	private static final byte UNDEF = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = -1;
+	private static final int NO_REASON = -1;
+	private static final int INITIAL_CAPACITY = 16;
+	private static final double VAR_DECAY = 0.95;
+	private static final double CLAUSE_DECAY = 0.999;
+	private static final double RESCALE_LIMIT = 1e100;
+	private static final int RESTART_BASE = 100;
+	private static final int FIRST_REDUCE = 2000;
+	private static final int REDUCE_INCREMENT = 300;
+	// Les clauses apprises de LBD au plus KEPT_LBD ne sont jamais oubliées
+	private static final int KEPT_LBD = 2;
+
+	// ATTRIBUTS
+
+	private int nbVars;
+	private boolean isConsistent;
+
+	// Clauses : littéraux internes (2 * variable + signe), les deux premiers
+	// étant surveillés
+	private int[][] clauses;
+	private boolean[] isLearnt;
+	private int[] lbd;
+	private double[] clauseActivity;
+	private int nbClauses;
+	private int nbLearnts;
+	private double clauseInc;
+	private int maxLearnts;
+
+	// Clauses surveillant chaque littéral, par paires (clause, littéral
+	// bloqueur) : si le bloqueur est vrai, la clause est satisfaite et n'a
+	// pas besoin d'être lue
+	private int[][] watches;
+	private int[] watchesSize;
+
+	// Affectation
+	private byte[] values;
+	private int[] level;
+	private int[] reason;
+	private boolean[] phase;
+	private int[] trail;
+	private int trailSize;
+	private int[] trailLim;
+	private int nbLevels;
+	private int qhead;
+
+	// Tas des variables par activité décroissante
+	private double[] activity;
+	private double varInc;
+	private int[] heap;
+	private int heapSize;
+	private int[] heapIndex;
+
+	// Analyse des conflits
+	private boolean[] seen;
+	private int[] learnt;
+	private int[] levelStamp;
+	private int stamp;
+
+	// Itérations de recherche, sur tous les appels à solve()
+	private long ticks;
+	private long decisionsNb;
+	private long conflictsNb;
+	private long propagationsNb;
+	private int maxLevel;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un solveur sans variable ni clause.
+	 */
+	public CdclEngine() {
+		isConsistent = true;
+		clauses = new int[INITIAL_CAPACITY][];
+		isLearnt = new boolean[INITIAL_CAPACITY];
+		lbd = new int[INITIAL_CAPACITY];
+		clauseActivity = new double[INITIAL_CAPACITY];
+		clauseInc = 1;
+		maxLearnts = FIRST_REDUCE;
+		watches = new int[2 * INITIAL_CAPACITY][];
+		watchesSize = new int[2 * INITIAL_CAPACITY];
+		values = new byte[2 * INITIAL_CAPACITY];
+		level = new int[INITIAL_CAPACITY];
+		reason = new int[INITIAL_CAPACITY];
+		phase = new boolean[INITIAL_CAPACITY];
+		trail = new int[INITIAL_CAPACITY];
+		trailLim = new int[INITIAL_CAPACITY];
+		activity = new double[INITIAL_CAPACITY];
+		varInc = 1;
+		heap = new int[INITIAL_CAPACITY];
+		heapIndex = new int[INITIAL_CAPACITY];
+		seen = new boolean[INITIAL_CAPACITY];
+		learnt = new int[INITIAL_CAPACITY];
+		levelStamp = new int[INITIAL_CAPACITY + 1];
+	}
+
+	// REQUETES
+
+	public int nbVariables() {
+		return nbVars;
+	}
+
+	/**
+	 * Teste si aucune contradiction n'a encore été démontrée. Une fois
+	 * false, solve() renvoie toujours UNSOLVED.
+	 */
+	public boolean isConsistent() {
+		return isConsistent;
+	}
+
+	/**
+	 * Valeur de la variable v dans le modèle trouvé par le dernier appel à
+	 * solve() ayant renvoyé SOLVED.
+	 */
+	public boolean modelValue(int v) {
+		Contract.checkCondition(1 <= v && v <= nbVars);
+
+		return values[2 * (v - 1)] == TRUE;
+	}
+
+	/**
+	 * Nombre de décisions prises depuis la création du solveur.
+	 */
+	public long decisionsNb() {
+		return decisionsNb;
+	}
+
+	/**
+	 * Nombre de conflits analysés depuis la création du solveur.
+	 */
+	public long conflictsNb() {
+		return conflictsNb;
+	}
+
+	/**
+	 * Nombre de littéraux déduits par propagation unitaire.
+	 */
+	public long propagationsNb() {
+		return propagationsNb;
+	}
+
+	/**
+	 * Plus grand niveau de décision atteint.
+	 */
+	public int maxLevel() {
+		return maxLevel;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Crée une nouvelle variable et renvoie son numéro.
+	 */
+	public int newVariable() {
+		int v = nbVars;
+		nbVars++;
+		if (nbVars > level.length) {
+			int n = 2 * level.length;
+			level = Arrays.copyOf(level, n);
+			reason = Arrays.copyOf(reason, n);
+			phase = Arrays.copyOf(phase, n);
+			trail = Arrays.copyOf(trail, n);
+			trailLim = Arrays.copyOf(trailLim, n);
+			activity = Arrays.copyOf(activity, n);
+			heap = Arrays.copyOf(heap, n);
+			heapIndex = Arrays.copyOf(heapIndex, n);
+			seen = Arrays.copyOf(seen, n);
+			learnt = Arrays.copyOf(learnt, n);
+			levelStamp = Arrays.copyOf(levelStamp, n + 1);
+			values = Arrays.copyOf(values, 2 * n);
+			watches = Arrays.copyOf(watches, 2 * n);
+			watchesSize = Arrays.copyOf(watchesSize, 2 * n);
+		}
+		reason[v] = NO_REASON;
+		heapIndex[v] = -1;
+		heapInsert(v);
+		return v + 1;
+	}
+
+	/**
+	 * Ajoute la clause formée des littéraux lits (au format DIMACS). La
+	 * recherche est d'abord ramenée au niveau 0.
+	 */
+	public void addClause(int... lits) {
+		Contract.checkCondition(lits != null);
+
+		if (!isConsistent) {
+			return;
+		}
+		cancelUntil(0);
+		int[] c = new int[lits.length];
+		int n = 0;
+		for (int l : lits) {
+			Contract.checkCondition(l != 0 && Math.abs(l) <= nbVars);
+			int p = toInternal(l);
+			if (values[p] == TRUE) {
+				return;
+			}
+			if (values[p] == UNDEF && !contains(c, n, p)) {
+				if (contains(c, n, p ^ 1)) {
+					return;
+				}
+				c[n++] = p;
+			}
+		}
+		if (n == 0) {
+			isConsistent = false;
+		} else if (n == 1) {
+			assign(c[0], NO_REASON);
+			isConsistent = propagate() == NO_REASON;
+		} else {
+			attach(Arrays.copyOf(c, n), false, 0);
+		}
+	}
+
+	/**
+	 * Cherche un modèle de la formule dans les limites limits (sans limite
+	 * si limits == null). Renvoie SOLVED si un modèle est trouvé, UNSOLVED
+	 * si la formule est insatisfiable, et l'issue d'arrêt des limites
+	 * sinon.
+	 */
+	public SolverOutcome solve(SolverLimits limits) {
+		if (!isConsistent) {
+			return SolverOutcome.UNSOLVED;
+		}
+		cancelUntil(0);
+		int restarts = 0;
+		long conflictsLeft = RESTART_BASE * luby(restarts);
+		while (true) {
+			if (limits != null && limits.isReached(ticks)) {
+				cancelUntil(0);
+				return limits.stopOutcome();
+			}
+			ticks++;
+			int confl = propagate();
+			if (confl != NO_REASON) {
+				conflictsNb++;
+				conflictsLeft--;
+				if (nbLevels == 0) {
+					isConsistent = false;
+					return SolverOutcome.UNSOLVED;
+				}
+				learn(confl);
+				decayActivities();
+			} else if (nbLearnts >= maxLearnts) {
+				// Les clauses apprises ne sont oubliées qu'au niveau 0
+				cancelUntil(0);
+				reduceLearnts();
+				maxLearnts += REDUCE_INCREMENT;
+			} else if (conflictsLeft <= 0) {
+				restarts++;
+				conflictsLeft = RESTART_BASE * luby(restarts);
+				cancelUntil(0);
+			} else {
+				int v = pickBranchVariable();
+				if (v == -1) {
+					return SolverOutcome.SOLVED;
+				}
+				decisionsNb++;
+				trailLim[nbLevels] = trailSize;
+				nbLevels++;
+				maxLevel = Math.max(maxLevel, nbLevels);
+				assign(2 * v + (phase[v] ? 0 : 1), NO_REASON);
+			}
+		}
+	}
+
+	// OUTILS
+
+	/**
+	 * Littéral interne du littéral DIMACS l.
+	 */
+	private static int toInternal(int l) {
+		return l > 0 ? 2 * (l - 1) : 2 * (-l - 1) + 1;
+	}
+
+	private static boolean contains(int[] t, int n, int x) {
+		for (int k = 0; k < n; k++) {
+			if (t[k] == x) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Terme i (à partir de 0) de la suite de Luby : 1 1 2 1 1 2 4 ...
+	 */
+	private static long luby(int i) {
+		int size = 1;
+		int seq = 0;
+		while (size < i + 1) {
+			seq++;
+			size = 2 * size + 1;
+		}
+		while (size - 1 != i) {
+			size = (size - 1) >> 1;
+			seq--;
+			i = i % size;
+		}
+		return 1L << seq;
+	}
+
+	/**
+	 * Enregistre la clause c et surveille ses deux premiers littéraux.
+	 * Renvoie son indice.
+	 */
+	private int attach(int[] c, boolean learnt, int clauseLbd) {
+		if (nbClauses == clauses.length) {
+			int n = 2 * clauses.length;
+			clauses = Arrays.copyOf(clauses, n);
+			isLearnt = Arrays.copyOf(isLearnt, n);
+			lbd = Arrays.copyOf(lbd, n);
+			clauseActivity = Arrays.copyOf(clauseActivity, n);
+		}
+		int ci = nbClauses;
+		nbClauses++;
+		clauses[ci] = c;
+		isLearnt[ci] = learnt;
+		lbd[ci] = clauseLbd;
+		clauseActivity[ci] = learnt ? clauseInc : 0;
+		if (learnt) {
+			nbLearnts++;
+		}
+		watch(c[0], ci, c[1]);
+		watch(c[1], ci, c[0]);
+		return ci;
+	}
+
+	/**
+	 * Ajoute la clause ci, de littéral bloqueur blocker, aux clauses
+	 * surveillant p.
+	 */
+	private void watch(int p, int ci, int blocker) {
+		int[] w = watches[p];
+		if (w == null) {
+			w = new int[8];
+			watches[p] = w;
+		} else if (watchesSize[p] == w.length) {
+			w = Arrays.copyOf(w, 2 * w.length);
+			watches[p] = w;
+		}
+		w[watchesSize[p]] = ci;
+		w[watchesSize[p] + 1] = blocker;
+		watchesSize[p] += 2;
+	}
+
+	/**
+	 * Rend le littéral p vrai, à cause de la clause ci.
+	 */
+	private void assign(int p, int ci) {
+		int v = p >> 1;
+		values[p] = TRUE;
+		values[p ^ 1] = FALSE;
+		level[v] = nbLevels;
+		reason[v] = ci;
+		trail[trailSize] = p;
+		trailSize++;
+	}
+
+	/**
+	 * Propagation unitaire des littéraux du trail non encore traités.
+	 * Renvoie l'indice d'une clause en conflit, ou NO_REASON.
+	 */
+	private int propagate() {
+		while (qhead < trailSize) {
+			int falseLit = trail[qhead] ^ 1;
+			qhead++;
+			int[] ws = watches[falseLit];
+			int n = watchesSize[falseLit];
+			int i = 0;
+			int j = 0;
+			while (i < n) {
+				int ci = ws[i];
+				int blocker = ws[i + 1];
+				i += 2;
+				if (values[blocker] == TRUE) {
+					ws[j++] = ci;
+					ws[j++] = blocker;
+					continue;
+				}
+				int[] c = clauses[ci];
+				if (c[0] == falseLit) {
+					c[0] = c[1];
+					c[1] = falseLit;
+				}
+				int first = c[0];
+				if (first != blocker && values[first] == TRUE) {
+					ws[j++] = ci;
+					ws[j++] = first;
+					continue;
+				}
+				boolean moved = false;
+				for (int k = 2; k < c.length; k++) {
+					if (values[c[k]] != FALSE) {
+						c[1] = c[k];
+						c[k] = falseLit;
+						watch(c[1], ci, first);
+						moved = true;
+						break;
+					}
+				}
+				if (moved) {
+					continue;
+				}
+				ws[j++] = ci;
+				ws[j++] = first;
+				if (values[first] == FALSE) {
+					while (i < n) {
+						ws[j++] = ws[i++];
+					}
+					watchesSize[falseLit] = j;
+					qhead = trailSize;
+					return ci;
+				}
+				assign(first, ci);
+				propagationsNb++;
+			}
+			watchesSize[falseLit] = j;
+		}
+		return NO_REASON;
+	}
+
+	/**
+	 * Analyse le conflit sur la clause confl, apprend la clause obtenue et
+	 * remonte au niveau où elle est unitaire.
+	 */
+	private void learn(int confl) {
+		int n = 1;
+		int pathC = 0;
+		int p = -1;
+		int index = trailSize - 1;
+		do {
+			int[] c = clauses[confl];
+			if (isLearnt[confl]) {
+				bumpClause(confl);
+			}
+			for (int k = p == -1 ? 0 : 1; k < c.length; k++) {
+				int v = c[k] >> 1;
+				if (!seen[v] && level[v] > 0) {
+					bumpVariable(v);
+					seen[v] = true;
+					if (level[v] >= nbLevels) {
+						pathC++;
+					} else {
+						learnt[n++] = c[k];
+					}
+				}
+			}
+			while (!seen[trail[index] >> 1]) {
+				index--;
+			}
+			p = trail[index];
+			index--;
+			confl = reason[p >> 1];
+			seen[p >> 1] = false;
+			pathC--;
+		} while (pathC > 0);
+		learnt[0] = p ^ 1;
+		int size = minimize(n);
+		for (int k = 1; k < n; k++) {
+			seen[learnt[k] >> 1] = false;
+		}
+		// Le littéral de plus haut niveau après l'UIP est surveillé
+		int backLevel = 0;
+		int maxK = 1;
+		for (int k = 1; k < size; k++) {
+			int l = level[learnt[k] >> 1];
+			if (l > backLevel) {
+				backLevel = l;
+				maxK = k;
+			}
+		}
+		cancelUntil(backLevel);
+		if (size == 1) {
+			assign(learnt[0], NO_REASON);
+			return;
+		}
+		int[] c = Arrays.copyOf(learnt, size);
+		int t = c[1];
+		c[1] = c[maxK];
+		c[maxK] = t;
+		int ci = attach(c, true, computeLbd(c));
+		assign(c[0], ci);
+	}
+
+	/**
+	 * Retire de la clause apprise learnt[0..n[ les littéraux impliqués par
+	 * les autres (minimisation locale). Renvoie la nouvelle taille ; les
+	 * littéraux retirés restent marqués dans seen au-delà de cette taille.
+	 */
+	private int minimize(int n) {
+		int size = 1;
+		for (int k = 1; k < n; k++) {
+			int v = learnt[k] >> 1;
+			int r = reason[v];
+			boolean redundant = r != NO_REASON;
+			if (redundant) {
+				int[] c = clauses[r];
+				for (int m = 1; m < c.length; m++) {
+					int w = c[m] >> 1;
+					if (!seen[w] && level[w] > 0) {
+						redundant = false;
+						break;
+					}
+				}
+			}
+			if (!redundant) {
+				int t = learnt[size];
+				learnt[size] = learnt[k];
+				learnt[k] = t;
+				size++;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Nombre de niveaux de décision distincts des littéraux de c.
+	 */
+	private int computeLbd(int[] c) {
+		stamp++;
+		int n = 0;
+		for (int p : c) {
+			int l = level[p >> 1];
+			if (levelStamp[l] != stamp) {
+				levelStamp[l] = stamp;
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Annule les affectations des niveaux supérieurs à lvl.
+	 */
+	private void cancelUntil(int lvl) {
+		if (nbLevels <= lvl) {
+			return;
+		}
+		for (int k = trailSize - 1; k >= trailLim[lvl]; k--) {
+			int p = trail[k];
+			int v = p >> 1;
+			values[p] = UNDEF;
+			values[p ^ 1] = UNDEF;
+			reason[v] = NO_REASON;
+			phase[v] = (p & 1) == 0;
+			if (heapIndex[v] == -1) {
+				heapInsert(v);
+			}
+		}
+		trailSize = trailLim[lvl];
+		qhead = trailSize;
+		nbLevels = lvl;
+	}
+
+	/**
+	 * Variable libre d'activité maximale, ou -1 si toutes sont affectées.
+	 */
+	private int pickBranchVariable() {
+		while (heapSize > 0) {
+			int v = heapRemoveMax();
+			if (values[2 * v] == UNDEF) {
+				return v;
+			}
+		}
+		return -1;
+	}
+
+	private void bumpVariable(int v) {
+		activity[v] += varInc;
+		if (activity[v] > RESCALE_LIMIT) {
+			for (int k = 0; k < nbVars; k++) {
+				activity[k] /= RESCALE_LIMIT;
+			}
+			varInc /= RESCALE_LIMIT;
+		}
+		if (heapIndex[v] != -1) {
+			heapUp(heapIndex[v]);
+		}
+	}
+
+	private void bumpClause(int ci) {
+		clauseActivity[ci] += clauseInc;
+		if (clauseActivity[ci] > RESCALE_LIMIT) {
+			for (int k = 0; k < nbClauses; k++) {
+				clauseActivity[k] /= RESCALE_LIMIT;
+			}
+			clauseInc /= RESCALE_LIMIT;
+		}
+	}
+
+	private void decayActivities() {
+		varInc /= VAR_DECAY;
+		clauseInc /= CLAUSE_DECAY;
+	}
+
+	/**
+	 * Oublie la moitié des clauses apprises, en gardant celles de petit LBD,
+	 * puis renumérote les clauses et reconstruit les listes de surveillance.
+	 * Appelé au niveau 0 : les raisons des affectations de ce niveau ne
+	 * servent plus et sont effacées.
+	 */
+	private void reduceLearnts() {
+		int[] candidates = new int[nbLearnts];
+		int n = 0;
+		for (int ci = 0; ci < nbClauses; ci++) {
+			if (isLearnt[ci] && lbd[ci] > KEPT_LBD) {
+				candidates[n++] = ci;
+			}
+		}
+		// Tri par utilité croissante : LBD décroissant puis activité
+		Integer[] order = new Integer[n];
+		for (int k = 0; k < n; k++) {
+			order[k] = candidates[k];
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				if (lbd[a] != lbd[b]) {
+					return Integer.compare(lbd[b], lbd[a]);
+				}
+				return Double.compare(clauseActivity[a], clauseActivity[b]);
+			}
+		});
+		boolean[] removed = new boolean[nbClauses];
+		for (int k = 0; k < n / 2; k++) {
+			removed[order[k]] = true;
+		}
+		int m = 0;
+		nbLearnts = 0;
+		for (int ci = 0; ci < nbClauses; ci++) {
+			if (!removed[ci]) {
+				clauses[m] = clauses[ci];
+				isLearnt[m] = isLearnt[ci];
+				lbd[m] = lbd[ci];
+				clauseActivity[m] = clauseActivity[ci];
+				if (isLearnt[m]) {
+					nbLearnts++;
+				}
+				m++;
+			}
+		}
+		for (int ci = m; ci < nbClauses; ci++) {
+			clauses[ci] = null;
+		}
+		nbClauses = m;
+		for (int v = 0; v < nbVars; v++) {
+			reason[v] = NO_REASON;
+		}
+		Arrays.fill(watchesSize, 0);
+		for (int ci = 0; ci < nbClauses; ci++) {
+			watch(clauses[ci][0], ci, clauses[ci][1]);
+			watch(clauses[ci][1], ci, clauses[ci][0]);
+		}
+	}
+
+	// Tas binaire des variables, par activité décroissante
+
+	private void heapInsert(int v) {
+		heap[heapSize] = v;
+		heapIndex[v] = heapSize;
+		heapSize++;
+		heapUp(heapSize - 1);
+	}
+
+	private int heapRemoveMax() {
+		int v = heap[0];
+		heapSize--;
+		heapIndex[v] = -1;
+		if (heapSize > 0) {
+			heap[0] = heap[heapSize];
+			heapIndex[heap[0]] = 0;
+			heapDown(0);
+		}
+		return v;
+	}
+
+	private void heapUp(int k) {
+		int v = heap[k];
+		while (k > 0) {
+			int parent = (k - 1) >> 1;
+			if (activity[heap[parent]] >= activity[v]) {
+				break;
+			}
+			heap[k] = heap[parent];
+			heapIndex[heap[k]] = k;
+			k = parent;
+		}
+		heap[k] = v;
+		heapIndex[v] = k;
+	}
+
+	private void heapDown(int k) {
+		int v = heap[k];
+		while (true) {
+			int child = 2 * k + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize
+					&& activity[heap[child + 1]] > activity[heap[child]]) {
+				child++;
+			}
+			if (activity[heap[child]] <= activity[v]) {
+				break;
+			}
+			heap[k] = heap[child];
+			heapIndex[heap[k]] = k;
+			k = child;
+		}
+		heap[k] = v;
+		heapIndex[v] = k;
+	}
+}
@@ -10,6 +10,13 @@ import util.Contract;
  */
 public class Coord {
 	
+	// CONSTANTES
+	
+	// Une coordonnée peut aussi être représentée par un entier : x dans les
+	// bits de poids fort et y dans les COORD_BITS bits de poids faible.
+	public static final int COORD_BITS = 15;
+	public static final int MAX_COORD = (1 << COORD_BITS) - 1;
+	
 	// ATTRIBUTS
 	
 	public final int x;
@@ -26,6 +33,39 @@ public class Coord {
 	
 	// REQUETES
 	
+	/**
+	 * Représentation entière de la coordonnée, voir pack(int, int).
+	 */
+	public int pack() {
+		return pack(x, y);
+	}
+	
+	/**
+	 * Représentation entière, sans allocation, de la coordonnée (x, y). Deux
+	 * coordonnées sont égales si et seulement si leurs représentations le
+	 * sont, et l'ordre des entiers est celui des lignes puis des colonnes.
+	 */
+	public static int pack(int x, int y) {
+		Contract.checkCondition(0 <= x && x <= MAX_COORD
+				&& 0 <= y && y <= MAX_COORD);
+		
+		return x << COORD_BITS | y;
+	}
+	
+	/**
+	 * Ligne de la coordonnée représentée par p.
+	 */
+	public static int packedX(int p) {
+		return p >>> COORD_BITS;
+	}
+	
+	/**
+	 * Colonne de la coordonnée représentée par p.
+	 */
+	public static int packedY(int p) {
+		return p & MAX_COORD;
+	}
+	
 	@Override
 	public String toString() {
 		return "x : " + x + ", y : " + y;
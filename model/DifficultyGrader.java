@@ -0,0 +1,327 @@
+package model;
+
+import util.Contract;
+
+/**
+ * Évaluation de la difficulté d'une grille d'après les déductions
+ * nécessaires pour la résoudre.
+ * La grille est résolue par la règle de comptage des niveaux de RuleTier :
+ * sur une île, une arête reçoit les ponts que les autres arêtes ne peuvent
+ * pas prendre (c'est la règle de buildEasyBridges du HashiSolver,
+ * généralisée). Le niveau le plus simple qui fait progresser la grille est
+ * toujours préféré : les règles EASY sont appliquées jusqu'au point fixe,
+ * à partir d'une file des îles dont une arête a changé, et un niveau
+ * supérieur n'est essayé que lorsqu'elles ne déduisent plus rien, le temps
+ * d'une déduction. Chaque île sur laquelle une règle pose au moins un pont
+ * compte pour une étape.
+ * Si les règles ne suffisent pas, la grille demande de deviner : la fin de
+ * la résolution est confiée au PropagationSolver, dans les limites
+ * indiquées, pour savoir si elle a une solution.
+ * La grille est remise dans son état initial après l'évaluation.
+ */
+public class DifficultyGrader {
+
+	// CONSTANTES
+
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final RuleTier[] TIERS = RuleTier.values();
+	private static final int MAX_BRIDGES = 2;
+
+	// ATTRIBUTS
+
+	private final HashiGrid game;
+	private final EdgeTable table;
+	private final int nbIslands;
+
+	// File des îles à réviser par les règles EASY
+	private final int[] queue;
+	private final boolean[] inQueue;
+	private int queueHead;
+	private int queueSize;
+	// Capacités des arêtes de l'île révisée, par direction
+	private final int[] capacities;
+
+	private final int[] stepsNb;
+	private RuleTier hardestTier;
+	private boolean isGuessed;
+	private SolverOutcome outcome;
+	private SolverLimits limits;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un évaluateur pour la grille grid. Les ponts déjà construits sur
+	 * la grille sont conservés.
+	 */
+	public DifficultyGrader(HashiGrid grid) {
+		Contract.checkCondition(grid != null);
+
+		game = grid;
+		table = grid.getEdgeTable();
+		nbIslands = table.nbIslands();
+		queue = new int[Math.max(1, nbIslands)];
+		inQueue = new boolean[nbIslands];
+		capacities = new int[DIRECTIONS.length];
+		stepsNb = new int[TIERS.length];
+		hardestTier = null;
+		isGuessed = false;
+		outcome = null;
+		limits = null;
+	}
+
+	// REQUETES
+
+	public HashiGrid getGrid() {
+		return game;
+	}
+
+	/**
+	 * Niveau de règles le plus difficile utilisé par la dernière évaluation,
+	 * ou null si aucune règle n'a posé de pont.
+	 */
+	public RuleTier getHardestTier() {
+		return hardestTier;
+	}
+
+	/**
+	 * Nombre d'étapes de déduction de la dernière évaluation.
+	 */
+	public int stepsNb() {
+		int n = 0;
+		for (int k : stepsNb) {
+			n += k;
+		}
+		return n;
+	}
+
+	/**
+	 * Nombre d'étapes de déduction de la dernière évaluation faites au
+	 * niveau tier.
+	 */
+	public int stepsNb(RuleTier tier) {
+		Contract.checkCondition(tier != null);
+
+		return stepsNb[tier.ordinal()];
+	}
+
+	/**
+	 * Teste si la dernière évaluation a dû deviner : les règles se sont
+	 * arrêtées avant d'avoir résolu la grille ou montré qu'elle n'a pas de
+	 * solution.
+	 */
+	public boolean isGuessed() {
+		return isGuessed;
+	}
+
+	/**
+	 * Issue de la dernière évaluation : SOLVED si la grille a une solution,
+	 * UNSOLVED si elle n'en a pas, l'issue des limites si elles ont été
+	 * atteintes en devinant, et CANCELLED si le fil a été interrompu
+	 * pendant les déductions. null si aucune évaluation n'a été lancée.
+	 */
+	public SolverOutcome getOutcome() {
+		return outcome;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Indique les limites de la résolution qui suit les règles quand il
+	 * faut deviner. Si limits == null, elle n'est pas limitée.
+	 */
+	public void setLimits(SolverLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Évalue la grille et renvoie le niveau de règles le plus difficile
+	 * utilisé (voir getHardestTier()). La grille n'est pas modifiée.
+	 * Si le fil courant est interrompu, les déductions s'arrêtent au plus
+	 * tôt avec l'issue CANCELLED ; le fil reste marqué interrompu.
+	 */
+	public RuleTier grade() {
+		for (int k = 0; k < stepsNb.length; k++) {
+			stepsNb[k] = 0;
+		}
+		hardestTier = null;
+		isGuessed = false;
+		int mark = game.mark();
+		if (!deduce()) {
+			outcome = SolverOutcome.UNSOLVED;
+		} else if (Thread.currentThread().isInterrupted()) {
+			outcome = SolverOutcome.CANCELLED;
+		} else if (game.isValidGrid()) {
+			outcome = SolverOutcome.SOLVED;
+		} else {
+			isGuessed = true;
+			PropagationSolver engine = new PropagationSolver(game);
+			engine.setLimits(limits);
+			if (engine.solve()) {
+				outcome = SolverOutcome.SOLVED;
+			} else if (engine.isInterrupted()) {
+				outcome = limits.stopOutcome();
+			} else {
+				outcome = SolverOutcome.UNSOLVED;
+			}
+		}
+		clearQueue();
+		game.rollback(mark);
+		return hardestTier;
+	}
+
+	// OUTILS
+
+	/**
+	 * Applique les règles tant qu'elles déduisent des ponts, le niveau le
+	 * plus simple d'abord. Renvoie false si une contradiction apparaît : la
+	 * grille n'a alors pas de solution. S'arrête aussi, en renvoyant true,
+	 * si le fil courant est interrompu.
+	 */
+	private boolean deduce() {
+		for (int i = 0; i < nbIslands; i++) {
+			enqueue(i);
+		}
+		Thread current = Thread.currentThread();
+		while (!current.isInterrupted()) {
+			while (queueSize > 0) {
+				int i = queue[queueHead];
+				inQueue[i] = false;
+				queueHead = (queueHead + 1) % queue.length;
+				queueSize--;
+				if (apply(i, RuleTier.EASY) < 0) {
+					return false;
+				}
+			}
+			int built = 0;
+			for (int t = 1; t < TIERS.length && built == 0; t++) {
+				for (int i = 0; i < nbIslands && built == 0; i++) {
+					built = apply(i, TIERS[t]);
+					if (built < 0) {
+						return false;
+					}
+				}
+			}
+			if (built == 0) {
+				return true;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Applique à l'île i la règle de comptage du niveau tier : chaque arête
+	 * reçoit la part de la demande de i que les autres ne peuvent pas
+	 * prendre. Renvoie le nombre de ponts posés, ou -1 en cas de
+	 * contradiction.
+	 */
+	private int apply(int i, RuleTier tier) {
+		int demand = game.bridgesToPlace(i);
+		if (demand == 0) {
+			return 0;
+		}
+		int total = 0;
+		for (int k = 0; k < DIRECTIONS.length; k++) {
+			int e = table.edgeAt(i, DIRECTIONS[k]);
+			capacities[k] = e == EdgeTable.NONE ? 0 : capacity(e, i, tier);
+			total += capacities[k];
+		}
+		if (total < demand) {
+			return -1;
+		}
+		int built = 0;
+		for (int k = 0; k < DIRECTIONS.length; k++) {
+			int forced = demand - (total - capacities[k]);
+			if (forced > 0) {
+				int e = table.edgeAt(i, DIRECTIONS[k]);
+				if (forced > game.bridgesToPlace(table.otherEnd(e, i))) {
+					return -1;
+				}
+				for (int n = 0; n < forced; n++) {
+					game.buildBridge(e);
+				}
+				built += forced;
+				touch(e);
+			}
+		}
+		if (built > 0) {
+			stepsNb[tier.ordinal()]++;
+			if (hardestTier == null || hardestTier.compareTo(tier) < 0) {
+				hardestTier = tier;
+			}
+			if (game.hasSealedComponent()) {
+				return -1;
+			}
+		}
+		return built;
+	}
+
+	/**
+	 * Nombre de ponts que l'arête e, vue de son extrémité i, peut encore
+	 * recevoir selon les règles du niveau tier.
+	 */
+	private int capacity(int e, int i, RuleTier tier) {
+		if (!game.canBuildBridge(e)) {
+			return 0;
+		}
+		int cap = MAX_BRIDGES - game.bridgesOn(e);
+		if (tier == RuleTier.EASY) {
+			return cap;
+		}
+		int j = table.otherEnd(e, i);
+		cap = Math.min(cap, game.bridgesToPlace(j));
+		if (tier == RuleTier.CAPACITY) {
+			return cap;
+		}
+		// k ponts de plus ferment la composante obtenue si sa demande tombe
+		// à 2k sans qu'elle contienne toutes les îles
+		if (game.areConnected(i, j)) {
+			if (game.componentSize(i) < nbIslands) {
+				cap = Math.min(cap, (game.componentDemand(i) - 1) / 2);
+			}
+		} else if (game.componentSize(i) + game.componentSize(j)
+				< nbIslands) {
+			cap = Math.min(cap, (game.componentDemand(i)
+					+ game.componentDemand(j) - 1) / 2);
+		}
+		return cap;
+	}
+
+	/**
+	 * Met en file les îles dont la révision peut changer après un pont posé
+	 * sur l'arête e : ses extrémités, leurs voisines et les extrémités des
+	 * arêtes qui croisent e.
+	 */
+	private void touch(int e) {
+		int[] ends = {table.edgeFrom(e), table.edgeTo(e)};
+		for (int i : ends) {
+			enqueue(i);
+			for (Direction d : DIRECTIONS) {
+				int j = table.neighbor(i, d);
+				if (j != EdgeTable.NONE) {
+					enqueue(j);
+				}
+			}
+		}
+		for (int k = 0; k < table.crossingsNb(e); k++) {
+			int f = table.crossing(e, k);
+			enqueue(table.edgeFrom(f));
+			enqueue(table.edgeTo(f));
+		}
+	}
+
+	private void enqueue(int i) {
+		if (!inQueue[i]) {
+			inQueue[i] = true;
+			queue[(queueHead + queueSize) % queue.length] = i;
+			queueSize++;
+		}
+	}
+
+	private void clearQueue() {
+		while (queueSize > 0) {
+			inQueue[queue[queueHead]] = false;
+			queueHead = (queueHead + 1) % queue.length;
+			queueSize--;
+		}
+	}
+}
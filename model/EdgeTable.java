@@ -0,0 +1,436 @@
+package model;
+
+import java.util.Arrays;
+
+import util.Contract;
+
+/**
+ * Table immuable des îles et des ponts candidats d'une grille.
+ * Les îles sont indexées de 0 à nbIslands() - 1 dans l'ordre de lecture de la
+ * grille (de gauche à droite et de haut en bas). Un pont candidat (une arête)
+ * relie deux îles voisines sur une même ligne ou une même colonne ; il est
+ * orienté de l'île la plus au nord (ou à l'ouest) vers l'autre, sa direction
+ * est donc EAST ou SOUTH. Chaque île possède un emplacement par direction qui
+ * contient l'indice de l'arête partant dans cette direction, ou NONE.
+ */
+public final class EdgeTable {
+
+	// CONSTANTES
+
+	public static final int NONE = -1;
+	private static final int DIRECTION_NUMBER = Direction.values().length;
+
+	// ATTRIBUTS
+
+	private final int height;
+	private final int width;
+	private final int nbIslands;
+	private final int[] islandX;
+	private final int[] islandY;
+	private final int[] islandValue;
+	private final Coord[] coords;
+
+	private final int nbEdges;
+	private final int[] edgeFrom;
+	private final int[] edgeTo;
+	private final int[] edgeLength;
+	private final Direction[] edgeDir;
+	private final int[] slots;
+	// Arêtes croisant l'arête e : crossings[crossingStart[e]..
+	// crossingStart[e + 1][
+	private final int[] crossingStart;
+	private final int[] crossings;
+	// Arêtes horizontales rangées par ligne puis par colonne : celles de la
+	// ligne x sont rowEdges[rowStart[x]..rowStart[x + 1][. De même pour les
+	// arêtes verticales, par colonne puis par ligne.
+	private final int[] rowEdges;
+	private final int[] rowStart;
+	private final int[] columnEdges;
+	private final int[] columnStart;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Construit la table à partir d'une grille carrée de taille size,
+	 * décrite par les tableaux xs, ys et values, rangés dans l'ordre de
+	 * lecture.
+	 */
+	public EdgeTable(int size, int[] xs, int[] ys, int[] values) {
+		this(size, size, xs, ys, values);
+	}
+
+	/**
+	 * Construit la table à partir d'une grille de height lignes et width
+	 * colonnes, décrite par les tableaux xs (lignes), ys (colonnes) et
+	 * values, rangés dans l'ordre de lecture. Le coût est proportionnel au
+	 * nombre d'îles et de croisements, pas au nombre de cases.
+	 */
+	public EdgeTable(int height, int width, int[] xs, int[] ys,
+			int[] values) {
+		Contract.checkCondition(height > 0 && width > 0 && xs != null
+				&& ys != null && values != null && xs.length == ys.length
+				&& xs.length == values.length);
+
+		this.height = height;
+		this.width = width;
+		nbIslands = xs.length;
+		islandX = xs.clone();
+		islandY = ys.clone();
+		islandValue = values.clone();
+		coords = new Coord[nbIslands];
+		for (int i = 0; i < nbIslands; i++) {
+			Contract.checkCondition(islandX[i] < height && islandY[i] < width
+					&& (i == 0 || islandX[i - 1] < islandX[i]
+					|| islandX[i - 1] == islandX[i]
+					&& islandY[i - 1] < islandY[i]));
+			coords[i] = new Coord(islandX[i], islandY[i]);
+		}
+		// Au plus deux arêtes par île : vers l'est et vers le sud
+		int[] from = new int[2 * nbIslands];
+		int[] to = new int[2 * nbIslands];
+		slots = new int[DIRECTION_NUMBER * nbIslands];
+		for (int k = 0; k < slots.length; k++) {
+			slots[k] = NONE;
+		}
+		int[] lastInColumn = new int[width];
+		Arrays.fill(lastInColumn, NONE);
+		int n = 0;
+		for (int i = 0; i < nbIslands; i++) {
+			if (i > 0 && islandX[i - 1] == islandX[i]) {
+				from[n] = i - 1;
+				to[n] = i;
+				slots[slot(i - 1, Direction.EAST)] = n;
+				slots[slot(i, Direction.WEST)] = n;
+				n++;
+			}
+			int j = lastInColumn[islandY[i]];
+			if (j != NONE) {
+				from[n] = j;
+				to[n] = i;
+				slots[slot(j, Direction.SOUTH)] = n;
+				slots[slot(i, Direction.NORTH)] = n;
+				n++;
+			}
+			lastInColumn[islandY[i]] = i;
+		}
+		nbEdges = n;
+		edgeFrom = new int[n];
+		edgeTo = new int[n];
+		edgeLength = new int[n];
+		edgeDir = new Direction[n];
+		for (int e = 0; e < n; e++) {
+			edgeFrom[e] = from[e];
+			edgeTo[e] = to[e];
+			if (islandX[from[e]] == islandX[to[e]]) {
+				edgeDir[e] = Direction.EAST;
+				edgeLength[e] = islandY[to[e]] - islandY[from[e]] - 1;
+			} else {
+				edgeDir[e] = Direction.SOUTH;
+				edgeLength[e] = islandX[to[e]] - islandX[from[e]] - 1;
+			}
+		}
+		rowStart = new int[height + 1];
+		rowEdges = groupEdges(Direction.EAST, rowStart);
+		columnStart = new int[width + 1];
+		columnEdges = groupEdges(Direction.SOUTH, columnStart);
+		crossingStart = new int[nbEdges + 1];
+		crossings = computeCrossings();
+	}
+
+	// REQUETES
+
+	/**
+	 * Nombre de lignes de la grille.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Nombre de colonnes de la grille.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	public int nbIslands() {
+		return nbIslands;
+	}
+
+	public int nbEdges() {
+		return nbEdges;
+	}
+
+	public int islandX(int i) {
+		Contract.checkCondition(validIsland(i));
+
+		return islandX[i];
+	}
+
+	public int islandY(int i) {
+		Contract.checkCondition(validIsland(i));
+
+		return islandY[i];
+	}
+
+	/**
+	 * Nombre de ponts demandés par l'île i.
+	 */
+	public int islandValue(int i) {
+		Contract.checkCondition(validIsland(i));
+
+		return islandValue[i];
+	}
+
+	/**
+	 * Coordonnée de l'île i. L'instance renvoyée est toujours la même.
+	 */
+	public Coord islandCoord(int i) {
+		Contract.checkCondition(validIsland(i));
+
+		return coords[i];
+	}
+
+	/**
+	 * Île de départ (au nord ou à l'ouest) de l'arête e.
+	 */
+	public int edgeFrom(int e) {
+		Contract.checkCondition(validEdge(e));
+
+		return edgeFrom[e];
+	}
+
+	/**
+	 * Île d'arrivée (au sud ou à l'est) de l'arête e.
+	 */
+	public int edgeTo(int e) {
+		Contract.checkCondition(validEdge(e));
+
+		return edgeTo[e];
+	}
+
+	/**
+	 * Direction de l'arête e, depuis edgeFrom(e) : EAST ou SOUTH.
+	 */
+	public Direction edgeDirection(int e) {
+		Contract.checkCondition(validEdge(e));
+
+		return edgeDir[e];
+	}
+
+	/**
+	 * Nombre de cases traversées par l'arête e, îles exclues.
+	 */
+	public int edgeLength(int e) {
+		Contract.checkCondition(validEdge(e));
+
+		return edgeLength[e];
+	}
+
+	/**
+	 * Renvoie l'autre extrémité de l'arête e, i étant l'une de ses îles.
+	 */
+	public int otherEnd(int e, int i) {
+		Contract.checkCondition(validEdge(e)
+				&& (edgeFrom[e] == i || edgeTo[e] == i));
+
+		return edgeFrom[e] == i ? edgeTo[e] : edgeFrom[e];
+	}
+
+	/**
+	 * Nombre d'arêtes qui croisent l'arête e.
+	 */
+	public int crossingsNb(int e) {
+		Contract.checkCondition(validEdge(e));
+
+		return crossingStart[e + 1] - crossingStart[e];
+	}
+
+	/**
+	 * k-ième arête croisant l'arête e.
+	 */
+	public int crossing(int e, int k) {
+		Contract.checkCondition(validEdge(e) && 0 <= k && k < crossingsNb(e));
+
+		return crossings[crossingStart[e] + k];
+	}
+
+	/**
+	 * Arête partant de l'île i dans la direction d, NONE s'il n'y en a pas.
+	 */
+	public int edgeAt(int i, Direction d) {
+		Contract.checkCondition(validIsland(i) && d != null);
+
+		return slots[slot(i, d)];
+	}
+
+	/**
+	 * Île voisine de i dans la direction d, NONE s'il n'y en a pas.
+	 */
+	public int neighbor(int i, Direction d) {
+		Contract.checkCondition(validIsland(i) && d != null);
+
+		int e = slots[slot(i, d)];
+		if (e == NONE) {
+			return NONE;
+		}
+		return edgeFrom[e] == i ? edgeTo[e] : edgeFrom[e];
+	}
+
+	/**
+	 * Première île située après la case (x, y) dans l'ordre de lecture, NONE
+	 * s'il n'y en a pas.
+	 */
+	public int nextIslandAfter(int x, int y) {
+		int lo = 0;
+		int hi = nbIslands;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (islandX[mid] < x || islandX[mid] == x && islandY[mid] <= y) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo < nbIslands ? lo : NONE;
+	}
+
+	/**
+	 * Île située sur la case (x, y), NONE s'il n'y en a pas. La recherche est
+	 * dichotomique : aucune table par case n'est nécessaire.
+	 */
+	public int islandAt(int x, int y) {
+		int i = nextIslandAfter(x, y - 1);
+		return i != NONE && islandX[i] == x && islandY[i] == y ? i : NONE;
+	}
+
+	/**
+	 * Arête de direction d (EAST ou SOUTH) qui traverse la case (x, y), ses
+	 * îles exclues, ou NONE. Deux arêtes de même direction ne traversent
+	 * jamais la même case.
+	 */
+	public int edgeAcross(int x, int y, Direction d) {
+		Contract.checkCondition(0 <= x && x < height && 0 <= y && y < width
+				&& (d == Direction.EAST || d == Direction.SOUTH));
+
+		if (d == Direction.EAST) {
+			return edgeAcross(rowEdges, rowStart[x], rowStart[x + 1], y,
+					islandY);
+		}
+		return edgeAcross(columnEdges, columnStart[y], columnStart[y + 1], x,
+				islandX);
+	}
+
+	// OUTILS
+
+	private static int slot(int i, Direction d) {
+		return i * DIRECTION_NUMBER + d.ordinal();
+	}
+
+	/**
+	 * Arêtes de direction d, regroupées par ligne (EAST) ou par colonne
+	 * (SOUTH) : start[k] reçoit le début du groupe k. Les arêtes étant
+	 * numérotées dans l'ordre de lecture de leur île d'arrivée, chaque groupe
+	 * est rangé par position croissante le long de sa ligne ou colonne.
+	 */
+	private int[] groupEdges(Direction d, int[] start) {
+		int[] group = new int[nbEdges];
+		int n = 0;
+		for (int e = 0; e < nbEdges; e++) {
+			if (edgeDir[e] == d) {
+				group[e] = d == Direction.EAST ? islandX[edgeFrom[e]]
+						: islandY[edgeFrom[e]];
+				start[group[e] + 1]++;
+				n++;
+			}
+		}
+		for (int k = 0; k + 1 < start.length; k++) {
+			start[k + 1] += start[k];
+		}
+		int[] result = new int[n];
+		int[] fill = Arrays.copyOf(start, start.length - 1);
+		for (int e = 0; e < nbEdges; e++) {
+			if (edgeDir[e] == d) {
+				result[fill[group[e]]++] = e;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Calcule, pour chaque arête, la liste des arêtes qui la croisent, et
+	 * remplit crossingStart. Les arêtes horizontales d'une même ligne sont
+	 * disjointes et rangées par colonne croissante : pour chaque case
+	 * traversée par une arête verticale, une recherche dichotomique dans sa
+	 * ligne suffit.
+	 */
+	private int[] computeCrossings() {
+		// Paires (verticale, horizontale) qui se croisent
+		int[] pairs = new int[2 * nbEdges];
+		int nbPairs = 0;
+		for (int v = 0; v < nbEdges; v++) {
+			if (edgeDir[v] != Direction.SOUTH) {
+				continue;
+			}
+			int y = islandY[edgeFrom[v]];
+			for (int x = islandX[edgeFrom[v]] + 1; x < islandX[edgeTo[v]]; x++) {
+				int e = edgeAcross(rowEdges, rowStart[x], rowStart[x + 1], y,
+						islandY);
+				if (e != NONE) {
+					if (2 * nbPairs + 1 >= pairs.length) {
+						pairs = Arrays.copyOf(pairs, 2 * pairs.length + 2);
+					}
+					pairs[2 * nbPairs] = v;
+					pairs[2 * nbPairs + 1] = e;
+					nbPairs++;
+				}
+			}
+		}
+		for (int k = 0; k < 2 * nbPairs; k++) {
+			crossingStart[pairs[k] + 1]++;
+		}
+		for (int e = 0; e < nbEdges; e++) {
+			crossingStart[e + 1] += crossingStart[e];
+		}
+		int[] result = new int[2 * nbPairs];
+		int[] fill = Arrays.copyOf(crossingStart, nbEdges);
+		for (int k = 0; k < nbPairs; k++) {
+			int v = pairs[2 * k];
+			int e = pairs[2 * k + 1];
+			result[fill[v]++] = e;
+			result[fill[e]++] = v;
+		}
+		return result;
+	}
+
+	/**
+	 * Arête, parmi group[from..to[ (arêtes d'une même ligne ou colonne,
+	 * rangées par position croissante pos de leurs îles), qui passe
+	 * strictement par la position p, ou NONE.
+	 */
+	private int edgeAcross(int[] group, int from, int to, int p, int[] pos) {
+		int lo = from;
+		int hi = to;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (pos[edgeFrom[group[mid]]] < p) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		if (lo == from) {
+			return NONE;
+		}
+		int e = group[lo - 1];
+		return pos[edgeTo[e]] > p ? e : NONE;
+	}
+
+	private boolean validIsland(int i) {
+		return 0 <= i && i < nbIslands;
+	}
+
+	private boolean validEdge(int e) {
+		return 0 <= e && e < nbEdges;
+	}
+}
@@ -1,24 +1,70 @@
 package model;
 
+import java.util.Arrays;
+
 import util.Contract;
 
 /**
- * Types des graphes représentées par matrice d'accessibilité.
+ * Types des graphes représentés par listes d'adjacence : la place occupée
+ * est proportionnelle au nombre de sommets et d'arêtes, et non au carré du
+ * nombre de sommets.
+ * La connexité est maintenue de façon incrémentale par une structure
+ * union-find sans compression de chemin, associée à une pile d'annulation :
+ * retirer la dernière arête ajoutée annule simplement la dernière union. Si
+ * une arête plus ancienne est retirée, la structure est reconstruite à la
+ * prochaine requête.
+ * Chaque sommet porte aussi un poids entier, et la somme des poids de chaque
+ * composante est disponible en temps logarithmique : chaque nœud de la
+ * structure union-find garde la somme des poids de son sous-arbre.
  */
 public class Graph {
 	
+	// CONSTANTES
+
+	private static final int INITIAL_DEGREE = 4;
+
 	// ATTRIBUTS
 	
-	private boolean[][] accessMatrix;
+	private int[][] adjacency;
+	private int[] degree;
 	private int nbElem;
+
+	// Union-find
+	private int[] parent;
+	private int[] compSize;
+	private int[] weight;
+	// Somme des poids du sous-arbre de chaque nœud de l'union-find
+	private int[] subtreeWeight;
+	private int nbComponents;
+	private boolean isDirty;
+
+	// Pile d'annulation : extrémités de l'arête et racine absorbée (ou -1)
+	private int[] undoI;
+	private int[] undoJ;
+	private int[] undoChild;
+	private int undoTop;
+
+	// Parcours en largeur de isWeightless(), alloués au premier usage
+	private int[] queue;
+	private int[] visited;
+	private int visitStamp;
 	
 	// CONSTRUCTEURS
 	
 	public Graph(int size) {
 		Contract.checkCondition(size > 0);
 		
-		accessMatrix = new boolean[size][size];
+		adjacency = new int[size][];
+		degree = new int[size];
 		nbElem = size;
+		parent = new int[size];
+		compSize = new int[size];
+		weight = new int[size];
+		subtreeWeight = new int[size];
+		undoI = new int[size];
+		undoJ = new int[size];
+		undoChild = new int[size];
+		resetComponents();
 	}
 	
 	// REQUETES
@@ -33,23 +79,110 @@ public class Graph {
 	public boolean areAccessible(int i, int j) {
 		Contract.checkCondition(validIndexs(i, j));
 		
-		return accessMatrix[i][j];
+		return indexOf(i, j) != -1;
 	}
 	
 	/**
-	 * Fonction permettant de tester si le graphe est connexe.
+	 * Teste si i et j appartiennent à la même composante connexe.
 	 */
-	public boolean isConnected() {
-		for (boolean[] t : royWarshall()) {
-			for (boolean b : t) {
-				if (!b) {
-					return false;
+	public boolean areConnected(int i, int j) {
+		Contract.checkCondition(validIndexs(i, j));
+
+		if (isDirty) {
+			rebuild();
+		}
+		return find(i) == find(j);
+	}
+
+	/**
+	 * Nombre de composantes connexes du graphe.
+	 */
+	public int nbComponents() {
+		if (isDirty) {
+			rebuild();
+		}
+		return nbComponents;
+	}
+
+	/**
+	 * Poids du sommet i.
+	 */
+	public int getWeight(int i) {
+		Contract.checkCondition(validIndexs(i, i));
+
+		return weight[i];
+	}
+
+	/**
+	 * Nombre de sommets de la composante connexe de i.
+	 */
+	public int componentSize(int i) {
+		Contract.checkCondition(validIndexs(i, i));
+
+		if (isDirty) {
+			rebuild();
+		}
+		return compSize[find(i)];
+	}
+
+	/**
+	 * Somme des poids des sommets de la composante connexe de i.
+	 */
+	public int componentWeight(int i) {
+		Contract.checkCondition(validIndexs(i, i));
+
+		if (isDirty) {
+			rebuild();
+		}
+		return subtreeWeight[find(i)];
+	}
+
+	/**
+	 * Teste si la somme des poids de la composante de i est nulle, tous les
+	 * poids étant positifs ou nuls. Si l'union-find est à reconstruire, la
+	 * composante est plutôt parcourue en largeur, jusqu'au premier sommet
+	 * de poids non nul, en suivant les listes d'adjacence (les arêtes
+	 * doivent donc y figurer dans les deux sens) : le test reste alors bon
+	 * marché même si des arêtes anciennes sont retirées sans cesse.
+	 */
+	public boolean isWeightless(int i) {
+		Contract.checkCondition(validIndexs(i, i));
+
+		if (!isDirty) {
+			return subtreeWeight[find(i)] == 0;
+		}
+		if (queue == null) {
+			queue = new int[nbElem];
+			visited = new int[nbElem];
+		}
+		visitStamp++;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = i;
+		visited[i] = visitStamp;
+		while (head < tail) {
+			int v = queue[head++];
+			if (weight[v] != 0) {
+				return false;
+			}
+			for (int k = 0; k < degree[v]; k++) {
+				int w = adjacency[v][k];
+				if (visited[w] != visitStamp) {
+					visited[w] = visitStamp;
+					queue[tail++] = w;
 				}
 			}
 		}
 		return true;
 	}
 	
+	/**
+	 * Fonction permettant de tester si le graphe est connexe.
+	 */
+	public boolean isConnected() {
+		return nbComponents() == 1;
+	}
+	
 	// COMMANDES
 	
 	/**
@@ -58,7 +191,19 @@ public class Graph {
 	public void addEdge(int i, int j) {
 		Contract.checkCondition(validIndexs(i, j));
 		
-		accessMatrix[i][j] = true;
+		if (indexOf(i, j) != -1) {
+			return;
+		}
+		if (adjacency[i] == null) {
+			adjacency[i] = new int[INITIAL_DEGREE];
+		} else if (degree[i] == adjacency[i].length) {
+			adjacency[i] = Arrays.copyOf(adjacency[i], 2 * degree[i]);
+		}
+		adjacency[i][degree[i]] = j;
+		degree[i]++;
+		if (i != j && indexOf(j, i) == -1 && !isDirty) {
+			union(i, j);
+		}
 	}
 	
 	/**
@@ -67,21 +212,55 @@ public class Graph {
 	public void removeEdge(int i, int j) {
 		Contract.checkCondition(validIndexs(i, j));
 		
-		accessMatrix[i][j] = false;
+		int k = indexOf(i, j);
+		if (k == -1) {
+			return;
+		}
+		degree[i]--;
+		adjacency[i][k] = adjacency[i][degree[i]];
+		if (i == j || indexOf(j, i) != -1 || isDirty) {
+			return;
+		}
+		if (undoTop > 0 && (undoI[undoTop - 1] == i && undoJ[undoTop - 1] == j
+				|| undoI[undoTop - 1] == j && undoJ[undoTop - 1] == i)) {
+			undoTop--;
+			int child = undoChild[undoTop];
+			if (child != -1) {
+				int root = parent[child];
+				compSize[root] -= compSize[child];
+				subtreeWeight[root] -= subtreeWeight[child];
+				parent[child] = child;
+				nbComponents++;
+			}
+		} else {
+			isDirty = true;
+		}
 	}
 	
 	/**
-	 * Remet à zero le graphe.
+	 * Ajoute delta au poids du sommet i.
 	 */
-	public void clear() {
-		for (int i = 0; i < nbElem; ++i) {
-			for (int j = 0; j < nbElem; ++j) {
-				accessMatrix[i][j] = false;
+	public void addWeight(int i, int delta) {
+		Contract.checkCondition(validIndexs(i, i));
+
+		weight[i] += delta;
+		if (!isDirty) {
+			int v = i;
+			subtreeWeight[v] += delta;
+			while (parent[v] != v) {
+				v = parent[v];
+				subtreeWeight[v] += delta;
 			}
-	    }
+		}
 	}
 	
-	
+	/**
+	 * Remet à zero le graphe. Les poids des sommets sont conservés.
+	 */
+	public void clear() {
+		Arrays.fill(degree, 0);
+		resetComponents();
+	}
 	
 	// OUTILS
 	
@@ -93,24 +272,91 @@ public class Graph {
 	}
 	
 	/**
-	 * Calcule la matrice d'accessibilité du graphe en utilisant l'algorithme
-	 * de Roy-Warshall.
+	 * Position de j dans la liste d'adjacence de i, ou -1.
 	 */
-	private boolean[][] royWarshall() {
-		boolean[][] ac = new boolean[nbElem][nbElem];
-		for (int i = 0; i < nbElem; i++) {
-			ac[i][i] = true;
-			for (int j = 0; j < nbElem; j++) {
-				ac[i][j] = accessMatrix[i][j];
+	private int indexOf(int i, int j) {
+		for (int k = 0; k < degree[i]; k++) {
+			if (adjacency[i][k] == j) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Racine de la composante de i. Les chemins ne sont pas compressés pour
+	 * que chaque union puisse être annulée.
+	 */
+	private int find(int i) {
+		while (parent[i] != i) {
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Réunit les composantes de i et j (la plus petite sous la plus grande)
+	 * et empile l'opération.
+	 */
+	private void union(int i, int j) {
+		if (undoTop == undoI.length) {
+			growUndoStack();
+		}
+		int ri = find(i);
+		int rj = find(j);
+		int child = -1;
+		if (ri != rj) {
+			if (compSize[ri] < compSize[rj]) {
+				int t = ri;
+				ri = rj;
+				rj = t;
 			}
+			parent[rj] = ri;
+			compSize[ri] += compSize[rj];
+			subtreeWeight[ri] += subtreeWeight[rj];
+			nbComponents--;
+			child = rj;
+		}
+		undoI[undoTop] = i;
+		undoJ[undoTop] = j;
+		undoChild[undoTop] = child;
+		undoTop++;
+	}
+
+	/**
+	 * Remet chaque sommet dans sa propre composante et vide la pile.
+	 */
+	private void resetComponents() {
+		for (int i = 0; i < nbElem; i++) {
+			parent[i] = i;
+			compSize[i] = 1;
+			subtreeWeight[i] = weight[i];
 		}
-		for (int k = 0; k < nbElem; ++k) {
-			for (int i = 0; i < nbElem; ++i) {
-				for (int j = 0; j < nbElem; ++j) {
-					ac[i][j] = ac[i][j] || (ac[i][k] && ac[k][j]);
+		nbComponents = nbElem;
+		undoTop = 0;
+		isDirty = false;
+	}
+
+	/**
+	 * Reconstruit les composantes à partir des listes d'adjacence. Une arête
+	 * présente dans les deux sens n'est réunie qu'une fois.
+	 */
+	private void rebuild() {
+		resetComponents();
+		for (int i = 0; i < nbElem; i++) {
+			for (int k = 0; k < degree[i]; k++) {
+				int j = adjacency[i][k];
+				if (i < j || i > j && indexOf(j, i) == -1) {
+					union(i, j);
 				}
-		    }
+			}
 		}
-		return ac;
+	}
+
+	private void growUndoStack() {
+		int n = 2 * undoI.length;
+		undoI = Arrays.copyOf(undoI, n);
+		undoJ = Arrays.copyOf(undoJ, n);
+		undoChild = Arrays.copyOf(undoChild, n);
 	}
 }
@@ -0,0 +1,364 @@
+package model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import util.BadSyntaxException;
+import util.Contract;
+
+/**
+ * Format binaire des grilles et de leurs solutions. Un enregistrement
+ * contient, en gros-boutiste :
+ * - l'en-tête : MAGIC (4 octets), VERSION (2 octets), les options (2 octets,
+ *   SOLUTION si une solution suit), le nombre de lignes, de colonnes et de
+ *   mots d'îles (4 octets chacun) ;
+ * - les îles, dans l'ordre de lecture, un mot de 4 octets chacune : les 28
+ *   bits de poids fort donnent le nombre de cases vides qui la précèdent
+ *   depuis l'île précédente, les 4 bits de poids faible sa valeur. Un mot de
+ *   valeur 0 ne décrit pas d'île et avance seulement de MAX_GAP cases : il
+ *   n'apparaît que si deux îles sont séparées par plus de MAX_GAP cases ;
+ * - si SOLUTION, le nombre d'arêtes (4 octets) puis le nombre de ponts de
+ *   chaque arête, sur 2 bits, dans l'ordre de la table des arêtes
+ *   (EdgeTable), quatre arêtes par octet en commençant par les bits de
+ *   poids faible.
+ * Un fichier est une suite d'enregistrements. Le décodage lit directement
+ * le tampon, sans copie intermédiaire ni tableau de la taille de la grille :
+ * un fichier projeté en mémoire (voir map()) est décodé sur place.
+ */
+public final class HashiCodec {
+
+	// CONSTANTES
+
+	/**
+	 * Premiers octets de tout enregistrement : "HSHI".
+	 */
+	public static final int MAGIC = 0x48534849;
+	public static final int VERSION = 1;
+	/**
+	 * Option : l'enregistrement contient une solution.
+	 */
+	public static final int SOLUTION = 1;
+
+	private static final int HEADER_SIZE = 20;
+	private static final int VALUE_BITS = 4;
+	private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+	private static final int MAX_GAP = (1 << (Integer.SIZE - VALUE_BITS)) - 1;
+	private static final int MAX_VALUE = 8;
+	private static final int BRIDGE_BITS = 2;
+	private static final int BRIDGE_MASK = (1 << BRIDGE_BITS) - 1;
+	private static final int EDGES_PER_BYTE = Byte.SIZE / BRIDGE_BITS;
+	private static final int MAX_BRIDGES = 2;
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	// CONSTRUCTEURS (PRIVES, NON INSTANCIABLE)
+
+	private HashiCodec() {
+		// rien ici
+	}
+
+	// REQUETES
+
+	/**
+	 * Taille en octets de l'enregistrement de grid, avec ses ponts comme
+	 * solution si withSolution.
+	 */
+	public static int encodedSize(HashiGrid grid, boolean withSolution) {
+		Contract.checkCondition(grid != null);
+
+		EdgeTable t = grid.getEdgeTable();
+		int size = HEADER_SIZE + Integer.BYTES * wordsNb(t);
+		if (withSolution) {
+			size += Integer.BYTES + solutionSize(t.nbEdges());
+		}
+		return size;
+	}
+
+	/**
+	 * Teste si le fichier f commence par un enregistrement de ce format.
+	 */
+	public static boolean isEncoded(File f) throws IOException {
+		Contract.checkCondition(f != null);
+
+		InputStream in = new FileInputStream(f);
+		try {
+			int magic = 0;
+			for (int k = 0; k < Integer.BYTES; k++) {
+				int b = in.read();
+				if (b == -1) {
+					return false;
+				}
+				magic = magic << Byte.SIZE | b;
+			}
+			return magic == MAGIC;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Projette en mémoire, en lecture seule, le fichier f, de moins de 2 Go.
+	 */
+	public static ByteBuffer map(File f) throws IOException {
+		Contract.checkCondition(f != null);
+
+		FileChannel c = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+		try {
+			Contract.checkCondition(c.size() <= Integer.MAX_VALUE,
+					"File too large");
+
+			return c.map(FileChannel.MapMode.READ_ONLY, 0, c.size());
+		} finally {
+			c.close();
+		}
+	}
+
+	// COMMANDES
+
+	/**
+	 * Écrit l'enregistrement de grid dans out, à partir de sa position,
+	 * avec ses ponts comme solution si withSolution. out doit avoir au moins
+	 * encodedSize(grid, withSolution) octets disponibles.
+	 */
+	public static void encode(HashiGrid grid, boolean withSolution,
+			ByteBuffer out) {
+		Contract.checkCondition(grid != null && out != null
+				&& out.remaining() >= encodedSize(grid, withSolution));
+
+		EdgeTable t = grid.getEdgeTable();
+		out.putInt(MAGIC);
+		out.putShort((short) VERSION);
+		out.putShort((short) (withSolution ? SOLUTION : 0));
+		out.putInt(t.getHeight());
+		out.putInt(t.getWidth());
+		out.putInt(wordsNb(t));
+		long next = 0;
+		for (int i = 0; i < t.nbIslands(); i++) {
+			long p = position(t, i);
+			long gap = p - next;
+			for (; gap > MAX_GAP; gap -= MAX_GAP) {
+				out.putInt(MAX_GAP << VALUE_BITS);
+			}
+			out.putInt((int) gap << VALUE_BITS | t.islandValue(i));
+			next = p + 1;
+		}
+		if (withSolution) {
+			out.putInt(t.nbEdges());
+			int packed = 0;
+			for (int e = 0; e < t.nbEdges(); e++) {
+				int shift = e % EDGES_PER_BYTE * BRIDGE_BITS;
+				packed |= grid.bridgesOn(e) << shift;
+				if (e % EDGES_PER_BYTE == EDGES_PER_BYTE - 1
+						|| e == t.nbEdges() - 1) {
+					out.put((byte) packed);
+					packed = 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Lit, à partir de la position de in, l'enregistrement suivant, et
+	 * renvoie sa grille. Si withSolution et si l'enregistrement contient une
+	 * solution, ses ponts sont construits ; sinon la grille est sans pont.
+	 * En sortie, in est placé après l'enregistrement, solution comprise.
+	 * Lève une BadSyntaxException si l'enregistrement est tronqué ou
+	 * incorrect, ou si sa solution ne peut pas être construite.
+	 */
+	public static HashiGrid decode(ByteBuffer in, boolean withSolution)
+			throws BadSyntaxException {
+		Contract.checkCondition(in != null);
+
+		try {
+			return decodeRecord(in, withSolution);
+		} catch (BufferUnderflowException e) {
+			throw new BadSyntaxException("Truncated record");
+		}
+	}
+
+	/**
+	 * Avance in après l'enregistrement commençant à sa position, sans le
+	 * décoder : seuls l'en-tête et la longueur de la solution sont lus.
+	 */
+	public static void skip(ByteBuffer in) throws BadSyntaxException {
+		Contract.checkCondition(in != null);
+
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new BadSyntaxException("Not a grid record");
+			}
+			in.getShort();
+			int options = in.getShort();
+			in.position(in.position() + 2 * Integer.BYTES);
+			int words = in.getInt();
+			in.position(in.position() + Integer.BYTES * words);
+			if ((options & SOLUTION) != 0) {
+				int edgesNb = in.getInt();
+				in.position(in.position() + solutionSize(edgesNb));
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new BadSyntaxException("Truncated record");
+		}
+	}
+
+	/**
+	 * Écrit dans le fichier f les enregistrements des grilles grids, avec
+	 * leurs ponts comme solution si withSolutions.
+	 */
+	public static void save(File f, List<HashiGrid> grids,
+			boolean withSolutions) throws IOException {
+		Contract.checkCondition(f != null && grids != null);
+
+		FileChannel c = FileChannel.open(f.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			ByteBuffer buf = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+			for (HashiGrid g : grids) {
+				int size = encodedSize(g, withSolutions);
+				if (size > buf.remaining()) {
+					flush(c, buf);
+					if (size > buf.capacity()) {
+						buf = ByteBuffer.allocate(size);
+					}
+				}
+				encode(g, withSolutions, buf);
+			}
+			flush(c, buf);
+		} finally {
+			c.close();
+		}
+	}
+
+	// OUTILS
+
+	private static HashiGrid decodeRecord(ByteBuffer in, boolean withSolution)
+			throws BadSyntaxException {
+		if (in.getInt() != MAGIC) {
+			throw new BadSyntaxException("Not a grid record");
+		}
+		int version = in.getShort();
+		if (version != VERSION) {
+			throw new BadSyntaxException("Unsupported version " + version);
+		}
+		int options = in.getShort();
+		int height = in.getInt();
+		int width = in.getInt();
+		int words = in.getInt();
+		if (height < 1 || height > Coord.MAX_COORD + 1 || width < 1
+				|| width > Coord.MAX_COORD + 1 || words < 0
+				|| words > in.remaining() / Integer.BYTES) {
+			throw new BadSyntaxException("Incorrect header");
+		}
+		int[] xs = new int[words];
+		int[] ys = new int[words];
+		int[] values = new int[words];
+		int n = 0;
+		long cells = (long) height * width;
+		long next = 0;
+		for (int k = 0; k < words; k++) {
+			int word = in.getInt();
+			int value = word & VALUE_MASK;
+			next += word >>> VALUE_BITS;
+			if (value > MAX_VALUE || value > 0 && next >= cells) {
+				throw new BadSyntaxException("Incorrect island");
+			}
+			if (value > 0) {
+				xs[n] = (int) (next / width);
+				ys[n] = (int) (next % width);
+				values[n] = value;
+				n++;
+				next++;
+			}
+		}
+		EdgeTable t = new EdgeTable(height, width, trim(xs, n), trim(ys, n),
+				trim(values, n));
+		int[] bridges = null;
+		if ((options & SOLUTION) != 0) {
+			bridges = decodeSolution(in, t.nbEdges());
+		}
+		HashiGrid grid = new HashiGrid(t, withSolution ? bridges : null);
+		if (withSolution && bridges != null) {
+			for (int e = 0; e < bridges.length; e++) {
+				if (grid.bridgesOn(e) != bridges[e]) {
+					throw new BadSyntaxException("Incorrect solution");
+				}
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * Lit dans in les nombres de ponts des edgesNb arêtes d'une solution.
+	 */
+	private static int[] decodeSolution(ByteBuffer in, int edgesNb)
+			throws BadSyntaxException {
+		if (in.getInt() != edgesNb) {
+			throw new BadSyntaxException("Incorrect solution");
+		}
+		int[] bridges = new int[edgesNb];
+		int packed = 0;
+		for (int e = 0; e < edgesNb; e++) {
+			if (e % EDGES_PER_BYTE == 0) {
+				packed = in.get();
+			}
+			bridges[e] = packed >>> (e % EDGES_PER_BYTE * BRIDGE_BITS)
+					& BRIDGE_MASK;
+			if (bridges[e] > MAX_BRIDGES) {
+				throw new BadSyntaxException("Incorrect solution");
+			}
+		}
+		return bridges;
+	}
+
+	/**
+	 * Numéro de la case de l'île i de t dans l'ordre de lecture.
+	 */
+	private static long position(EdgeTable t, int i) {
+		return (long) t.islandX(i) * t.getWidth() + t.islandY(i);
+	}
+
+	/**
+	 * Nombre de mots d'îles de l'enregistrement de t.
+	 */
+	private static int wordsNb(EdgeTable t) {
+		int n = t.nbIslands();
+		long next = 0;
+		for (int i = 0; i < t.nbIslands(); i++) {
+			long p = position(t, i);
+			if (p > next) {
+				n += (p - next - 1) / MAX_GAP;
+			}
+			next = p + 1;
+		}
+		return n;
+	}
+
+	private static int solutionSize(int edgesNb) {
+		return (edgesNb + EDGES_PER_BYTE - 1) / EDGES_PER_BYTE;
+	}
+
+	private static int[] trim(int[] t, int n) {
+		if (t.length == n) {
+			return t;
+		}
+		int[] r = new int[n];
+		System.arraycopy(t, 0, r, 0, n);
+		return r;
+	}
+
+	private static void flush(FileChannel c, ByteBuffer buf)
+			throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			c.write(buf);
+		}
+		buf.clear();
+	}
+}
@@ -1,11 +1,12 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 import util.Contract;
 
@@ -13,7 +14,16 @@ public class HashiGenerator {
 	
 	// CONSTANTES
 	
+	/**
+	 * Tailles de grilles carrées proposées par défaut, dont le nombre
+	 * d'îles est choisi dans une plage fixe.
+	 */
 	public static final List<Integer> AVAILABLE_SIZES;
+	/**
+	 * Nombre minimal et maximal de lignes ou de colonnes d'une grille.
+	 */
+	public static final int MIN_SIZE = 3;
+	public static final int MAX_SIZE = Coord.MAX_COORD + 1;
 	private static final Map<Integer, Integer> RANGE_MIN;
 	private static final Map<Integer, Integer> RANGE_MAX;
 	static {
@@ -32,17 +42,33 @@ public class HashiGenerator {
 		RANGE_MAX.put(13, 40);
 	}
 	
+	// Pour les autres tailles, proportion des cases occupées par une île
+	private static final double MIN_DENSITY = 0.15;
+	private static final double MAX_DENSITY = 0.25;
+	// Nombre d'essais de pont accordés par île voulue (au moins
+	// MIN_ITERATIONS)
+	private static final int ITERATIONS_PER_ISLAND = 25;
+	private static final int MIN_ITERATIONS = 1000;
+	
 	private static final int UNKNOWN_ISLAND = -1;
 	private static final int SIMPLE = 1;
 	private static final int DOUBLE = 2;
+	private static final Direction[] DIRECTIONS = Direction.values();
 	
 	// ATTRIBUTS
 	
-	private final Random random;
+	private final RandomGenerator random;
 	private int islandsNb;
-	private int size;
+	private int height;
+	private int width;
+	// Proportion des cases occupées par une île, 0 pour le choix par défaut
+	private double density;
 	private int[][] islands;
 	private Bridge[][] bridges;
+	// Arbre de Fenwick sur les cases, dans l'ordre de lecture : nombre
+	// d'îles par intervalle, pour tirer la k-ième île sans parcourir la
+	// grille
+	private int[] islandTree;
 	
 	private HashiGrid lastGeneratedGrid;
 	private HashiGrid lastGeneratedSolution;
@@ -50,19 +76,74 @@ public class HashiGenerator {
 	// CONSTRUCTEURS
 	
 	public HashiGenerator() {
-		random = new Random(new Date().getTime());
+		this(new SplittableRandom());
+	}
+	
+	/**
+	 * Crée un générateur dont tous les tirages sont faits par random. Le
+	 * générateur n'est pas partagé : random ne doit pas être utilisé par un
+	 * autre fil pendant une génération.
+	 */
+	public HashiGenerator(RandomGenerator random) {
+		Contract.checkCondition(random != null);
+		
+		this.random = random;
 		islandsNb = 0;
+		density = 0;
 	}
 	
 	public HashiGenerator(int size) {
 		this();
-		initAttributes(size);
+		initAttributes(size, size);
+	}
+	
+	/**
+	 * Crée un générateur de grilles de taille size dont les tirages
+	 * aléatoires sont entièrement déterminés par seed.
+	 */
+	public HashiGenerator(int size, long seed) {
+		this(size, new Random(seed));
+	}
+	
+	/**
+	 * Crée un générateur de grilles de taille size dont les tirages sont
+	 * faits par random.
+	 */
+	public HashiGenerator(int size, RandomGenerator random) {
+		this(size, size, random);
+	}
+	
+	/**
+	 * Crée un générateur de grilles de height lignes et width colonnes dont
+	 * les tirages sont faits par random.
+	 */
+	public HashiGenerator(int height, int width, RandomGenerator random) {
+		this(random);
+		initAttributes(height, width);
 	}
 	
 	// REQUETES
 	
-	public int getSize() {
-		return size;
+	/**
+	 * Nombre de lignes des grilles générées.
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Nombre de colonnes des grilles générées.
+	 */
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * Proportion des cases occupées par une île dans les grilles générées,
+	 * ou 0 si le nombre d'îles est choisi par défaut.
+	 */
+	public double getDensity() {
+		return density;
 	}
 	
 	public int[][] getIslands() {
@@ -80,79 +161,180 @@ public class HashiGenerator {
 	// COMMANDES
 	
 	public void setSize(int size) {
-		initAttributes(size);
+		setSize(size, size);
 	}
 	
-	public void generateRandomGrid() {
-		if (size == 0) {
-			return;
+	/**
+	 * Les grilles générées auront height lignes et width colonnes.
+	 */
+	public void setSize(int height, int width) {
+		initAttributes(height, width);
+	}
+	
+	/**
+	 * Les grilles générées viseront density îles par case, quelle que soit
+	 * leur taille. Si density == 0, le nombre d'îles est de nouveau choisi
+	 * par défaut (voir computeNbIslands). Le générateur peut placer moins
+	 * d'îles que voulu s'il n'y a plus de place.
+	 */
+	public void setDensity(double density) {
+		Contract.checkCondition(0 <= density && density <= 1);
+		
+		this.density = density;
+	}
+	
+	/**
+	 * Génère une grille aléatoire. Si le fil courant est interrompu, la
+	 * génération s'arrête au plus tôt sans produire de grille (les
+	 * dernières grilles générées ne changent pas) et renvoie false ; le
+	 * fil reste marqué interrompu.
+	 */
+	public boolean generateRandomGrid() {
+		if (height == 0) {
+			return false;
 		}
+		initAttributes(height, width);
 		islandsNb = 0;
 		int wantedIslandsNb = computeNbIslands();
 		createRandomIsland();
 		int i = 0;
-		int maxIter = 1000;
+		int maxIter = Math.max(MIN_ITERATIONS,
+				ITERATIONS_PER_ISLAND * wantedIslandsNb);
+		Thread current = Thread.currentThread();
 		// La variable maxIter permet d'empêcher la fonction de boucler
 		// indéfiniment. En général moins de 100 itérations suffisent pour
-		// construire la grille, mais dans certains cas, si on ne peut plus
-		// placer d'îles, la fonction bouclerait indéfiniment sans cette
-		// variable.
+		// construire une grille de taille proposée, mais dans certains cas,
+		// si on ne peut plus placer d'îles, la fonction bouclerait
+		// indéfiniment sans cette variable.
 		while (islandsNb <= wantedIslandsNb && i < maxIter) {
+			if (current.isInterrupted()) {
+				return false;
+			}
 			buildRandomBridgeFrom(chooseRandomNode());
 			i++;
 		}
 		computeIslandsValue();
 		lastGeneratedSolution = new HashiGrid(islands, bridges);
 		lastGeneratedGrid = new HashiGrid(islands, null);
+		return true;
+	}
+	
+	/**
+	 * Génère des grilles jusqu'à en obtenir une dont la solution est unique,
+	 * en au plus maxAttempts essais. Renvoie false si aucune ne l'était ou
+	 * si le fil a été interrompu : la dernière grille générée est alors
+	 * conservée.
+	 */
+	public boolean generateUniqueGrid(int maxAttempts) {
+		Contract.checkCondition(maxAttempts > 0);
+		
+		if (height == 0) {
+			return false;
+		}
+		for (int k = 0; k < maxAttempts; k++) {
+			if (!generateRandomGrid()) {
+				return false;
+			}
+			if (hasUniqueSolution(lastGeneratedGrid)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Teste si la grille grid a une unique solution. La recherche s'arrête
+	 * dès la deuxième solution trouvée.
+	 */
+	public static boolean hasUniqueSolution(HashiGrid grid) {
+		Contract.checkCondition(grid != null);
+		
+		return new PropagationSolver(grid).countSolutions(2) == 1;
 	}
 	
 	// OUTILS
 	
-	private void initAttributes(int size) {
-		Contract.checkCondition(AVAILABLE_SIZES.contains(size));
+	private void initAttributes(int height, int width) {
+		Contract.checkCondition(MIN_SIZE <= height && height <= MAX_SIZE
+				&& MIN_SIZE <= width && width <= MAX_SIZE);
 		
-		this.size = size;		
-		islands = new int[size][size];
-		bridges = new Bridge[size][size];
+		this.height = height;
+		this.width = width;
+		islands = new int[height][width];
+		bridges = new Bridge[height][width];
+		islandTree = new int[height * width + 1];
 	}
 	
+	/**
+	 * Nombre d'îles voulu : density fois le nombre de cases si elle est
+	 * fixée, sinon tiré dans la plage fixe des tailles proposées, et sinon
+	 * entre MIN_DENSITY et MAX_DENSITY fois le nombre de cases.
+	 */
 	private int computeNbIslands() {
-		int min = RANGE_MIN.get(size);
-		int max = RANGE_MAX.get(size);
+		if (density > 0) {
+			return Math.max(2, (int) Math.round((double) height * width
+					* density));
+		}
+		int min;
+		int max;
+		if (height == width && RANGE_MIN.containsKey(height)) {
+			min = RANGE_MIN.get(height);
+			max = RANGE_MAX.get(height);
+		} else {
+			long cells = (long) height * width;
+			min = Math.max(2, (int) (cells * MIN_DENSITY));
+			max = Math.max(min + 1, (int) (cells * MAX_DENSITY));
+		}
 		return min + random.nextInt(max - min);
 	}
 	
 	private void createRandomIsland() {
-		int x = random.nextInt(size);
-		int y = random.nextInt(size);
+		int x = random.nextInt(height);
+		int y = random.nextInt(width);
+		addIsland(x, y);
+	}
+	
+	/**
+	 * Place une île de valeur encore inconnue sur la case vide (x, y).
+	 */
+	private void addIsland(int x, int y) {
 		islands[x][y] = UNKNOWN_ISLAND;
 		islandsNb++;
+		for (int k = x * width + y + 1; k < islandTree.length; k += k & -k) {
+			islandTree[k]++;
+		}
 	}
 	
-	private Coord chooseRandomNode() {
-		List<Coord> availableCoords = new ArrayList<Coord>();
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
-				if (islands[x][y] != 0) {
-					availableCoords.add(new Coord(x, y));
-				}
+	/**
+	 * Tire au hasard une case non vide et renvoie sa coordonnée sous forme
+	 * d'entier (voir Coord.pack). La k-ième île dans l'ordre de lecture est
+	 * trouvée en descendant l'arbre de Fenwick, en temps logarithmique.
+	 */
+	private int chooseRandomNode() {
+		int k = random.nextInt(islandsNb);
+		int cell = 0;
+		for (int step = Integer.highestOneBit(islandTree.length - 1);
+				step > 0; step >>= 1) {
+			if (cell + step < islandTree.length
+					&& islandTree[cell + step] <= k) {
+				cell += step;
+				k -= islandTree[cell];
 			}
 		}
-		return availableCoords.get(random.nextInt(availableCoords.size()));
+		return Coord.pack(cell / width, cell % width);
 	}
 	
-	private void buildRandomBridgeFrom(Coord c) {
-		Direction[] dirs = Direction.values();
-		Direction randDir = dirs[random.nextInt(dirs.length)];
-		int x = c.x + randDir.incX();
-		int y = c.y + randDir.incY();
-		if (!isValidCoord(x, y) || !isValidBridge(randDir, new Coord(x, y))
+	private void buildRandomBridgeFrom(int node) {
+		Direction randDir = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+		int x = Coord.packedX(node) + randDir.incX();
+		int y = Coord.packedY(node) + randDir.incY();
+		if (!isValidCoord(x, y) || !isValidBridge(randDir, x, y)
 				|| islands[x][y] != 0 || bridges[x][y] != null) {
 			return;
 		}
 		int bridgeLenght = 0;
 		int bridgeType = headOrTail() ? SIMPLE : DOUBLE;
-		while (isValidBridge(randDir, new Coord(x, y))) {
+		while (isValidBridge(randDir, x, y)) {
 			bridges[x][y] = new Bridge(randDir, bridgeType);
 			bridgeLenght++;
 			x += randDir.incX();
@@ -161,79 +343,76 @@ public class HashiGenerator {
 				return;
 			}
 			if (bridges[x][y] != null) {	
-				if (!canPutIsland(new Coord(x, y), randDir)) {
+				if (!canPutIsland(x, y, randDir)) {
 					int prevX = x - randDir.incX();
 					int prevY = y - randDir.incY();
 					bridges[prevX][prevY] = null;
 					if (bridgeLenght >= 2) {
-						islands[prevX][prevY] = UNKNOWN_ISLAND;
-						islandsNb++;
+						addIsland(prevX, prevY);
 					}
 					return;
 				}
 				bridges[x][y] = null;
-				islands[x][y] = UNKNOWN_ISLAND;
-				islandsNb++;
+				addIsland(x, y);
 				return;
 			}
 			if (headOrTail()) {
 				break;
 			}
 		}
-		islands[x][y] = UNKNOWN_ISLAND;
-		islandsNb++;
+		addIsland(x, y);
 	}
 	
 	private boolean isValidCoord(int x, int y) {
-		return x >= 0 && x < size && y >= 0 && y < size;
+		return x >= 0 && x < height && y >= 0 && y < width;
 	}
 	
-	private boolean isValidBridge(Direction d, Coord c) {
+	private boolean isValidBridge(Direction d, int x, int y) {
 		if (d.isVertical()) {
-			return c.x > 0 && c.x < size - 1;
+			return x > 0 && x < height - 1;
 		} else {
-			return c.y > 0 && c.y < size - 1;
+			return y > 0 && y < width - 1;
 		}
 	}
 	
 	private boolean headOrTail() {
-		return Math.random() >= 0.5;
+		return random.nextBoolean();
 	}
 	
-	private boolean canPutIsland(Coord c, Direction dir) {
+	private boolean canPutIsland(int x, int y, Direction dir) {
 		Direction n = Direction.NORTH;
 		Direction s = Direction.SOUTH;
 		Direction e = Direction.EAST;
 		Direction w = Direction.WEST;
 		if (dir.isHorizontal()) {
-			if (islands[c.x + n.incX()][c.y + n.incY()] != 0
-					|| islands[c.x + s.incX()][c.y + s.incY()] != 0) {
+			if (islands[x + n.incX()][y + n.incY()] != 0
+					|| islands[x + s.incX()][y + s.incY()] != 0) {
 				return false;
 			}
-		} else if (islands[c.x + e.incX()][c.y + e.incY()] != 0
-					|| islands[c.x + w.incX()][c.y + w.incY()] != 0) {
+		} else if (islands[x + e.incX()][y + e.incY()] != 0
+					|| islands[x + w.incX()][y + w.incY()] != 0) {
 			return false;
 		}
 		return true;
 	}
 	
 	private void computeIslandsValue() {
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
+		for (int x = 0; x < height; x++) {
+			for (int y = 0; y < width; y++) {
 				if (islands[x][y] == UNKNOWN_ISLAND) {
-					islands[x][y] = nearBridgesNb(new Coord(x, y));
+					islands[x][y] = nearBridgesNb(x, y);
 				}
 			}
 		}
 	}
 	
-	private int nearBridgesNb(Coord c) {
+	private int nearBridgesNb(int x, int y) {
 		int bridgesNb = 0;
 		Bridge b;
-		for (Direction d : Direction.values()) {
-			int x = c.x + d.incX();
-			int y = c.y + d.incY();
-			if (isValidCoord(x, y) && (b = bridges[x][y]) != null) {
+		for (Direction d : DIRECTIONS) {
+			int nx = x + d.incX();
+			int ny = y + d.incY();
+			if (isValidCoord(nx, ny) && (b = bridges[nx][ny]) != null) {
 				if (b.getDir() == d || b.getDir() == d.opposite()) {
 					bridgesNb += b.nbBridges();
 				}
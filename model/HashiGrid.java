@@ -1,10 +1,7 @@
 package model;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 
 import util.BadSyntaxException;
 import util.Contract;
@@ -12,15 +9,48 @@ import util.Utils;
 
 public class HashiGrid {
 	
+	// CONSTANTES
+	
+	// Types des entrées du trail, stockés dans les deux bits de poids faible.
+	// Deux types dont seul le bit de poids faible diffère sont inverses.
+	private static final int BUILT = 0;
+	private static final int REMOVED = 1;
+	private static final int LOCKED = 2;
+	private static final int UNLOCKED = 3;
+	private static final int KIND_BITS = 2;
+	private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+	private static final int INITIAL_TRAIL_SIZE = 64;
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final int MAX_BRIDGES = 2;
+	// Graine des clés de Zobrist des îles évaluées, distinctes de celles des
+	// ponts
+	private static final long LOCK_SEED = 1L << 40;
+	
 	// ATTRIBUTS
 	
-	private int size;
+	private int height;
+	private int width;
 	private int nbIslands;
-	private Island[][] grid;
-	private Bridge[][] bridges;
-	private boolean[][] isEvaluated;
-	private Map<Island, Integer> map;
+	// Nombre d'îles ayant exactement le nombre de ponts demandé
+	private int satisfiedNb;
+	// Nombre de composantes closes (voir hasSealedComponent())
+	private int sealedNb;
+	// Les îles sont désignées par leur indice dans la table des arêtes, qui
+	// donne aussi leur position et leur valeur ; les ponts sont comptés par
+	// arête. Aucun tableau n'est indexé par les cases de la grille.
+	private EdgeTable edges;
+	private int[] placed;
+	private boolean[] isEvaluated;
+	private int[] edgeBridges;
+	private int[] activeCrossings;
 	private Graph graph;
+	private int[] trail;
+	private int trailTop;
+	// Plus haut point de reprise encore valide : les entrées au-dessous ne
+	// peuvent pas être annulées par simplification
+	private int markTop;
+	// Hachage de Zobrist des ponts et des îles évaluées
+	private long stateHash;
 	
 	// CONSTRUCTEURS
 	
@@ -42,29 +72,134 @@ public class HashiGrid {
 		initAttributes(islands, bridges);
 	}
 	
+	/**
+	 * Crée une grille à partir de sa table des arêtes, en construisant
+	 * bridges[e] ponts sur chaque arête e (aucun si bridges == null). Aucun
+	 * tableau de la taille de la grille n'est alloué. Les ponts qui ne
+	 * peuvent pas être construits sont ignorés : l'appelant peut le vérifier
+	 * avec bridgesOn().
+	 */
+	HashiGrid(EdgeTable edges, int[] bridges) {
+		Contract.checkCondition(edges != null && (bridges == null
+				|| bridges.length == edges.nbEdges()));
+		
+		initAttributes(edges);
+		if (bridges != null) {
+			for (int e = 0; e < bridges.length; e++) {
+				for (int k = 0; k < bridges[e]; k++) {
+					buildBridge(e);
+				}
+			}
+			trailTop = 0;
+		}
+	}
+	
 	// REQUETES
 	
-	public int getSize() {
-		return size;
+	/**
+	 * Nombre de lignes de la grille.
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * Nombre de colonnes de la grille.
+	 */
+	public int getWidth() {
+		return width;
 	}
 	
 	public int nbIslands() {
 		return nbIslands;
 	}
 	
+	/**
+	 * Table des îles et des ponts candidats de la grille, calculée une seule
+	 * fois à la construction.
+	 */
+	public EdgeTable getEdgeTable() {
+		return edges;
+	}
+	
+	/**
+	 * Nombre de ponts construits sur l'arête e de la table des arêtes.
+	 */
+	public int bridgesOn(int e) {
+		Contract.checkCondition(0 <= e && e < edges.nbEdges());
+		
+		return edgeBridges[e];
+	}
+	
+	/**
+	 * Indice de l'île de coordonnée c dans la table des arêtes, ou
+	 * EdgeTable.NONE s'il n'y a pas d'île en c.
+	 */
+	public int islandIndexAt(Coord c) {
+		Contract.checkCondition(isValidCoord(c));
+		
+		return edges.islandAt(c.x, c.y);
+	}
+	
+	/**
+	 * Nombre de ponts demandés par l'île d'indice i.
+	 */
+	public int bridgesNb(int i) {
+		Contract.checkCondition(0 <= i && i < nbIslands);
+		
+		return edges.islandValue(i);
+	}
+	
+	/**
+	 * Nombre de ponts déjà construits sur l'île d'indice i.
+	 */
+	public int bridgesPlaced(int i) {
+		Contract.checkCondition(0 <= i && i < nbIslands);
+		
+		return placed[i];
+	}
+	
+	/**
+	 * Nombre de ponts restant à construire sur l'île d'indice i.
+	 */
+	public int bridgesToPlace(int i) {
+		Contract.checkCondition(0 <= i && i < nbIslands);
+		
+		return edges.islandValue(i) - placed[i];
+	}
+	
+	/**
+	 * Teste si l'île d'indice i a tous ses ponts.
+	 */
+	public boolean isComplete(int i) {
+		Contract.checkCondition(0 <= i && i < nbIslands);
+		
+		return placed[i] == edges.islandValue(i);
+	}
+	
 	/**
 	 * Teste si la coordonnée c à déjà été évalué.
 	 */
 	public boolean isEvaluated(Coord c) {
 		Contract.checkCondition(isValidCoord(c));
 		
-		return isEvaluated[c.x][c.y];
+		int i = edges.islandAt(c.x, c.y);
+		return i != EdgeTable.NONE && isEvaluated[i];
+	}
+	
+	/**
+	 * Teste si l'île d'indice i à déjà été évaluée.
+	 */
+	public boolean isEvaluated(int i) {
+		Contract.checkCondition(0 <= i && i < nbIslands);
+		
+		return isEvaluated[i];
 	}
 	
 	public boolean isBridge(Coord c) {
 		Contract.checkCondition(isValidCoord(c));
 		
-		return bridges[c.x][c.y] != null;
+		return bridgeAcross(c) != EdgeTable.NONE;
 	}
 	
 	/**
@@ -84,18 +219,22 @@ public class HashiGrid {
 		Contract.checkCondition(isValidCoord(c) && isValidCoord(d)
 				&& dir != null);
 		
-		if (!areNeighbors(c, d)) {
+		int e = edgeBetween(c, dir, d);
+		return e != EdgeTable.NONE && canBuildBridge(e);
+	}
+	
+	/**
+	 * Teste s'il on peut construire un pont sur l'arête e de la table des
+	 * arêtes.
+	 */
+	public boolean canBuildBridge(int e) {
+		Contract.checkCondition(0 <= e && e < edges.nbEdges());
+		
+		if (edgeBridges[e] == 0 && activeCrossings[e] > 0) {
 			return false;
 		}
-		if (getIslandAt(c).bridgesPlaced(dir) == 1) {
-			return getIslandAt(c).canBuildBridge(dir, getIslandAt(d));
-		}
-		for (Coord e : searchInternalCoords(c, dir, d)) {
-			if (bridges[e.x][e.y] != null) {
-				return false;
-			}
-		}
-		return getIslandAt(c).canBuildBridge(dir, getIslandAt(d));
+		return edgeBridges[e] < MAX_BRIDGES && !isComplete(edges.edgeFrom(e))
+				&& !isComplete(edges.edgeTo(e));
 	}
 	
 	/**
@@ -105,7 +244,17 @@ public class HashiGrid {
 		Contract.checkCondition(isValidCoord(c) && isValidCoord(d)
 				&& dir != null);
 		
-		return getIslandAt(c).isNeighbor(dir, getIslandAt(d));
+		int e = edgeBetween(c, dir, d);
+		return e != EdgeTable.NONE && edgeBridges[e] > 0;
+	}
+	
+	/**
+	 * Teste s'il on peut retirer un pont de l'arête e de la table des arêtes.
+	 */
+	public boolean canRemoveBridge(int e) {
+		Contract.checkCondition(0 <= e && e < edges.nbEdges());
+		
+		return edgeBridges[e] > 0;
 	}
 	
 	/**
@@ -123,56 +272,103 @@ public class HashiGrid {
 	public boolean notConnectedGrid() {
 		return validNbOfBridges() && !graph.isConnected();
 	}
-
-	public Island getIslandAt(Coord c) {
-		Contract.checkCondition(isValidCoord(c));
-		
-		return grid[c.x][c.y];
+	
+	/**
+	 * Teste si une composante connexe de la grille est close : toutes ses
+	 * îles ont leurs ponts, mais elle ne contient pas toutes les îles. Aucun
+	 * pont ne peut plus en sortir, la grille ne peut donc plus être résolue
+	 * sans retirer de pont. Le test est en temps constant : le nombre de
+	 * composantes closes est tenu à jour à chaque pont construit ou retiré,
+	 * à partir de la demande restante de chaque composante (voir Graph).
+	 */
+	public boolean hasSealedComponent() {
+		return sealedNb > 0;
+	}
+	
+	/**
+	 * Teste si les îles d'indices i et j sont reliées par des ponts.
+	 */
+	boolean areConnected(int i, int j) {
+		return graph.areConnected(i, j);
+	}
+	
+	/**
+	 * Nombre d'îles de la composante de l'île d'indice i.
+	 */
+	int componentSize(int i) {
+		return graph.componentSize(i);
 	}
 	
+	/**
+	 * Ponts restant à placer sur les îles de la composante de l'île
+	 * d'indice i.
+	 */
+	int componentDemand(int i) {
+		return graph.componentWeight(i);
+	}
+
+	/**
+	 * Pont traversant la case c, ou null. L'instance est créée à chaque
+	 * appel, à partir du nombre de ponts de l'arête qui traverse c.
+	 */
 	public Bridge getBridgeAt(Coord c) {
 		Contract.checkCondition(isValidCoord(c));
 		
-		return bridges[c.x][c.y];
+		int e = bridgeAcross(c);
+		return e != EdgeTable.NONE
+				? new Bridge(edges.edgeDirection(e), edgeBridges[e]) : null;
 	}
 	
 	/**
-	 * Trouve un voisin dans la direction d, depuis la coordonnée c.
+	 * Trouve un voisin dans la direction d, depuis l'île de coordonnée c.
 	 * Si aucun voisin n'est trouvé ou si un pont est rencontré et qu'il ne
 	 * s'agit pas d'un pont déjà présent entre c et le voisin trouvé dans cette
 	 * direction, renvoie null. Renvoie la coordonnée du voisin sinon.
 	 */
 	public Coord findNeighborFrom(Coord c, Direction d) {
-		Contract.checkCondition(isValidCoord(c) && d != null);
+		Contract.checkCondition(isValidCoord(c) && d != null
+				&& islandIndexAt(c) != EdgeTable.NONE);
 		
-		boolean isBridge = false;
-		int x = c.x + d.incX();
-		int y = c.y + d.incY();
-		while (0 <= x && x < size && 0 <= y && y < size) {
-			if (bridges[x][y] != null) {
-				isBridge = true;
-			}
-			if (grid[x][y] != null) {
-				if (isBridge && getIslandAt(c).bridgesPlaced(d) == 0) {
-					return null;
-				}
-				return new Coord(x, y);
-			}
-			x += d.incX();
-			y += d.incY();
+		int j = findNeighborFrom(islandIndexAt(c), d);
+		return j != EdgeTable.NONE ? edges.islandCoord(j) : null;
+	}
+	
+	/**
+	 * Version de findNeighborFrom(Coord, Direction) sur les indices de la
+	 * table des arêtes : renvoie l'indice du voisin de l'île i dans la
+	 * direction d, ou EdgeTable.NONE.
+	 */
+	public int findNeighborFrom(int i, Direction d) {
+		Contract.checkCondition(0 <= i && i < nbIslands && d != null);
+		
+		int e = edges.edgeAt(i, d);
+		if (e == EdgeTable.NONE) {
+			return EdgeTable.NONE;
 		}
-		return null;
+		if (edgeBridges[e] == 0 && activeCrossings[e] > 0) {
+			return EdgeTable.NONE;
+		}
+		return edges.otherEnd(e, i);
 	}
 	
 	/**
 	 * Retourne le nombre de voisins accessibles depuis une île de coordonnée c
 	 */
 	public int accessibleNeighborsNb(Coord c) {
+		Contract.checkCondition(isValidCoord(c)
+				&& islandIndexAt(c) != EdgeTable.NONE);
+		
+		return accessibleNeighborsNb(islandIndexAt(c));
+	}
+	
+	/**
+	 * Retourne le nombre de voisins accessibles depuis l'île d'indice i.
+	 */
+	public int accessibleNeighborsNb(int i) {
 		int n = 0;
-		for (Direction d : Direction.values()) {
-			Coord neighbor;
-			if ((neighbor = findNeighborFrom(c, d)) != null
-					&& !getIslandAt(neighbor).isComplete()) {
+		for (Direction d : DIRECTIONS) {
+			int j = findNeighborFrom(i, d);
+			if (j != EdgeTable.NONE && !isComplete(j)) {
 				n++;
 			}
 		}
@@ -184,14 +380,7 @@ public class HashiGrid {
 	 * et de haut en bas.
 	 */
 	public Coord findFirstIsland() {
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
-				if (grid[x][y] != null) {
-					return new Coord(x, y);
-				}
-			}
-		}
-		return null;
+		return nbIslands > 0 ? edges.islandCoord(0) : null;
 	}
 	
 	/**
@@ -199,31 +388,33 @@ public class HashiGrid {
 	 * et de haut en bas à partir de la coordonée c.
 	 */
 	public Coord findNextIsland(Coord c) {
-		int x = c.x;
-		int y = c.y + 1;
-		while (x < size) {
-			while (y < size) {
-				if (grid[x][y] != null) {
-					return new Coord(x, y);
-				}
-				y++;
-			}
-			y = 0;
-			x++;
-		}
-		return null;
+		int next = edges.nextIslandAfter(c.x, c.y);
+		return next != EdgeTable.NONE ? edges.islandCoord(next) : null;
+	}
+	
+	/**
+	 * Indice de l'île suivant l'île d'indice i dans l'ordre de parcours de
+	 * findNextIsland(Coord), ou EdgeTable.NONE si i est la dernière.
+	 */
+	public int findNextIsland(int i) {
+		Contract.checkCondition(0 <= i && i < nbIslands);
+		
+		return i + 1 < nbIslands ? i + 1 : EdgeTable.NONE;
 	}
 	
 	@Override
 	public String toString() {
 		StringBuffer buf = new StringBuffer(
-				"HashiGrid : " + size + "x" + size + " :\n");
-		for (Island[] t : grid) {
-			for (Island i : t) {
-				if (i == null) {
-					buf.append("0");
+				"HashiGrid : " + height + "x" + width + " :\n");
+		int i = 0;
+		for (int x = 0; x < height; x++) {
+			for (int y = 0; y < width; y++) {
+				if (i < nbIslands && edges.islandX(i) == x
+						&& edges.islandY(i) == y) {
+					buf.append(edges.islandValue(i));
+					i++;
 				} else {
-					buf.append(i.bridgesNb());
+					buf.append("0");
 				}
 			}
 			buf.append('\n');
@@ -231,15 +422,48 @@ public class HashiGrid {
 		return new String(buf);
 	}
 	
+	/**
+	 * Hachage de Zobrist de l'état de la grille : ou exclusif d'une clé
+	 * aléatoire par couple (arête, i-ème pont posé) et par île évaluée. Il
+	 * est mis à jour à chaque modification, y compris par rollback(), et ne
+	 * dépend pas de l'ordre des modifications : deux grilles ayant les mêmes
+	 * ponts et les mêmes îles évaluées ont le même hachage.
+	 */
+	public long stateHash() {
+		return stateHash;
+	}
+	
+	/**
+	 * Pose un point de reprise : renvoie la position courante du trail, qui
+	 * pourra être passée à rollback().
+	 */
+	public int mark() {
+		markTop = trailTop;
+		return trailTop;
+	}
+	
 	// COMMANDES
 	
 	/**
-	 * Modifie l'état d'évaluation de la coordonnée c à b.
+	 * Modifie l'état d'évaluation de l'île de coordonnée c à b.
 	 */
 	public void setEvaluated(boolean b, Coord c) {
-		Contract.checkCondition(isValidCoord(c));
+		Contract.checkCondition(isValidCoord(c)
+				&& islandIndexAt(c) != EdgeTable.NONE);
 		
-		isEvaluated[c.x][c.y] = b;
+		setEvaluated(b, islandIndexAt(c));
+	}
+	
+	/**
+	 * Modifie l'état d'évaluation de l'île d'indice i à b.
+	 */
+	public void setEvaluated(boolean b, int i) {
+		Contract.checkCondition(0 <= i && i < nbIslands);
+		
+		if (isEvaluated[i] != b) {
+			setLocked(i, b);
+			record(i, b ? LOCKED : UNLOCKED);
+		}
 	}
 	
 	/**
@@ -249,13 +473,21 @@ public class HashiGrid {
 		Contract.checkCondition(isValidCoord(c) && isValidCoord(d)
 				&& d != null);
 		
-		if (areNeighbors(c, d) && canBuildBridge(c, dir, d)) {
-			Island i = getIslandAt(c);
-			Island j = getIslandAt(d);
-			i.buildBridge(dir, j);
-			addBridges(c, dir, d);
-			graph.addEdge(map.get(i), map.get(j));
-			graph.addEdge(map.get(j), map.get(i));
+		if (areNeighbors(c, d)) {
+			int e = edgeBetween(c, dir, d);
+			if (e != EdgeTable.NONE) {
+				buildBridge(e);
+			}
+		}
+	}
+	
+	/**
+	 * Construit un pont, si possible, sur l'arête e de la table des arêtes.
+	 */
+	public void buildBridge(int e) {
+		if (canBuildBridge(e)) {
+			link(e);
+			record(e, BUILT);
 		}
 	}
 	
@@ -266,38 +498,65 @@ public class HashiGrid {
 		Contract.checkCondition(isValidCoord(c) && isValidCoord(d)
 				&& dir != null);
 		
-		if (areNeighbors(c, d) && canRemoveBridge(c, dir, d)) {
-			Island i = getIslandAt(c);
-			Island j = getIslandAt(d);
-			i.removeBridge(dir, j);
-			removeBridges(c, dir, d);
-			if (i.bridgesPlaced(dir) == 0) {
-				graph.removeEdge(map.get(i), map.get(j));
-				graph.removeEdge(map.get(j), map.get(i));
-			}
+		int e = edgeBetween(c, dir, d);
+		if (e != EdgeTable.NONE) {
+			removeBridge(e);
 		}
 	}
 	
-	public void putIslandAt(Island i, Coord c) {
-		Contract.checkCondition(i != null && isValidCoord(c));
+	/**
+	 * Retire un pont, si possible, de l'arête e de la table des arêtes.
+	 */
+	public void removeBridge(int e) {
+		if (canRemoveBridge(e)) {
+			unlink(e);
+			record(e, REMOVED);
+		}
+	}
+	
+	/**
+	 * Annule, dans l'ordre inverse, toutes les modifications faites depuis le
+	 * point de reprise mark : ponts construits ou retirés et états
+	 * d'évaluation. Le coût est proportionnel au nombre de ces modifications.
+	 */
+	public void rollback(int mark) {
+		Contract.checkCondition(0 <= mark && mark <= trailTop);
 		
-		grid[c.x][c.y] = i;
+		while (trailTop > mark) {
+			trailTop--;
+			int entry = trail[trailTop];
+			int k = entry >>> KIND_BITS;
+			switch (entry & KIND_MASK) {
+			case BUILT:
+				unlink(k);
+				break;
+			case REMOVED:
+				link(k);
+				break;
+			default:
+				setLocked(k, (entry & KIND_MASK) == UNLOCKED);
+			}
+		}
+		markTop = mark;
 	}
 	
 	/**
 	 * Remet à zéro la grille en retirant les ponts.
 	 */
 	public void clear() {
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
-				bridges[x][y] = null;
-				isEvaluated[x][y] = false;
-				if (grid[x][y] != null) {
-					grid[x][y].clearBridges();
-				}
-			}
-		}
+		Arrays.fill(isEvaluated, false);
+		Arrays.fill(edgeBridges, 0);
+		Arrays.fill(activeCrossings, 0);
 		graph.clear();
+		for (int i = 0; i < nbIslands; i++) {
+			graph.addWeight(i, placed[i]);
+		}
+		Arrays.fill(placed, 0);
+		trailTop = 0;
+		markTop = 0;
+		stateHash = 0;
+		satisfiedNb = 0;
+		sealedNb = 0;
 	}
 
 	// OUTILS
@@ -306,89 +565,253 @@ public class HashiGrid {
 	 * Vérifie la validité de la coordonnée c.
 	 */
 	private boolean isValidCoord(Coord c) {
-		return c != null && 0 <= c.x && c.x < size && 0 <= c.y && c.y <= size;
+		return c != null && 0 <= c.x && c.x < height
+				&& 0 <= c.y && c.y < width;
 	}
 	
 	/**
 	 * Vérifie si le nombre de ponts placés sur chaque île et le nombre de ponts
-	 * attendues.
+	 * attendues. Le test est en temps constant : satisfiedNb est tenu à jour
+	 * à chaque pont construit ou retiré.
 	 */
 	private boolean validNbOfBridges() {
-		for (Island[] tab : grid) {
-			for (Island i : tab) {
-				if (i != null && i.bridgesNb() != i.allBridgesPlaced()) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return satisfiedNb == nbIslands;
+	}
+	
+	/**
+	 * 1 si l'île d'indice i a exactement le nombre de ponts demandé, 0
+	 * sinon.
+	 */
+	private int satisfied(int i) {
+		return isComplete(i) ? 1 : 0;
 	}
 	
 	/**
 	 * Initialise les attributs de l'objet
 	 */
 	private void initAttributes(int[][] islands, Bridge[][] bridges) {
-		this.size = islands[0].length;
+		this.height = islands.length;
+		this.width = islands[0].length;
 		this.nbIslands = 0;
-		this.grid = new Island[size][size];
-		this.isEvaluated = new boolean[size][size];
-		this.bridges = bridges == null ? new Bridge[size][size] : bridges;
-		this.map = new HashMap<Island, Integer>();
+		this.satisfiedNb = 0;
+		for (int x = 0; x < height; x++) {
+			for (int y = 0; y < width; y++) {
+				if (islands[x][y] > 0) {
+					nbIslands++;
+				}
+			}
+		}
+		int[] xs = new int[nbIslands];
+		int[] ys = new int[nbIslands];
+		int[] values = new int[nbIslands];
 		int index = 0;
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
+		for (int x = 0; x < height; x++) {
+			for (int y = 0; y < width; y++) {
 				if (islands[x][y] > 0) {
-					grid[x][y] = new Island(islands[x][y]);
-					map.put(grid[x][y], index);
+					xs[index] = x;
+					ys[index] = y;
+					values[index] = islands[x][y];
 					index++;
-					nbIslands++;
 				}
 			}
 		}
-		this.graph = new Graph(nbIslands);
+		initAttributes(new EdgeTable(height, width, xs, ys, values));
+		if (bridges != null) {
+			buildBridgesFrom(bridges);
+			trailTop = 0;
+		}
 	}
 	
 	/**
-	 * Retire un pont entre c et d, dans la direction dir.
+	 * Initialise les attributs de l'objet à partir de la table des arêtes
+	 * edges, sans aucun pont.
 	 */
-	private void removeBridges(Coord c, Direction dir, Coord d) {
-		for (Coord e : searchInternalCoords(c, dir, d)) {
-			if (bridges[e.x][e.y].nbBridges() == 2) {
-				bridges[e.x][e.y].removeBridge();
-			} else {
-				bridges[e.x][e.y] = null;
-			}
+	private void initAttributes(EdgeTable edges) {
+		this.height = edges.getHeight();
+		this.width = edges.getWidth();
+		this.nbIslands = edges.nbIslands();
+		this.satisfiedNb = 0;
+		this.edges = edges;
+		this.placed = new int[nbIslands];
+		this.isEvaluated = new boolean[nbIslands];
+		this.edgeBridges = new int[edges.nbEdges()];
+		this.activeCrossings = new int[edges.nbEdges()];
+		this.sealedNb = 0;
+		this.graph = new Graph(Math.max(1, nbIslands));
+		for (int i = 0; i < nbIslands; i++) {
+			graph.addWeight(i, edges.islandValue(i));
 		}
+		this.trail = new int[INITIAL_TRAIL_SIZE];
+		this.trailTop = 0;
+		this.markTop = 0;
+		this.stateHash = 0;
 	}
 	
 	/**
-	 * Ajoute un pont entre c et d, dans la direction dir.
+	 * Construit les ponts dessinés dans le tableau bridges : chaque arête
+	 * reçoit le nombre de ponts de la première case qu'elle traverse, si ce
+	 * pont est orienté comme elle.
 	 */
-	private void addBridges(Coord c, Direction dir, Coord d) {
-		for (Coord e : searchInternalCoords(c, dir, d)) {
-			if (bridges[e.x][e.y] != null) {
-				bridges[e.x][e.y].addBridge();
-			} else {
-				bridges[e.x][e.y] = new Bridge(dir, 1);
+	private void buildBridgesFrom(Bridge[][] bridges) {
+		for (int e = 0; e < edges.nbEdges(); e++) {
+			if (edges.edgeLength(e) > 0) {
+				Direction dir = edges.edgeDirection(e);
+				Coord c = edges.islandCoord(edges.edgeFrom(e));
+				Coord d = edges.islandCoord(edges.edgeTo(e));
+				Bridge b = bridges[c.x + dir.incX()][c.y + dir.incY()];
+				if (b != null && b.getDir().isVertical() == dir.isVertical()) {
+					for (int k = 0; k < b.nbBridges(); k++) {
+						buildBridge(c, dir, d);
+					}
+				}
 			}
 		}
 	}
 	
 	/**
-	 * Retourne la liste des coordonnées comprises entre c et d, exclus, dans
-	 * la direction dir.
+	 * Arête de la table entre les îles c et d, d étant la voisine de c dans
+	 * la direction dir, ou EdgeTable.NONE si ce n'est pas le cas.
+	 */
+	private int edgeBetween(Coord c, Direction dir, Coord d) {
+		int i = edges.islandAt(c.x, c.y);
+		int j = edges.islandAt(d.x, d.y);
+		if (i == EdgeTable.NONE || j == EdgeTable.NONE) {
+			return EdgeTable.NONE;
+		}
+		return edges.neighbor(i, dir) == j ? edges.edgeAt(i, dir)
+				: EdgeTable.NONE;
+	}
+	
+	/**
+	 * Arête portant au moins un pont qui traverse la case c, ou
+	 * EdgeTable.NONE. Une case est traversée par au plus une arête de chaque
+	 * direction, et deux arêtes qui se croisent ne portent pas de pont en
+	 * même temps.
+	 */
+	private int bridgeAcross(Coord c) {
+		int e = edges.edgeAcross(c.x, c.y, Direction.EAST);
+		if (e != EdgeTable.NONE && edgeBridges[e] > 0) {
+			return e;
+		}
+		e = edges.edgeAcross(c.x, c.y, Direction.SOUTH);
+		return e != EdgeTable.NONE && edgeBridges[e] > 0 ? e : EdgeTable.NONE;
+	}
+	
+	/**
+	 * Construit un pont sur l'arête e, sans vérification.
+	 */
+	private void link(int e) {
+		int i = edges.edgeFrom(e);
+		int j = edges.edgeTo(e);
+		satisfiedNb -= satisfied(i) + satisfied(j);
+		placed[i]++;
+		placed[j]++;
+		satisfiedNb += satisfied(i) + satisfied(j);
+		addBridges(e);
+		stateHash ^= zobristKey(2 * e + edgeBridges[e]);
+		graph.addWeight(i, -1);
+		graph.addWeight(j, -1);
+		graph.addEdge(i, j);
+		graph.addEdge(j, i);
+		if (isSealed(i, j)) {
+			sealedNb++;
+		}
+	}
+	
+	/**
+	 * Retire un pont de l'arête e, sans vérification.
+	 */
+	private void unlink(int e) {
+		int i = edges.edgeFrom(e);
+		int j = edges.edgeTo(e);
+		if (isSealed(i, j)) {
+			sealedNb--;
+		}
+		satisfiedNb -= satisfied(i) + satisfied(j);
+		placed[i]--;
+		placed[j]--;
+		satisfiedNb += satisfied(i) + satisfied(j);
+		stateHash ^= zobristKey(2 * e + edgeBridges[e]);
+		removeBridges(e);
+		if (edgeBridges[e] == 0) {
+			graph.removeEdge(i, j);
+			graph.removeEdge(j, i);
+		}
+		graph.addWeight(i, 1);
+		graph.addWeight(j, 1);
+	}
+	
+	/**
+	 * Teste si la composante des îles i et j, reliées par un pont, est
+	 * close. Elle ne peut l'être que si i et j ont leurs ponts, ce qui évite
+	 * presque toujours de la consulter.
+	 */
+	private boolean isSealed(int i, int j) {
+		return isComplete(i) && isComplete(j) && graph.isWeightless(i)
+				&& graph.componentSize(i) < nbIslands;
+	}
+	
+	/**
+	 * Modifie l'état d'évaluation de l'île d'indice i, sans vérification.
+	 */
+	private void setLocked(int i, boolean b) {
+		isEvaluated[i] = b;
+		stateHash ^= zobristKey(LOCK_SEED + i);
+	}
+	
+	/**
+	 * Clé de Zobrist numéro k : les clés sont tirées par un générateur
+	 * SplitMix64, recalculées à chaque usage plutôt que stockées.
+	 */
+	private static long zobristKey(long k) {
+		long z = (k + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+	
+	/**
+	 * Ajoute au trail la modification kind portant sur l'arête ou l'île k.
+	 * Si elle annule la dernière entrée et qu'aucun point de reprise ne les
+	 * sépare, cette entrée est simplement retirée : le trail des solveurs
+	 * qui défont eux-mêmes leurs essais reste ainsi borné.
+	 */
+	private void record(int k, int kind) {
+		if (trailTop > markTop
+				&& trail[trailTop - 1] == (k << KIND_BITS | kind ^ 1)) {
+			trailTop--;
+			return;
+		}
+		if (trailTop == trail.length) {
+			trail = Arrays.copyOf(trail, 2 * trail.length);
+		}
+		trail[trailTop] = k << KIND_BITS | kind;
+		trailTop++;
+	}
+	
+	/**
+	 * Retire un pont sur l'arête e et met à jour le nombre d'arêtes actives
+	 * croisant ses voisines.
 	 */
-	private List<Coord> searchInternalCoords(Coord c, Direction dir, Coord d) {
-		List<Coord> l = new ArrayList<Coord>();
-		if (dir.isVertical()) {
-			for (int x = c.x + dir.incX(); x != d.x; x += dir.incX()) {
-				l.add(new Coord(x, c.y));
+	private void removeBridges(int e) {
+		edgeBridges[e]--;
+		if (edgeBridges[e] == 0) {
+			for (int k = 0; k < edges.crossingsNb(e); k++) {
+				activeCrossings[edges.crossing(e, k)]--;
 			}
-		} else {
-			for (int y = c.y + dir.incY(); y != d.y; y += dir.incY()) {
-				l.add(new Coord(c.x, y));
+		}
+	}
+	
+	/**
+	 * Ajoute un pont sur l'arête e et met à jour le nombre d'arêtes actives
+	 * croisant ses voisines.
+	 */
+	private void addBridges(int e) {
+		edgeBridges[e]++;
+		if (edgeBridges[e] == 1) {
+			for (int k = 0; k < edges.crossingsNb(e); k++) {
+				activeCrossings[edges.crossing(e, k)]++;
 			}
 		}
-		return l;
 	}
 }
@@ -2,12 +2,21 @@ package model;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Observable;
+import java.util.concurrent.ForkJoinPool;
 
 import util.Contract;
 
-@SuppressWarnings("deprecation")
-public class HashiSolver extends Observable {
+public class HashiSolver {
+	
+	// CONSTANTES
+	
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final int MAX_BRIDGES = 2;
+	// Nombre d'entrées de la table de transposition du back tracking
+	private static final int TRANSPOSITIONS_SIZE = 1 << 16;
+	// Multiplicateur distinguant, dans les clés de la table de transposition,
+	// les états ne différant que par l'île de départ
+	private static final long START_KEY = 0x9E3779B97F4A7C15L;
 	
 	// ATTRIBUTS
 	
@@ -15,44 +24,54 @@ public class HashiSolver extends Observable {
 	private boolean isSolved;
 	private boolean hasChange;
 	private MyBridge lastBridge;
-	private final List<MyBridge> invalidBridges;
+	private NogoodStore nogoods;
+	private TranspositionTable transpositions;
+	private SolverLimits limits;
+	private boolean isStopped;
+	private SolverOutcome outcome;
+	private Branching branching;
+	private final SolverStats stats;
+	private final List<SolverListener> listeners;
 	
 	// CLASSES INTERNES
 	
-	// Classe interne pour simplifier l'utilisation des ponts
+	// Classe interne pour simplifier l'utilisation des ponts, désignés par
+	// leur arête dans la table des arêtes de la grille
 	private class MyBridge {
 		
 		// ATTRIBUTS
 		
-		private Coord island;
-		private Direction direction;
-		private Coord neighbor;
+		private final int edge;
 		
 		// CONSTRUCTEURS
 		
-		private MyBridge(Coord c, Direction d, Coord n) {
-			Contract.checkCondition(c != null && d != null && n != null);
-			
-			island = c;
-			direction = d;
-			neighbor = n;
+		private MyBridge(int e) {
+			edge = e;
 		}
 		
 		// REQUETES
 		
 		private boolean canBuildBridge() {
-			return game.canBuildBridge(island, direction, neighbor);
+			return game.canBuildBridge(edge);
+		}
+		
+		private int bridgesNb() {
+			return game.bridgesOn(edge);
+		}
+		
+		/**
+		 * Teste si le pont suivant de cette arête est un nogood.
+		 */
+		private boolean isNogood() {
+			return nogoods.contains(edge, bridgesNb() + 1);
 		}
 		
 		// COMMANDES
 		
 		private void buildBridge() {
-			game.buildBridge(island, direction, neighbor);
+			game.buildBridge(edge);
 		}
 		
-		private void removeBridge() {
-			game.removeBridge(island, direction, neighbor);
-		}
 	}
 	
 	// CONSTRUCTEURS
@@ -63,7 +82,10 @@ public class HashiSolver extends Observable {
 		game = grid;
 		isSolved = false;
 		hasChange = false;
-		invalidBridges = new ArrayList<MyBridge>();
+		outcome = null;
+		branching = Branching.READING_ORDER;
+		stats = new SolverStats();
+		listeners = new ArrayList<SolverListener>();
 	}
 	
 	// REQUETES
@@ -72,12 +94,55 @@ public class HashiSolver extends Observable {
 		return game;
 	}
 	
+	public Branching getBranching() {
+		return branching;
+	}
+	
 	public boolean isSolved() {
 		return isSolved;
 	}
 	
+	/**
+	 * Issue de la dernière résolution, ou null si aucune n'a été lancée sur
+	 * la grille courante.
+	 */
+	public SolverOutcome getOutcome() {
+		return outcome;
+	}
+	
+	/**
+	 * Statistiques de la dernière résolution. L'objet est réutilisé par les
+	 * résolutions suivantes.
+	 */
+	public SolverStats getStats() {
+		return stats;
+	}
+	
 	// COMMANDES
 	
+	/**
+	 * Ajoute l'écouteur l, prévenu du début et de la fin des résolutions.
+	 */
+	public void addSolverListener(SolverListener l) {
+		Contract.checkCondition(l != null);
+		
+		listeners.add(l);
+	}
+	
+	public void removeSolverListener(SolverListener l) {
+		listeners.remove(l);
+	}
+	
+	/**
+	 * Indique l'heuristique de branchement des résolutions suivantes (sauf
+	 * par SAT). Par défaut, l'ordre de lecture de la grille.
+	 */
+	public void setBranching(Branching b) {
+		Contract.checkCondition(b != null);
+		
+		branching = b;
+	}
+	
 	/**
 	 * Modifie la grille courante du solveur
 	 */
@@ -87,47 +152,270 @@ public class HashiSolver extends Observable {
 		game = grid;
 		isSolved = false;
 		hasChange = false;
-		invalidBridges.clear();
+		outcome = null;
 	}
 	
 	/**
 	 * Lance le solveur basique
 	 */
 	public void tryEasySolver() {
-		Coord start = game.findFirstIsland();
-		if (!(isSolved = upgradeEasySolver(start))) {
-			game.clear();
+		tryEasySolver(new SolverLimits());
+	}
+	
+	/**
+	 * Lance le solveur basique dans les limites limits. Si la grille n'est
+	 * pas résolue, elle est remise dans son état initial.
+	 */
+	public SolverOutcome tryEasySolver(SolverLimits limits) {
+		Contract.checkCondition(limits != null);
+		
+		startSearch("easy", limits);
+		// Chaque couple (arête, nombre de ponts) est au plus une fois nogood
+		// sur le chemin courant de la recherche
+		nogoods = new NogoodStore(MAX_BRIDGES * game.getEdgeTable().nbEdges());
+		int start = firstIsland();
+		int mark = game.mark();
+		if (!(isSolved = upgradeEasySolver(start, 0))) {
+			game.rollback(mark);
 		}
-		invalidBridges.clear();
-		setChanged();
-		notifyObservers();
+		nogoods = null;
+		return endSearch(isSolved);
 	}
 	
 	/**
 	 * Lance le solveur par back tracking
 	 */
 	public void tryBackTrackSolver() {
-		Coord start = game.findFirstIsland();
-		if (!(isSolved = backTrack(start))) {
-			game.clear();
+		tryBackTrackSolver(new SolverLimits());
+	}
+	
+	/**
+	 * Lance le solveur par back tracking dans les limites limits. Si la
+	 * grille n'est pas résolue, elle est remise dans son état initial.
+	 */
+	public SolverOutcome tryBackTrackSolver(SolverLimits limits) {
+		Contract.checkCondition(limits != null);
+		
+		startSearch("backtrack", limits);
+		if (transpositions == null) {
+			transpositions = new TranspositionTable(TRANSPOSITIONS_SIZE);
+		}
+		transpositions.clear();
+		int start = firstIsland();
+		int mark = game.mark();
+		if (!(isSolved = backTrack(start, 0))) {
+			game.rollback(mark);
 		}
-		setChanged();
-		notifyObservers();
+		return endSearch(isSolved);
+	}
+	
+	/**
+	 * Lance le solveur par propagation de contraintes. En cas d'échec la
+	 * grille n'est pas modifiée.
+	 */
+	public void tryPropagationSolver() {
+		tryPropagationSolver(new SolverLimits());
+	}
+	
+	/**
+	 * Lance le solveur par propagation de contraintes dans les limites
+	 * limits. En cas d'échec la grille n'est pas modifiée.
+	 */
+	public SolverOutcome tryPropagationSolver(SolverLimits limits) {
+		Contract.checkCondition(limits != null);
+		
+		startSearch("propagation", limits);
+		PropagationSolver engine = new PropagationSolver(game);
+		engine.setLimits(limits);
+		engine.setBranching(branching);
+		if (isSolved = engine.solve()) {
+			applySolution(engine.getSolution());
+		}
+		isStopped = engine.isInterrupted();
+		stats.add(engine, 0);
+		return endSearch(isSolved);
+	}
+	
+	/**
+	 * Lance le solveur par propagation de contraintes en parallèle, sur le
+	 * pool commun. En cas d'échec la grille n'est pas modifiée.
+	 */
+	public void tryParallelSolver() {
+		tryParallelSolver(new SolverLimits());
+	}
+	
+	/**
+	 * Lance le solveur parallèle dans les limites limits, sur le pool
+	 * commun. En cas d'échec la grille n'est pas modifiée.
+	 */
+	public SolverOutcome tryParallelSolver(SolverLimits limits) {
+		return tryParallelSolver(limits, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Lance le solveur parallèle dans les limites limits, sur le pool pool.
+	 * En cas d'échec la grille n'est pas modifiée.
+	 */
+	public SolverOutcome tryParallelSolver(SolverLimits limits,
+			ForkJoinPool pool) {
+		Contract.checkCondition(limits != null && pool != null);
+		
+		startSearch("parallel", limits);
+		ParallelSolver engine = new ParallelSolver(game, pool);
+		engine.setLimits(limits);
+		engine.setBranching(branching);
+		if (isSolved = engine.solve()) {
+			applySolution(engine.getSolution());
+		}
+		isStopped = engine.isInterrupted();
+		stats.add(engine.getStats());
+		return endSearch(isSolved);
+	}
+	
+	/**
+	 * Lance le solveur par réduction à SAT. En cas d'échec la grille n'est
+	 * pas modifiée.
+	 */
+	public void trySatSolver() {
+		trySatSolver(new SolverLimits());
+	}
+	
+	/**
+	 * Lance le solveur par réduction à SAT dans les limites limits. En cas
+	 * d'échec la grille n'est pas modifiée.
+	 */
+	public SolverOutcome trySatSolver(SolverLimits limits) {
+		Contract.checkCondition(limits != null);
+		
+		startSearch("sat", limits);
+		SatSolver engine = new SatSolver(game);
+		engine.setLimits(limits);
+		if (isSolved = engine.solve()) {
+			applySolution(engine.getSolution());
+		}
+		isStopped = engine.isInterrupted();
+		stats.add(engine.getStats());
+		return endSearch(isSolved);
+	}
+	
+	/**
+	 * Compte les solutions de la grille, au plus max : la recherche s'arrête
+	 * dès la max-ième, countSolutions(2) == 1 teste donc l'unicité. La
+	 * grille n'est pas modifiée.
+	 */
+	public int countSolutions(int max) {
+		return countSolutions(max, new SolverLimits());
+	}
+	
+	/**
+	 * Compte les solutions de la grille, au plus max, dans les limites
+	 * limits. Si elles sont atteintes avant la max-ième solution, le
+	 * résultat n'est qu'un minorant et getOutcome() vaut TIMEOUT ou
+	 * CANCELLED, même si des solutions ont été trouvées ; sinon il vaut
+	 * SOLVED s'il y a au moins une solution. La grille n'est pas modifiée.
+	 */
+	public int countSolutions(int max, SolverLimits limits) {
+		Contract.checkCondition(max > 0 && limits != null);
+		
+		startSearch("count", limits);
+		PropagationSolver engine = new PropagationSolver(game);
+		engine.setLimits(limits);
+		engine.setBranching(branching);
+		int n = engine.countSolutions(max);
+		isStopped = engine.isInterrupted();
+		stats.add(engine, 0);
+		endSearch(n > 0 && !isStopped);
+		return n;
 	}
 	
 	// OUTILS
 	
+	/**
+	 * Prépare une résolution par le solveur name dans les limites limits et
+	 * prévient les écouteurs.
+	 */
+	private void startSearch(String name, SolverLimits limits) {
+		this.limits = limits;
+		isStopped = false;
+		stats.start(name);
+		for (SolverListener l : listeners) {
+			l.solveStarted(this, name);
+		}
+	}
+	
+	/**
+	 * Termine une résolution, qui a trouvé une solution si found : calcule
+	 * son issue et prévient les écouteurs.
+	 */
+	private SolverOutcome endSearch(boolean found) {
+		if (found) {
+			outcome = SolverOutcome.SOLVED;
+		} else if (isStopped) {
+			outcome = limits.stopOutcome();
+		} else {
+			outcome = SolverOutcome.UNSOLVED;
+		}
+		stats.finish(outcome);
+		for (SolverListener l : listeners) {
+			l.solveFinished(this, stats);
+		}
+		return outcome;
+	}
+	
+	/**
+	 * Compte un nœud de recherche de profondeur depth et teste si les
+	 * limites sont atteintes. Une fois atteintes, la recherche remonte sans
+	 * rien essayer d'autre.
+	 */
+	private boolean isInterrupted(int depth) {
+		if (!isStopped) {
+			isStopped = limits.isReached(stats.nodesNb());
+			stats.nodeVisited(depth);
+		}
+		return isStopped;
+	}
+	
+	/**
+	 * Teste la validité de la grille, en comptant le temps passé.
+	 */
+	private boolean isValidGrid() {
+		long start = System.nanoTime();
+		boolean isValid = game.isValidGrid();
+		stats.validated(System.nanoTime() - start);
+		return isValid;
+	}
+	
+	/**
+	 * Indice de la première île de la grille, ou EdgeTable.NONE si elle n'en
+	 * contient pas.
+	 */
+	private int firstIsland() {
+		return game.nbIslands() > 0 ? 0 : EdgeTable.NONE;
+	}
+	
+	/**
+	 * Construit sur la grille les ponts de la solution sol, donnée par arête
+	 * de la table des arêtes.
+	 */
+	private void applySolution(int[] sol) {
+		for (int e = 0; e < sol.length; e++) {
+			for (int k = game.bridgesOn(e); k < sol[e]; k++) {
+				game.buildBridge(e);
+			}
+		}
+	}
+	
 //--- EASY-SOLVER --------------------------------------------------------------
  	
 	/**
 	 * Solveur de grilles simple utilisant les règles basiques du jeu
 	 */
-	private boolean easySolver(Coord start) {
-		while (start != null) {
+	private boolean easySolver(int start) {
+		while (start != EdgeTable.NONE) {
 			buildEasyBridges(start);
 			start = game.findNextIsland(start);
 		}
-		if (game.isValidGrid()) {
+		if (isValidGrid()) {
 			return true;
 		}
 		return false;
@@ -136,9 +424,9 @@ public class HashiSolver extends Observable {
 	/**
 	 * Construit les ponts pour le easySolver
 	 */
-	private void buildEasyBridges(Coord start) {
+	private void buildEasyBridges(int start) {
 		hasChange = false;
-		int value = game.getIslandAt(start).bridgesToPlace();
+		int value = game.bridgesToPlace(start);
 		int neighborNb = game.accessibleNeighborsNb(start);
 		int bridgesToBuild = 0;
 		if (value % 2 == 0 && value / 2 == neighborNb) {
@@ -148,17 +436,20 @@ public class HashiSolver extends Observable {
 			bridgesToBuild = 1;
 		}
 		if (bridgesToBuild > 0) {
-			for (Direction d : Direction.values()) {
-				Coord neighbor = game.findNeighborFrom(start, d);
-				if (neighbor != null && (value != 1
-						|| game.getIslandAt(neighbor).bridgesNb() != 1)) {
-					MyBridge b = new MyBridge(start, d, neighbor);
-					if (b.canBuildBridge()) {
+			EdgeTable table = game.getEdgeTable();
+			for (Direction d : DIRECTIONS) {
+				int neighbor = game.findNeighborFrom(start, d);
+				if (neighbor != EdgeTable.NONE && (value != 1
+						|| game.bridgesNb(neighbor) != 1)) {
+					int e = table.edgeAt(start, d);
+					if (game.canBuildBridge(e)) {
 						hasChange = true;
-						b.buildBridge();
+						int before = game.bridgesOn(e);
+						game.buildBridge(e);
 						if (bridgesToBuild > 1) {
-							b.buildBridge();
+							game.buildBridge(e);
 						}
+						stats.propagated(game.bridgesOn(e) - before);
 					}
 				}
 			}
@@ -169,45 +460,72 @@ public class HashiSolver extends Observable {
 	
 	/**
 	 * Amélioration du solveur de grilles utilisant uniquement les règles
-	 * basiques du jeu
+	 * basiques du jeu. depth est le nombre de choix déjà faits.
+	 * Quand un pont choisi mène à un échec, la grille est remise dans son
+	 * état d'avant le choix et le couple (arête, nombre de ponts) est
+	 * enregistré comme nogood : les choix suivants de ce sous-arbre ne le
+	 * reprennent pas. Le nogood est retiré en remontant, il ne vaut que sous
+	 * les ponts déjà posés.
+	 * Dès qu'une composante close apparaît (voir
+	 * HashiGrid.hasSealedComponent()), la branche est abandonnée : c'est
+	 * aussi le cas d'une grille complète mais non connexe.
 	 */
-	private boolean upgradeEasySolver(Coord start) {
-		if (game.notConnectedGrid()) {
+	private boolean upgradeEasySolver(int start, int depth) {
+		if (isInterrupted(depth) || game.hasSealedComponent()) {
 			return false;
 		}
+		int mark = game.mark();
 		hasChange = true;
 		while (hasChange) {
 			if (easySolver(start)) {
 				return true;
 			}
+			if (game.hasSealedComponent()) {
+				game.rollback(mark);
+				return false;
+			}
 		}
+		int choiceMark = game.mark();
 		if (createRandomBridge(start)) {
 			MyBridge bridge = lastBridge;
-			if (upgradeEasySolver(start)) {
+			int value = bridge.bridgesNb();
+			if (upgradeEasySolver(start, depth + 1)) {
 				return true;
 			}
-			invalidBridges.add(bridge);
-			bridge.removeBridge();
-			if (upgradeEasySolver(start)) {
-				return true;
+			if (isStopped) {
+				return false;
+			}
+			stats.backtracked();
+			game.rollback(choiceMark);
+			nogoods.add(bridge.edge, value);
+			boolean found = upgradeEasySolver(start, depth + 1);
+			nogoods.remove(bridge.edge, value);
+			if (found || isStopped) {
+				return found;
 			}
 		}
+		game.rollback(mark);
 		return false;
 	}
 	
 	/**
-	 * Construit le premier pont possible en partant de la coordonnée start. Si
-	 * un pont a été construit de cette manière renvoie true, et false sinon.
+	 * Construit le premier pont possible en partant de l'île d'indice start,
+	 * en écartant les nogoods. Si un pont a été construit de cette manière
+	 * renvoie true, et false sinon.
+	 * Hors de l'ordre de lecture, le pont est construit par
+	 * createBestBridge().
 	 */
-	private boolean createRandomBridge(Coord start) {
-		if (start == null) {
+	private boolean createRandomBridge(int start) {
+		if (branching != Branching.READING_ORDER) {
+			return createBestBridge();
+		}
+		if (start == EdgeTable.NONE) {
 			return false;
 		}
-		for (Direction d : Direction.values()) {
-			Coord neighbor = game.findNeighborFrom(start, d);
-			if (neighbor != null) {
-				MyBridge b = new MyBridge(start, d, neighbor);
-				if (!invalidBridges.contains(b) && b.canBuildBridge()) {
+		for (Direction d : DIRECTIONS) {
+			if (game.findNeighborFrom(start, d) != EdgeTable.NONE) {
+				MyBridge b = new MyBridge(game.getEdgeTable().edgeAt(start, d));
+				if (b.canBuildBridge() && !b.isNogood()) {
 					b.buildBridge();
 					lastBridge = b;
 					return true;
@@ -220,47 +538,153 @@ public class HashiSolver extends Observable {
 		return false;
 	}
 	
+	/**
+	 * Construit un pont, en écartant les nogoods, depuis l'île de plus
+	 * petite clé de branchement ayant encore une arête possible, vers la
+	 * voisine de plus petite clé. Renvoie false si aucun pont n'est possible.
+	 */
+	private boolean createBestBridge() {
+		EdgeTable table = game.getEdgeTable();
+		MyBridge best = null;
+		int bestKey = Integer.MAX_VALUE;
+		for (int i = 0; i < game.nbIslands(); i++) {
+			if (!game.isComplete(i)) {
+				int key = islandKey(i);
+				if (key < bestKey) {
+					for (Direction d : orderedDirections(i)) {
+						int e = table.edgeAt(i, d);
+						if (e != EdgeTable.NONE) {
+							MyBridge b = new MyBridge(e);
+							if (b.canBuildBridge() && !b.isNogood()) {
+								best = b;
+								bestKey = key;
+								break;
+							}
+						}
+					}
+				}
+			}
+		}
+		if (best == null) {
+			return false;
+		}
+		best.buildBridge();
+		lastBridge = best;
+		return true;
+	}
+	
+	/**
+	 * Clé de branchement de l'île d'indice i (voir Branching.islandKey) :
+	 * ses options sont les arêtes pouvant recevoir un pont de plus.
+	 */
+	private int islandKey(int i) {
+		EdgeTable table = game.getEdgeTable();
+		int options = 0;
+		for (Direction d : DIRECTIONS) {
+			int e = table.edgeAt(i, d);
+			if (e != EdgeTable.NONE && game.canBuildBridge(e)) {
+				options++;
+			}
+		}
+		return branching.islandKey(game.bridgesToPlace(i), options);
+	}
+	
+	/**
+	 * Directions de l'île d'indice i, par clé de branchement croissante de
+	 * leur voisine, les directions sans voisine en dernier. L'ordre des
+	 * directions est conservé à égalité, et en ordre de lecture.
+	 */
+	private Direction[] orderedDirections(int i) {
+		if (branching == Branching.READING_ORDER) {
+			return DIRECTIONS;
+		}
+		Direction[] dirs = DIRECTIONS.clone();
+		int[] keys = new int[dirs.length];
+		for (int k = 0; k < dirs.length; k++) {
+			int j = game.findNeighborFrom(i, dirs[k]);
+			keys[k] = j == EdgeTable.NONE ? Integer.MAX_VALUE : islandKey(j);
+			// Tri par insertion, stable
+			for (int m = k; m > 0 && keys[m - 1] > keys[m]; m--) {
+				int key = keys[m];
+				keys[m] = keys[m - 1];
+				keys[m - 1] = key;
+				Direction d = dirs[m];
+				dirs[m] = dirs[m - 1];
+				dirs[m - 1] = d;
+			}
+		}
+		return dirs;
+	}
+	
 //--- BACK-TRACKING ------------------------------------------------------------
 
 	/**
-	 * Algorithme de back tracking utilisé pour résoudre la grille
+	 * Algorithme de back tracking utilisé pour résoudre la grille. depth est
+	 * la profondeur de l'appel.
+	 * Le résultat ne dépend que des ponts, des îles bloquées et de start :
+	 * un état déjà exploré sans succès, atteint par un autre ordre de
+	 * choix, est retrouvé dans la table de transposition et abandonné
+	 * aussitôt, de même qu'un état contenant une composante close (voir
+	 * HashiGrid.hasSealedComponent()).
+	 * Les voisines de start sont essayées dans l'ordre de l'heuristique de
+	 * branchement (voir orderedDirections).
 	 */
-	private boolean backTrack(Coord start) {
-		if (game.isValidGrid()) {
+	private boolean backTrack(int start, int depth) {
+		if (isValidGrid()) {
 			return true;
 		}
+		if (isInterrupted(depth)) {
+			return false;
+		}
+		if (game.hasSealedComponent()) {
+			stats.backtracked();
+			return false;
+		}
+		long key = game.stateHash() ^ (start + 1) * START_KEY;
+		if (transpositions.contains(key)) {
+			stats.backtracked();
+			return false;
+		}
+		long nodes = stats.nodesNb();
 		lock(start);
+		EdgeTable table = game.getEdgeTable();
+		Direction[] dirs = orderedDirections(start);
 		for (int i = 0; i < 2; i++) {
-			for (Direction d : Direction.values()) {
-				Coord next = game.findNeighborFrom(start, d);
-				if (next != null && !game.isEvaluated(next)) {
-					MyBridge b = new MyBridge(start, d, next);
-					b.buildBridge();
-					if (backTrack(next)) {
+			for (Direction d : dirs) {
+				int next = game.findNeighborFrom(start, d);
+				if (next != EdgeTable.NONE && !game.isEvaluated(next)) {
+					int e = table.edgeAt(start, d);
+					game.buildBridge(e);
+					if (backTrack(next, depth + 1)) {
 						return true;
 					}
+					if (isStopped) {
+						return false;
+					}
 					if (i > 0) {
-						b.removeBridge();
+						game.removeBridge(e);
 					}
 				}
 			}
 		}
 		unlock(start);
+		stats.backtracked();
+		transpositions.put(key, stats.nodesNb() - nodes);
 		return false;
 	}
 	
 	/**
-	 * Bloque l'île de coordonnée c pour éviter une boucle infini dans
+	 * Bloque l'île d'indice i pour éviter une boucle infini dans
 	 * l'algorithme de back tracking
 	 */
-	private void lock(Coord c) {
-		game.setEvaluated(true, c);
+	private void lock(int i) {
+		game.setEvaluated(true, i);
 	}
 	
 	/**
 	 * Débloque l'île
 	 */
-	private void unlock(Coord c) {
-		game.setEvaluated(false, c);
+	private void unlock(int i) {
+		game.setEvaluated(false, i);
 	}
 }
@@ -0,0 +1,154 @@
+package model;
+
+import java.util.Arrays;
+
+import util.Contract;
+
+/**
+ * Ensemble borné de nogoods : des couples (arête, nombre de ponts) qu'un
+ * choix de la recherche a montrés sans solution. Les couples sont rangés
+ * dans une table de hachage à adressage ouvert (sondage linéaire) sur des
+ * long, sans allocation après la construction ; test, ajout et retrait se
+ * font en temps constant en moyenne.
+ * La capacité est fixée à la construction : la table n'est jamais
+ * agrandie.
+ */
+final class NogoodStore {
+
+	// CONSTANTES
+
+	private static final long EMPTY = -1L;
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	// ATTRIBUTS
+
+	private final long[] keys;
+	private final int shift;
+	private final int maxSize;
+	private int size;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un ensemble vide pouvant contenir maxSize nogoods. La table est
+	 * remplie au plus à moitié.
+	 */
+	NogoodStore(int maxSize) {
+		Contract.checkCondition(maxSize >= 0);
+
+		int capacity = Integer.highestOneBit(Math.max(1, maxSize) * 2 - 1);
+		capacity <<= 1;
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+		this.maxSize = maxSize;
+		size = 0;
+	}
+
+	// REQUETES
+
+	int size() {
+		return size;
+	}
+
+	int maxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Nombre de cases de la table.
+	 */
+	int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Case où commence la suite de sondage du nogood (edge, value).
+	 */
+	int home(int edge, int value) {
+		return slot(key(edge, value));
+	}
+
+	/**
+	 * Teste si porter l'arête edge à value ponts est un nogood.
+	 */
+	boolean contains(int edge, int value) {
+		long key = key(edge, value);
+		for (int i = slot(key); keys[i] != EMPTY; i = next(i)) {
+			if (keys[i] == key) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Ajoute le nogood (edge, value). Renvoie false s'il était déjà présent.
+	 */
+	boolean add(int edge, int value) {
+		long key = key(edge, value);
+		int i = slot(key);
+		while (keys[i] != EMPTY) {
+			if (keys[i] == key) {
+				return false;
+			}
+			i = next(i);
+		}
+		Contract.checkCondition(size < maxSize);
+
+		keys[i] = key;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Retire le nogood (edge, value) s'il est présent. Les clés suivantes de
+	 * la même suite de sondage sont recalées, la table ne garde donc pas de
+	 * marque de suppression.
+	 */
+	void remove(int edge, int value) {
+		long key = key(edge, value);
+		int i = slot(key);
+		while (keys[i] != key) {
+			if (keys[i] == EMPTY) {
+				return;
+			}
+			i = next(i);
+		}
+		size--;
+		int hole = i;
+		for (int j = next(i); keys[j] != EMPTY; j = next(j)) {
+			int home = slot(keys[j]);
+			// La clé en j peut combler le trou si home n'est pas dans ]hole, j]
+			if (((j - home) & (keys.length - 1))
+					>= ((j - hole) & (keys.length - 1))) {
+				keys[hole] = keys[j];
+				hole = j;
+			}
+		}
+		keys[hole] = EMPTY;
+	}
+
+	void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+
+	// OUTILS
+
+	private static long key(int edge, int value) {
+		Contract.checkCondition(edge >= 0 && value >= 0);
+
+		return (long) edge << Integer.SIZE | value;
+	}
+
+	private int slot(long key) {
+		return (int) ((key * GOLDEN) >>> shift);
+	}
+
+	private int next(int i) {
+		return (i + 1) & (keys.length - 1);
+	}
+}
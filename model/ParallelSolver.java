@@ -0,0 +1,231 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import util.Contract;
+
+/**
+ * Solveur parallèle : l'arbre de recherche du PropagationSolver est découpé
+ * en sous-problèmes, chacun possédant sa propre copie des domaines, et
+ * exploré sur un ForkJoinPool. Les premiers niveaux de l'arbre sont découpés
+ * en tâches (le vol de tâches équilibre la charge), les sous-arbres plus
+ * profonds sont résolus séquentiellement. Dès qu'une tâche trouve une
+ * solution, toutes les autres s'arrêtent ; de même quand les limites de la
+ * résolution, partagées par toutes les tâches, sont atteintes.
+ */
+public class ParallelSolver {
+
+	// CONSTANTES
+
+	private static final int MAX_BRIDGES = 2;
+	// Niveaux découpés en plus de log2(parallélisme)
+	private static final int EXTRA_SPLIT_DEPTH = 3;
+
+	// ATTRIBUTS
+
+	private final EdgeTable table;
+	private final int[] initialLo;
+	private final ForkJoinPool pool;
+	private final int splitDepth;
+	private final AtomicBoolean isFound;
+	private final AtomicReference<int[]> solution;
+	private final AtomicBoolean isStopped;
+	private final SolverStats stats;
+	private SolverLimits limits;
+	private Branching branching;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un solveur parallèle pour la grille grid, utilisant le pool commun.
+	 */
+	public ParallelSolver(HashiGrid grid) {
+		this(grid, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Crée un solveur parallèle pour la grille grid, utilisant le pool pool.
+	 * Les ponts déjà construits sur la grille sont conservés.
+	 */
+	public ParallelSolver(HashiGrid grid, ForkJoinPool pool) {
+		Contract.checkCondition(grid != null && pool != null);
+
+		table = grid.getEdgeTable();
+		initialLo = new int[table.nbEdges()];
+		for (int e = 0; e < table.nbEdges(); e++) {
+			initialLo[e] = grid.bridgesOn(e);
+		}
+		this.pool = pool;
+		splitDepth = 32 - Integer.numberOfLeadingZeros(pool.getParallelism())
+				+ EXTRA_SPLIT_DEPTH;
+		isFound = new AtomicBoolean();
+		solution = new AtomicReference<int[]>();
+		isStopped = new AtomicBoolean();
+		stats = new SolverStats();
+		branching = Branching.READING_ORDER;
+	}
+
+	// REQUETES
+
+	/**
+	 * Nombre de ponts de chaque arête dans la solution trouvée, ou null.
+	 */
+	public int[] getSolution() {
+		int[] sol = solution.get();
+		return sol == null ? null : sol.clone();
+	}
+	
+	/**
+	 * Teste si la dernière recherche a été arrêtée par ses limites avant
+	 * d'avoir trouvé une solution ou parcouru tout l'arbre.
+	 */
+	public boolean isInterrupted() {
+		return solution.get() == null && isStopped.get();
+	}
+
+	/**
+	 * Compteurs de la dernière recherche, cumulés sur toutes les tâches.
+	 * Chaque découpage compte pour un nœud.
+	 */
+	public SolverStats getStats() {
+		return stats;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Indique les limites de la recherche. Si limits == null, la recherche
+	 * n'est pas limitée.
+	 */
+	public void setLimits(SolverLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Indique l'heuristique de branchement, suivie aussi bien pour découper
+	 * l'arbre que par les recherches séquentielles des tâches.
+	 */
+	public void setBranching(Branching b) {
+		Contract.checkCondition(b != null);
+
+		branching = b;
+	}
+
+	/**
+	 * Cherche une solution. Renvoie true si la grille est résolue, la
+	 * solution est alors disponible par getSolution().
+	 */
+	public boolean solve() {
+		isFound.set(false);
+		solution.set(null);
+		isStopped.set(false);
+		stats.start("parallel");
+		int[] hi = new int[table.nbEdges()];
+		for (int e = 0; e < hi.length; e++) {
+			hi[e] = MAX_BRIDGES;
+		}
+		pool.invoke(new SearchTask(initialLo, hi, 0));
+		boolean isSolved = solution.get() != null;
+		stats.finish(isSolved ? SolverOutcome.SOLVED
+				: isInterrupted() ? limits.stopOutcome()
+				: SolverOutcome.UNSOLVED);
+		return isSolved;
+	}
+
+	// OUTILS
+
+	/**
+	 * Enregistre la solution sol si aucune autre ne l'a été, et arrête les
+	 * autres tâches.
+	 */
+	private void publish(int[] sol) {
+		if (solution.compareAndSet(null, sol)) {
+			isFound.set(true);
+		}
+	}
+
+	/**
+	 * Ajoute aux statistiques les compteurs de engine, utilisé à la
+	 * profondeur depth de l'arbre.
+	 */
+	private void record(PropagationSolver engine, int depth) {
+		synchronized (stats) {
+			stats.add(engine, depth);
+		}
+	}
+
+	/**
+	 * Tâche explorant le sous-arbre dont les domaines initiaux sont [lo, hi].
+	 */
+	@SuppressWarnings("serial")
+	private class SearchTask extends RecursiveAction {
+
+		private final int[] lo;
+		private final int[] hi;
+		private final int depth;
+
+		private SearchTask(int[] lo, int[] hi, int depth) {
+			this.lo = lo;
+			this.hi = hi;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			if (isFound.get()) {
+				return;
+			}
+			if (limits != null && limits.isReached(0)) {
+				isStopped.set(true);
+				return;
+			}
+			PropagationSolver engine = new PropagationSolver(table, lo, hi);
+			engine.setStopFlag(isFound);
+			engine.setLimits(limits);
+			engine.setBranching(branching);
+			if (depth >= splitDepth) {
+				boolean isSolved = engine.solve();
+				record(engine, depth);
+				if (isSolved) {
+					publish(engine.getSolution());
+				} else if (engine.isInterrupted() && !isFound.get()) {
+					isStopped.set(true);
+				}
+				return;
+			}
+			boolean isConsistent = engine.propagateRoot();
+			record(engine, depth);
+			if (!isConsistent) {
+				return;
+			}
+			int e = engine.branchingEdge();
+			if (e == EdgeTable.NONE) {
+				if (engine.isConnected()) {
+					publish(engine.lowerBounds());
+				}
+				return;
+			}
+			synchronized (stats) {
+				stats.nodeVisited(depth + 1);
+			}
+			int[] subLo = engine.lowerBounds();
+			int[] subHi = engine.upperBounds();
+			List<SearchTask> children = new ArrayList<SearchTask>();
+			for (int order = engine.branchingOrder(e); order != 0;
+					order = Branching.rest(order)) {
+				int v = Branching.first(order);
+				int[] childLo = subLo.clone();
+				int[] childHi = subHi.clone();
+				childLo[e] = v;
+				childHi[e] = v;
+				children.add(new SearchTask(childLo, childHi, depth + 1));
+			}
+			invokeAll(children);
+		}
+	}
+}
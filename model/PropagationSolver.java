@@ -0,0 +1,639 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import util.Contract;
+
+/**
+ * Solveur par propagation de contraintes.
+ * Chaque pont candidat (arête de l'EdgeTable) possède un domaine [lo, hi]
+ * inclus dans {0, 1, 2}. Chaque île impose que la somme des ponts de ses
+ * arêtes soit égale à sa valeur, et deux arêtes qui se croisent ne peuvent
+ * pas porter de pont en même temps. Les domaines sont réduits jusqu'à un
+ * point fixe avant chaque choix ; la recherche est itérative et les
+ * modifications de domaines sont annulées grâce à une pile (trail).
+ * Les arêtes dont la borne inférieure est non nulle forment des composantes
+ * d'îles déjà reliées, tenues à jour par un Graph dont le poids de chaque
+ * île est sa demande restante : une composante close, de demande nulle
+ * mais ne contenant pas toutes les îles, est une contradiction, détectée
+ * dès que la borne qui la ferme est posée.
+ * L'arête sur laquelle brancher et l'ordre d'essai de ses valeurs sont
+ * fixés par une heuristique (voir Branching), l'ordre de lecture par défaut.
+ */
+public class PropagationSolver {
+
+	// CONSTANTES
+
+	private static final int MAX_BRIDGES = 2;
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	// ATTRIBUTS
+
+	private final EdgeTable table;
+	private final int nbEdges;
+	private final int nbIslands;
+	private final int[] lo;
+	private final int[] hi;
+	// Îles reliées par les arêtes de borne inférieure non nulle, de poids
+	// leur valeur moins la somme de ces bornes
+	private Graph bound;
+
+	// Trail : arête et ancien domaine
+	private final int[] trailEdge;
+	private final int[] trailLo;
+	private final int[] trailHi;
+	private int trailTop;
+
+	// File des îles à réviser
+	private final int[] queue;
+	private final boolean[] inQueue;
+	private int queueHead;
+	private int queueSize;
+
+	// Pile de choix : arête, position du trail et valeurs restant à essayer
+	// (voir Branching.order)
+	private final int[] frameEdge;
+	private final int[] frameMark;
+	private final int[] frameValues;
+	private int depth;
+	private Branching branching;
+
+	private int[] solution;
+	private int solutionsNb;
+	private long nodesNb;
+	private long backtracksNb;
+	private long propagationsNb;
+	private int maxDepth;
+	private long validationNanos;
+	private AtomicBoolean stopFlag;
+	private SolverLimits limits;
+	private boolean isInterrupted;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un solveur pour la grille grid. Les ponts déjà construits sur la
+	 * grille sont conservés comme bornes inférieures.
+	 */
+	public PropagationSolver(HashiGrid grid) {
+		this(grid.getEdgeTable());
+
+		for (int e = 0; e < nbEdges; e++) {
+			lo[e] = grid.bridgesOn(e);
+		}
+	}
+
+	/**
+	 * Crée un solveur pour la table table dont les domaines initiaux sont
+	 * [lo[e], hi[e]]. Les tableaux sont copiés.
+	 */
+	PropagationSolver(EdgeTable table, int[] lo, int[] hi) {
+		this(table);
+
+		Contract.checkCondition(lo.length == nbEdges && hi.length == nbEdges);
+		System.arraycopy(lo, 0, this.lo, 0, nbEdges);
+		System.arraycopy(hi, 0, this.hi, 0, nbEdges);
+	}
+
+	/**
+	 * Crée un solveur pour la table table, sans aucun pont placé.
+	 */
+	public PropagationSolver(EdgeTable table) {
+		Contract.checkCondition(table != null);
+
+		this.table = table;
+		nbEdges = table.nbEdges();
+		nbIslands = table.nbIslands();
+		lo = new int[nbEdges];
+		hi = new int[nbEdges];
+		for (int e = 0; e < nbEdges; e++) {
+			hi[e] = MAX_BRIDGES;
+		}
+		// Chaque arête ne peut être réduite que deux fois sur un chemin
+		trailEdge = new int[2 * nbEdges + 1];
+		trailLo = new int[2 * nbEdges + 1];
+		trailHi = new int[2 * nbEdges + 1];
+		queue = new int[nbIslands];
+		inQueue = new boolean[nbIslands];
+		frameEdge = new int[nbEdges + 1];
+		frameMark = new int[nbEdges + 1];
+		frameValues = new int[nbEdges + 1];
+		branching = Branching.READING_ORDER;
+	}
+
+	// REQUETES
+
+	public EdgeTable getEdgeTable() {
+		return table;
+	}
+
+	/**
+	 * Nombre de ponts de chaque arête dans la solution trouvée, ou null si
+	 * solve() n'a pas trouvé de solution.
+	 */
+	public int[] getSolution() {
+		return solution == null ? null : solution.clone();
+	}
+
+	/**
+	 * Nombre de choix effectués par la dernière recherche.
+	 */
+	public long nodesNb() {
+		return nodesNb;
+	}
+
+	/**
+	 * Nombre de contradictions et de grilles complètes non connexes
+	 * rencontrées par la dernière recherche.
+	 */
+	public long backtracksNb() {
+		return backtracksNb;
+	}
+
+	/**
+	 * Nombre de révisions d'îles faites par la dernière recherche.
+	 */
+	public long propagationsNb() {
+		return propagationsNb;
+	}
+
+	/**
+	 * Profondeur maximale de la pile de choix lors de la dernière recherche.
+	 */
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Temps passé par la dernière recherche à tester la connexité.
+	 */
+	public long validationNanos() {
+		return validationNanos;
+	}
+	
+	/**
+	 * Teste si la dernière recherche a été arrêtée par le drapeau d'arrêt ou
+	 * par les limites, avant d'avoir trouvé une solution ou parcouru tout
+	 * l'arbre.
+	 */
+	public boolean isInterrupted() {
+		return isInterrupted;
+	}
+
+	/**
+	 * Copie des bornes inférieures des domaines.
+	 */
+	int[] lowerBounds() {
+		return lo.clone();
+	}
+
+	/**
+	 * Copie des bornes supérieures des domaines.
+	 */
+	int[] upperBounds() {
+		return hi.clone();
+	}
+
+	/**
+	 * Arête sur laquelle la recherche brancherait dans l'état courant, ou
+	 * NONE si toutes les arêtes sont fixées.
+	 */
+	int branchingEdge() {
+		return selectEdge();
+	}
+
+	/**
+	 * Ordre d'essai des valeurs de l'arête e, codé comme par
+	 * Branching.order.
+	 */
+	int branchingOrder(int e) {
+		return valueOrder(e);
+	}
+
+	/**
+	 * Teste si les arêtes portant au moins un pont relient toutes les îles.
+	 */
+	boolean isConnected() {
+		int[] parent = new int[nbIslands];
+		for (int i = 0; i < nbIslands; i++) {
+			parent[i] = i;
+		}
+		int components = nbIslands;
+		for (int e = 0; e < nbEdges; e++) {
+			if (lo[e] > 0) {
+				int a = root(parent, table.edgeFrom(e));
+				int b = root(parent, table.edgeTo(e));
+				if (a != b) {
+					parent[a] = b;
+					components--;
+				}
+			}
+		}
+		return components <= 1;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Indique un drapeau partagé : dès qu'il passe à true, solve() abandonne
+	 * et renvoie false.
+	 */
+	public void setStopFlag(AtomicBoolean flag) {
+		stopFlag = flag;
+	}
+
+	/**
+	 * Indique les limites de la recherche, consultées avant chaque choix.
+	 * Si limits == null, la recherche n'est pas limitée.
+	 */
+	public void setLimits(SolverLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Indique l'heuristique de branchement des recherches suivantes.
+	 */
+	public void setBranching(Branching b) {
+		Contract.checkCondition(b != null);
+
+		branching = b;
+	}
+
+	/**
+	 * Restaure les domaines initiaux et propage les contraintes jusqu'au
+	 * point fixe, sans brancher. Renvoie false si une contradiction apparaît.
+	 */
+	boolean propagateRoot() {
+		undo(0);
+		initBound();
+		return propagateAll();
+	}
+
+	/**
+	 * Cherche une solution. Renvoie true si la grille est résolue, la
+	 * solution est alors disponible par getSolution().
+	 */
+	public boolean solve() {
+		return search(1) > 0;
+	}
+
+	/**
+	 * Compte les solutions de la grille, en s'arrêtant dès que max ont été
+	 * trouvées : countSolutions(2) == 1 teste l'unicité de la solution
+	 * sans parcourir tout l'arbre quand elle n'est pas unique. Les
+	 * solutions sont énumérées par la même recherche que solve(), les
+	 * domaines réduits avant un choix servant donc à toutes ses branches.
+	 * La première solution est disponible par getSolution(). Si la
+	 * recherche est interrompue, le résultat n'est qu'un minorant.
+	 */
+	public int countSolutions(int max) {
+		Contract.checkCondition(max > 0);
+
+		return search(max);
+	}
+
+	// OUTILS
+
+	/**
+	 * Parcourt l'arbre de recherche jusqu'à trouver max solutions et renvoie
+	 * le nombre de solutions trouvées.
+	 */
+	private int search(int max) {
+		undo(0);
+		initBound();
+		solution = null;
+		solutionsNb = 0;
+		nodesNb = 0;
+		backtracksNb = 0;
+		propagationsNb = 0;
+		maxDepth = 0;
+		validationNanos = 0;
+		isInterrupted = false;
+		depth = 0;
+		boolean ok = propagateAll();
+		while (true) {
+			if (ok) {
+				int e = selectEdge();
+				if (e == EdgeTable.NONE) {
+					long start = System.nanoTime();
+					boolean connected = isConnected();
+					validationNanos += System.nanoTime() - start;
+					if (connected) {
+						if (solutionsNb == 0) {
+							solution = lo.clone();
+						}
+						solutionsNb++;
+						if (solutionsNb >= max) {
+							return solutionsNb;
+						}
+					} else {
+						backtracksNb++;
+					}
+				} else {
+					frameEdge[depth] = e;
+					frameMark[depth] = trailTop;
+					frameValues[depth] = valueOrder(e);
+					depth++;
+					maxDepth = Math.max(maxDepth, depth);
+				}
+			} else {
+				backtracksNb++;
+			}
+			// Dépile les choix épuisés
+			while (depth > 0 && frameValues[depth - 1] == 0) {
+				depth--;
+				undo(frameMark[depth]);
+			}
+			if (depth == 0) {
+				return solutionsNb;
+			}
+			if (stopFlag != null && stopFlag.get()
+					|| limits != null && limits.isReached(nodesNb)) {
+				undo(0);
+				isInterrupted = true;
+				return solutionsNb;
+			}
+			int f = depth - 1;
+			undo(frameMark[f]);
+			int e = frameEdge[f];
+			int v = Branching.first(frameValues[f]);
+			frameValues[f] = Branching.rest(frameValues[f]);
+			nodesNb++;
+			ok = restrict(e, v, v) && propagate();
+		}
+	}
+
+	/**
+	 * Construit bound à partir des bornes inférieures courantes.
+	 */
+	private void initBound() {
+		bound = new Graph(Math.max(1, nbIslands));
+		for (int i = 0; i < nbIslands; i++) {
+			bound.addWeight(i, table.islandValue(i));
+		}
+		for (int e = 0; e < nbEdges; e++) {
+			if (lo[e] > 0) {
+				raiseBound(e, 0, lo[e]);
+			}
+		}
+	}
+
+	/**
+	 * Met toutes les îles en file et applique les exclusions dues aux ponts
+	 * déjà présents, puis propage.
+	 */
+	private boolean propagateAll() {
+		for (int e = 0; e < nbEdges; e++) {
+			if (lo[e] > 0 && !excludeCrossings(e)) {
+				return false;
+			}
+		}
+		for (int i = 0; i < nbIslands; i++) {
+			enqueue(i);
+		}
+		return propagate();
+	}
+
+	/**
+	 * Révise les îles en file jusqu'au point fixe. Renvoie false si une
+	 * contradiction est trouvée.
+	 */
+	private boolean propagate() {
+		while (queueSize > 0) {
+			int i = queue[queueHead];
+			queueHead = (queueHead + 1) % nbIslands;
+			queueSize--;
+			inQueue[i] = false;
+			propagationsNb++;
+			if (!revise(i)) {
+				clearQueue();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Applique la contrainte de somme de l'île i : chaque arête doit pouvoir
+	 * être complétée par les autres pour atteindre la valeur de l'île.
+	 */
+	private boolean revise(int i) {
+		int value = table.islandValue(i);
+		int sumLo = 0;
+		int sumHi = 0;
+		for (Direction d : DIRECTIONS) {
+			int e = table.edgeAt(i, d);
+			if (e != EdgeTable.NONE) {
+				sumLo += lo[e];
+				sumHi += hi[e];
+			}
+		}
+		if (sumLo > value || sumHi < value) {
+			return false;
+		}
+		for (Direction d : DIRECTIONS) {
+			int e = table.edgeAt(i, d);
+			if (e != EdgeTable.NONE) {
+				int newLo = Math.max(lo[e], value - (sumHi - hi[e]));
+				int newHi = Math.min(hi[e], value - (sumLo - lo[e]));
+				if (newLo != lo[e] || newHi != hi[e]) {
+					// Les sommes changent : l'île est remise en file
+					if (!restrict(e, newLo, newHi)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Réduit le domaine de e à [newLo, newHi] (intersecté avec l'actuel) et
+	 * met ses extrémités en file. Renvoie false si le domaine devient vide.
+	 */
+	private boolean restrict(int e, int newLo, int newHi) {
+		newLo = Math.max(newLo, lo[e]);
+		newHi = Math.min(newHi, hi[e]);
+		if (newLo > newHi) {
+			return false;
+		}
+		if (newLo == lo[e] && newHi == hi[e]) {
+			return true;
+		}
+		boolean activated = lo[e] == 0 && newLo > 0;
+		trailEdge[trailTop] = e;
+		trailLo[trailTop] = lo[e];
+		trailHi[trailTop] = hi[e];
+		trailTop++;
+		int oldLo = lo[e];
+		lo[e] = newLo;
+		hi[e] = newHi;
+		enqueue(table.edgeFrom(e));
+		enqueue(table.edgeTo(e));
+		if (newLo > oldLo && raiseBound(e, oldLo, newLo)) {
+			return false;
+		}
+		return !activated || excludeCrossings(e);
+	}
+
+	/**
+	 * Reporte dans bound le passage de la borne inférieure de e de oldLo à
+	 * newLo > oldLo, et renvoie true si la composante de e devient close.
+	 */
+	private boolean raiseBound(int e, int oldLo, int newLo) {
+		int i = table.edgeFrom(e);
+		int j = table.edgeTo(e);
+		bound.addWeight(i, oldLo - newLo);
+		bound.addWeight(j, oldLo - newLo);
+		if (oldLo == 0) {
+			bound.addEdge(i, j);
+			bound.addEdge(j, i);
+		}
+		return bound.getWeight(i) == 0 && bound.getWeight(j) == 0
+				&& bound.isWeightless(i) && bound.componentSize(i) < nbIslands;
+	}
+
+	/**
+	 * L'arête e porte au moins un pont : les arêtes qui la croisent n'en
+	 * porteront aucun.
+	 */
+	private boolean excludeCrossings(int e) {
+		for (int k = 0; k < table.crossingsNb(e); k++) {
+			if (!restrict(table.crossing(e, k), 0, 0)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Annule les modifications de domaines jusqu'à la position mark du trail.
+	 */
+	private void undo(int mark) {
+		while (trailTop > mark) {
+			trailTop--;
+			int e = trailEdge[trailTop];
+			if (lo[e] > trailLo[trailTop]) {
+				int i = table.edgeFrom(e);
+				int j = table.edgeTo(e);
+				if (trailLo[trailTop] == 0) {
+					bound.removeEdge(i, j);
+					bound.removeEdge(j, i);
+				}
+				bound.addWeight(i, lo[e] - trailLo[trailTop]);
+				bound.addWeight(j, lo[e] - trailLo[trailTop]);
+			}
+			lo[e] = trailLo[trailTop];
+			hi[e] = trailHi[trailTop];
+		}
+	}
+
+	/**
+	 * Choisit la prochaine arête non fixée, ou NONE si toutes le sont.
+	 * En ordre de lecture, quand le dernier choix a porté sur l'arête f,
+	 * toutes les arêtes d'indice inférieur étaient déjà fixées et le restent
+	 * dans les branches de ce choix : la recherche reprend à f, et un chemin
+	 * de la racine à une feuille ne parcourt les arêtes qu'une fois.
+	 * Sinon l'arête choisie est celle dont l'extrémité la plus contrainte a
+	 * la plus petite clé, à égalité celle de plus petit domaine.
+	 */
+	private int selectEdge() {
+		if (branching == Branching.READING_ORDER) {
+			for (int e = depth > 0 ? frameEdge[depth - 1] : 0; e < nbEdges;
+					e++) {
+				if (lo[e] < hi[e]) {
+					return e;
+				}
+			}
+			return EdgeTable.NONE;
+		}
+		int best = EdgeTable.NONE;
+		int bestKey = Integer.MAX_VALUE;
+		for (int e = 0; e < nbEdges; e++) {
+			if (lo[e] < hi[e]) {
+				int key = Math.min(islandKey(table.edgeFrom(e)),
+						islandKey(table.edgeTo(e))) * (MAX_BRIDGES + 1)
+						+ hi[e] - lo[e];
+				if (key < bestKey) {
+					best = e;
+					bestKey = key;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Clé de branchement de l'île i (voir Branching.islandKey).
+	 */
+	private int islandKey(int i) {
+		return branching.islandKey(demand(i), options(i));
+	}
+
+	/**
+	 * Ponts restant à placer sur l'île i au-delà des bornes inférieures.
+	 */
+	private int demand(int i) {
+		int n = table.islandValue(i);
+		for (Direction d : DIRECTIONS) {
+			int e = table.edgeAt(i, d);
+			if (e != EdgeTable.NONE) {
+				n -= lo[e];
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Nombre d'arêtes non fixées de l'île i.
+	 */
+	private int options(int i) {
+		int n = 0;
+		for (Direction d : DIRECTIONS) {
+			int e = table.edgeAt(i, d);
+			if (e != EdgeTable.NONE && lo[e] < hi[e]) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Ordre d'essai des valeurs de l'arête non fixée e, d'après son
+	 * extrémité la plus contrainte.
+	 */
+	private int valueOrder(int e) {
+		if (branching == Branching.READING_ORDER) {
+			return branching.order(lo[e], hi[e], 0, 0);
+		}
+		int i = table.edgeFrom(e);
+		if (islandKey(table.edgeTo(e)) < islandKey(i)) {
+			i = table.edgeTo(e);
+		}
+		return branching.order(lo[e], hi[e], demand(i), options(i));
+	}
+
+	private static int root(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private void enqueue(int i) {
+		if (!inQueue[i]) {
+			inQueue[i] = true;
+			queue[(queueHead + queueSize) % nbIslands] = i;
+			queueSize++;
+		}
+	}
+
+	private void clearQueue() {
+		while (queueSize > 0) {
+			inQueue[queue[queueHead]] = false;
+			queueHead = (queueHead + 1) % nbIslands;
+			queueSize--;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * Types (énumération) des niveaux de règles de déduction du
+ * DifficultyGrader, du plus simple au plus difficile. Tous appliquent la
+ * même règle de comptage à une île : un pont est forcé sur une arête quand
+ * les autres arêtes de l'île ne peuvent pas recevoir toute sa demande. Ils
+ * ne diffèrent que par la capacité prêtée à chaque arête.
+ */
+public enum RuleTier {
+	/**
+	 * Règle du solveur basique : une arête libre peut recevoir deux ponts,
+	 * moins ceux qu'elle porte déjà.
+	 */
+	EASY,
+	/**
+	 * La capacité d'une arête est aussi bornée par la demande de l'île
+	 * voisine.
+	 */
+	CAPACITY,
+	/**
+	 * La capacité d'une arête exclut aussi les ponts qui fermeraient une
+	 * composante ne contenant pas toutes les îles.
+	 */
+	ISOLATION
+}
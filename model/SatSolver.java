@@ -0,0 +1,395 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import util.Contract;
+
+/**
+ * Solveur par réduction à SAT, résolu par un CdclEngine.
+ * Chaque arête e de l'EdgeTable donne deux variables : "au moins un pont"
+ * (2e + 1) et "deux ponts" (2e + 2), la seconde impliquant la première.
+ * La contrainte de somme de chaque île est encodée par tous ses impliqués
+ * premiers (au plus 40 clauses par île) : la propagation unitaire en déduit
+ * alors tout ce que la contrainte implique, au lieu d'attendre que presque
+ * toutes les arêtes de l'île soient affectées. Deux arêtes qui se croisent
+ * ne peuvent pas porter de pont ensemble.
+ * La connexité n'est pas encodée : quand le modèle trouvé n'est pas
+ * connexe, on ajoute pour chacune de ses composantes une coupe (au moins une
+ * des arêtes qui en sortent porte un pont) et on relance le moteur, qui
+ * conserve ce qu'il a appris.
+ */
+public class SatSolver {
+
+	// CONSTANTES
+
+	private static final int MAX_BRIDGES = 2;
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final int[][][][] SUM_CLAUSES = sumClauses();
+
+	// ATTRIBUTS
+
+	private final EdgeTable table;
+	private final int[] initialLo;
+	private final SolverStats stats;
+	private SolverLimits limits;
+	private int[] solution;
+	private boolean isInterrupted;
+	private int cutsNb;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée un solveur pour la grille grid. Les ponts déjà construits sur la
+	 * grille sont conservés.
+	 */
+	public SatSolver(HashiGrid grid) {
+		Contract.checkCondition(grid != null);
+
+		table = grid.getEdgeTable();
+		initialLo = new int[table.nbEdges()];
+		for (int e = 0; e < table.nbEdges(); e++) {
+			initialLo[e] = grid.bridgesOn(e);
+		}
+		stats = new SolverStats();
+	}
+
+	// REQUETES
+
+	/**
+	 * Nombre de ponts de chaque arête dans la solution trouvée, ou null si
+	 * solve() n'a pas trouvé de solution.
+	 */
+	public int[] getSolution() {
+		return solution == null ? null : solution.clone();
+	}
+
+	/**
+	 * Teste si la dernière recherche a été arrêtée par ses limites.
+	 */
+	public boolean isInterrupted() {
+		return isInterrupted;
+	}
+
+	/**
+	 * Nombre de coupes de connexité ajoutées par la dernière recherche.
+	 */
+	public int cutsNb() {
+		return cutsNb;
+	}
+
+	/**
+	 * Compteurs de la dernière recherche : décisions (nœuds), conflits
+	 * (retours arrière), littéraux propagés, niveau de décision maximal et
+	 * temps passé à tester la connexité des modèles.
+	 */
+	public SolverStats getStats() {
+		return stats;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Indique les limites de la recherche. Si limits == null, la recherche
+	 * n'est pas limitée.
+	 */
+	public void setLimits(SolverLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Cherche une solution. Renvoie true si la grille est résolue, la
+	 * solution est alors disponible par getSolution().
+	 */
+	public boolean solve() {
+		stats.start("sat");
+		solution = null;
+		isInterrupted = false;
+		cutsNb = 0;
+		CdclEngine engine = encode();
+		long validationNanos = 0;
+		SolverOutcome outcome;
+		while ((outcome = engine.solve(limits)) == SolverOutcome.SOLVED) {
+			int[] sol = new int[table.nbEdges()];
+			for (int e = 0; e < sol.length; e++) {
+				sol[e] = engine.modelValue(twoVar(e)) ? 2
+						: engine.modelValue(oneVar(e)) ? 1 : 0;
+			}
+			long start = System.nanoTime();
+			int[] component = components(sol);
+			validationNanos += System.nanoTime() - start;
+			if (!addCuts(engine, component)) {
+				solution = sol;
+				break;
+			}
+		}
+		isInterrupted = outcome == SolverOutcome.TIMEOUT
+				|| outcome == SolverOutcome.CANCELLED;
+		stats.add(engine, validationNanos);
+		stats.finish(outcome);
+		return solution != null;
+	}
+
+	// OUTILS
+
+	/**
+	 * Variable "au moins un pont sur e".
+	 */
+	private static int oneVar(int e) {
+		return 2 * e + 1;
+	}
+
+	/**
+	 * Variable "deux ponts sur e".
+	 */
+	private static int twoVar(int e) {
+		return 2 * e + 2;
+	}
+
+	/**
+	 * Construit le moteur et les clauses de la grille, sans la connexité.
+	 */
+	private CdclEngine encode() {
+		CdclEngine engine = new CdclEngine();
+		for (int e = 0; e < table.nbEdges(); e++) {
+			engine.newVariable();
+			engine.newVariable();
+		}
+		for (int e = 0; e < table.nbEdges(); e++) {
+			engine.addClause(-twoVar(e), oneVar(e));
+			if (initialLo[e] > 0) {
+				engine.addClause(oneVar(e));
+			}
+			if (initialLo[e] > 1) {
+				engine.addClause(twoVar(e));
+			}
+			for (int k = 0; k < table.crossingsNb(e); k++) {
+				int f = table.crossing(e, k);
+				if (e < f) {
+					engine.addClause(-oneVar(e), -oneVar(f));
+				}
+			}
+		}
+		int[] incident = new int[DIRECTIONS.length];
+		for (int i = 0; i < table.nbIslands(); i++) {
+			int n = 0;
+			for (Direction d : DIRECTIONS) {
+				int e = table.edgeAt(i, d);
+				if (e != EdgeTable.NONE) {
+					incident[n++] = e;
+				}
+			}
+			addSumClauses(engine, table.islandValue(i), incident, n);
+		}
+		return engine;
+	}
+
+	/**
+	 * Impose que la somme des ponts des arêtes incident[0..n[ vaille value,
+	 * par les clauses de SUM_CLAUSES[n][value].
+	 */
+	private void addSumClauses(CdclEngine engine, int value, int[] incident,
+			int n) {
+		for (int[] local : SUM_CLAUSES[n][value]) {
+			int[] clause = new int[local.length];
+			for (int k = 0; k < local.length; k++) {
+				int l = local[k];
+				int e = incident[l >> 2];
+				int v = (l & 2) == 0 ? oneVar(e) : twoVar(e);
+				clause[k] = (l & 1) == 0 ? v : -v;
+			}
+			engine.addClause(clause);
+		}
+	}
+
+	/**
+	 * Clauses des contraintes de somme : SUM_CLAUSES[n][value] pour une île
+	 * de valeur value ayant n arêtes. Les valeurs trop grandes pour n
+	 * arêtes donnent la clause vide.
+	 */
+	private static int[][][][] sumClauses() {
+		int maxValue = MAX_BRIDGES * DIRECTIONS.length;
+		int[][][][] t = new int[DIRECTIONS.length + 1][maxValue + 1][][];
+		for (int n = 0; n <= DIRECTIONS.length; n++) {
+			for (int value = 0; value <= maxValue; value++) {
+				t[n][value] = primeImplicates(n, value);
+			}
+		}
+		return t;
+	}
+
+	/**
+	 * Impliqués premiers de la contrainte "la somme des n arêtes vaut value",
+	 * sauf les implications "deux ponts implique au moins un" déjà posées.
+	 * Les variables locales sont 2j (au moins un pont sur la j-ième arête)
+	 * et 2j + 1 (deux ponts) ; un littéral local est 2 * variable + signe.
+	 * Les candidats sont les 3^(2n) clauses sur ces variables : c'est
+	 * l'affaire de quelques millisecondes, une fois pour toutes.
+	 */
+	private static int[][] primeImplicates(int n, int value) {
+		int nbVars = 2 * n;
+		// Affectations (bit v = variable v vraie) satisfaisant la contrainte
+		int[] allowed = new int[pow(MAX_BRIDGES + 1, n)];
+		int nbAllowed = 0;
+		for (int c = 0; c < allowed.length; c++) {
+			int sum = 0;
+			int a = 0;
+			for (int j = 0, r = c; j < n; j++, r /= MAX_BRIDGES + 1) {
+				int x = r % (MAX_BRIDGES + 1);
+				sum += x;
+				a |= (x >= 1 ? 1 << 2 * j : 0) | (x >= 2 ? 2 << 2 * j : 0);
+			}
+			if (sum == value) {
+				allowed[nbAllowed++] = a;
+			}
+		}
+		List<int[]> result = new ArrayList<int[]>();
+		int nbClauses = pow(3, nbVars);
+		for (int c = 0; c < nbClauses; c++) {
+			int pos = 0;
+			int neg = 0;
+			for (int v = 0, r = c; v < nbVars; v++, r /= 3) {
+				pos |= r % 3 == 1 ? 1 << v : 0;
+				neg |= r % 3 == 2 ? 1 << v : 0;
+			}
+			if (isImplicate(allowed, nbAllowed, pos, neg)
+					&& isPrime(allowed, nbAllowed, pos, neg)
+					&& !isImplication(pos, neg)) {
+				int[] clause = new int[Integer.bitCount(pos | neg)];
+				int k = 0;
+				for (int v = 0; v < nbVars; v++) {
+					if ((pos >> v & 1) != 0) {
+						clause[k++] = 2 * v;
+					} else if ((neg >> v & 1) != 0) {
+						clause[k++] = 2 * v + 1;
+					}
+				}
+				result.add(clause);
+			}
+		}
+		return result.toArray(new int[result.size()][]);
+	}
+
+	private static boolean isImplicate(int[] allowed, int nbAllowed, int pos,
+			int neg) {
+		for (int k = 0; k < nbAllowed; k++) {
+			if ((allowed[k] & pos) == 0 && (~allowed[k] & neg) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isPrime(int[] allowed, int nbAllowed, int pos,
+			int neg) {
+		for (int b = pos; b != 0; b &= b - 1) {
+			if (isImplicate(allowed, nbAllowed, pos & ~Integer.lowestOneBit(b),
+					neg)) {
+				return false;
+			}
+		}
+		for (int b = neg; b != 0; b &= b - 1) {
+			if (isImplicate(allowed, nbAllowed, pos,
+					neg & ~Integer.lowestOneBit(b))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Teste si la clause est "deux ponts implique au moins un" pour une
+	 * arête, déjà ajoutée par encode().
+	 */
+	private static boolean isImplication(int pos, int neg) {
+		return Integer.bitCount(pos) == 1 && neg == pos << 1
+				&& Integer.numberOfTrailingZeros(pos) % 2 == 0;
+	}
+
+	private static int pow(int a, int b) {
+		int r = 1;
+		for (int k = 0; k < b; k++) {
+			r *= a;
+		}
+		return r;
+	}
+
+	/**
+	 * Composante de chaque île dans le graphe des arêtes portant au moins un
+	 * pont dans sol, numérotée par la plus petite île de la composante.
+	 */
+	private int[] components(int[] sol) {
+		int[] parent = new int[table.nbIslands()];
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+		}
+		for (int e = 0; e < sol.length; e++) {
+			if (sol[e] > 0) {
+				int a = root(parent, table.edgeFrom(e));
+				int b = root(parent, table.edgeTo(e));
+				parent[Math.max(a, b)] = Math.min(a, b);
+			}
+		}
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = root(parent, i);
+		}
+		return parent;
+	}
+
+	private static int root(int[] parent, int i) {
+		while (parent[i] != i) {
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+	 * Si les îles forment plusieurs composantes, ajoute au moteur, pour
+	 * chacune, la clause "une des arêtes sortant de la composante porte un
+	 * pont" et renvoie true. Renvoie false si la grille est connexe.
+	 * Chaque arête entre deux composantes est rangée dans les clauses de
+	 * ses deux extrémités en un seul parcours des arêtes.
+	 */
+	private boolean addCuts(CdclEngine engine, int[] component) {
+		int[] clauseOf = new int[component.length];
+		int nbRoots = 0;
+		for (int i = 0; i < component.length; i++) {
+			if (component[i] == i) {
+				clauseOf[i] = nbRoots++;
+			}
+		}
+		if (nbRoots <= 1) {
+			return false;
+		}
+		// Nombre d'arêtes sortantes par composante, puis leurs positions
+		int[] start = new int[nbRoots + 1];
+		for (int e = 0; e < table.nbEdges(); e++) {
+			int a = component[table.edgeFrom(e)];
+			int b = component[table.edgeTo(e)];
+			if (a != b) {
+				start[clauseOf[a] + 1]++;
+				start[clauseOf[b] + 1]++;
+			}
+		}
+		for (int k = 0; k < nbRoots; k++) {
+			start[k + 1] += start[k];
+		}
+		int[] literals = new int[start[nbRoots]];
+		int[] fill = Arrays.copyOf(start, nbRoots);
+		for (int e = 0; e < table.nbEdges(); e++) {
+			int a = component[table.edgeFrom(e)];
+			int b = component[table.edgeTo(e)];
+			if (a != b) {
+				literals[fill[clauseOf[a]]++] = oneVar(e);
+				literals[fill[clauseOf[b]]++] = oneVar(e);
+			}
+		}
+		for (int k = 0; k < nbRoots; k++) {
+			engine.addClause(Arrays.copyOfRange(literals, start[k],
+					start[k + 1]));
+			cutsNb++;
+		}
+		return true;
+	}
+}
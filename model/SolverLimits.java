@@ -0,0 +1,100 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import util.Contract;
+
+/**
+ * Limites d'une résolution : une échéance, un nombre maximal de nœuds de
+ * recherche et un drapeau d'annulation, que les solveurs consultent
+ * régulièrement par isReached(). Une même instance peut être partagée par
+ * plusieurs fils (voir ParallelSolver) : les nœuds sont alors comptés pour
+ * tous les fils ensemble, par paquets de CHECK_INTERVAL.
+ */
+public final class SolverLimits {
+
+	// CONSTANTES
+
+	/**
+	 * Nombre de nœuds entre deux lectures de l'horloge.
+	 */
+	public static final int CHECK_INTERVAL = 1 << 6;
+	private static final int CHECK_MASK = CHECK_INTERVAL - 1;
+
+	// ATTRIBUTS
+
+	private final boolean hasDeadline;
+	private final long deadline;
+	private final long maxNodes;
+	private final AtomicBoolean isCancelled;
+	private final AtomicLong spentNodes;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée des limites vides : seule l'annulation peut arrêter la résolution.
+	 */
+	public SolverLimits() {
+		this(0, 0);
+	}
+
+	/**
+	 * Crée des limites dont l'échéance est dans timeoutMillis millisecondes
+	 * et qui autorisent maxNodes nœuds de recherche. Une valeur nulle
+	 * indique l'absence de limite correspondante.
+	 */
+	public SolverLimits(long timeoutMillis, long maxNodes) {
+		Contract.checkCondition(timeoutMillis >= 0 && maxNodes >= 0);
+
+		hasDeadline = timeoutMillis > 0;
+		deadline = System.nanoTime()
+				+ TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+		isCancelled = new AtomicBoolean();
+		spentNodes = new AtomicLong();
+	}
+
+	// REQUETES
+
+	public boolean isCancelled() {
+		return isCancelled.get();
+	}
+
+	/**
+	 * Teste si la résolution doit s'arrêter, nodes étant le nombre de nœuds
+	 * déjà explorés par l'appelant. Chaque appelant doit passer ses valeurs
+	 * successives de nodes une seule fois chacune. L'horloge n'est lue que
+	 * tous les CHECK_INTERVAL nœuds, ou si nodes == 0.
+	 */
+	public boolean isReached(long nodes) {
+		if (isCancelled.get() || nodes > maxNodes) {
+			return true;
+		}
+		if ((nodes & CHECK_MASK) != 0) {
+			return false;
+		}
+		if (nodes > 0 && spentNodes.addAndGet(CHECK_INTERVAL) > maxNodes) {
+			return true;
+		}
+		return hasDeadline && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * Issue d'une résolution arrêtée par ces limites.
+	 */
+	public SolverOutcome stopOutcome() {
+		return isCancelled() ? SolverOutcome.CANCELLED : SolverOutcome.TIMEOUT;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Demande l'arrêt des résolutions utilisant ces limites. Peut être appelé
+	 * depuis n'importe quel fil.
+	 */
+	public void cancel() {
+		isCancelled.set(true);
+	}
+}
@@ -0,0 +1,20 @@
+package model;
+
+/**
+ * Écouteur des résolutions d'un HashiSolver. Les méthodes sont appelées
+ * dans le fil qui lance la résolution.
+ */
+public interface SolverListener {
+
+	/**
+	 * Une résolution de la grille de source par le solveur solverName
+	 * commence.
+	 */
+	void solveStarted(HashiSolver source, String solverName);
+
+	/**
+	 * Une résolution de la grille de source est terminée ; stats la décrit,
+	 * son issue comprise.
+	 */
+	void solveFinished(HashiSolver source, SolverStats stats);
+}
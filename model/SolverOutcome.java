@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * Types (énumération) des issues d'une résolution.
+ */
+public enum SolverOutcome {
+	/**
+	 * La grille est résolue.
+	 */
+	SOLVED,
+	/**
+	 * La recherche s'est terminée sans solution. Pour les solveurs complets
+	 * (propagation, parallèle) la grille n'a alors aucune solution.
+	 */
+	UNSOLVED,
+	/**
+	 * L'échéance ou le nombre maximal de nœuds a été atteint.
+	 */
+	TIMEOUT,
+	/**
+	 * La résolution a été annulée.
+	 */
+	CANCELLED
+}
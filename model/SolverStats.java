@@ -0,0 +1,182 @@
+package model;
+
+import java.util.Locale;
+
+/**
+ * Statistiques d'une résolution : nœuds explorés, retours arrière,
+ * propagations, profondeur maximale, temps passé à valider la grille et
+ * temps total, et issue. Les solveurs ne font qu'incrémenter des compteurs,
+ * les statistiques peuvent donc rester actives en production.
+ * Un retour arrière est un choix qui s'est révélé faux ; une propagation est
+ * une déduction faite sans choix (révision d'une île pour les solveurs par
+ * propagation, pont posé par les règles pour le solveur basique).
+ */
+public final class SolverStats {
+
+	// ATTRIBUTS
+
+	private String solverName;
+	private long nodesNb;
+	private long backtracksNb;
+	private long propagationsNb;
+	private int maxDepth;
+	private long validationNanos;
+	private long startNanos;
+	private long totalNanos;
+	private SolverOutcome outcome;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée des statistiques vides.
+	 */
+	public SolverStats() {
+		start(null);
+		totalNanos = 0;
+	}
+
+	// REQUETES
+
+	/**
+	 * Nom du solveur utilisé ("easy", "backtrack", "propagation",
+	 * "parallel", "sat" ou "count" pour un comptage de solutions), ou null
+	 * si aucune résolution n'a été lancée.
+	 */
+	public String getSolverName() {
+		return solverName;
+	}
+
+	public long nodesNb() {
+		return nodesNb;
+	}
+
+	public long backtracksNb() {
+		return backtracksNb;
+	}
+
+	public long propagationsNb() {
+		return propagationsNb;
+	}
+
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Temps passé à tester la validité ou la connexité de la grille.
+	 */
+	public long validationNanos() {
+		return validationNanos;
+	}
+
+	/**
+	 * Temps passé dans la recherche, validation exclue.
+	 */
+	public long searchNanos() {
+		return totalNanos - validationNanos;
+	}
+
+	/**
+	 * Durée totale de la résolution.
+	 */
+	public long totalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * Issue de la résolution, ou null si elle n'est pas terminée.
+	 */
+	public SolverOutcome getOutcome() {
+		return outcome;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "nodes=%d backtracks=%d"
+				+ " propagations=%d depth=%d validation=%.3fms"
+				+ " search=%.3fms", nodesNb, backtracksNb, propagationsNb,
+				maxDepth, validationNanos / 1e6, searchNanos() / 1e6);
+	}
+
+	// COMMANDES
+
+	/**
+	 * Remet les compteurs à zéro pour une résolution par le solveur name.
+	 */
+	void start(String name) {
+		solverName = name;
+		nodesNb = 0;
+		backtracksNb = 0;
+		propagationsNb = 0;
+		maxDepth = 0;
+		validationNanos = 0;
+		outcome = null;
+		startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Termine la résolution sur l'issue outcome.
+	 */
+	void finish(SolverOutcome outcome) {
+		this.outcome = outcome;
+		totalNanos = System.nanoTime() - startNanos;
+	}
+
+	/**
+	 * Compte un nœud de profondeur depth.
+	 */
+	void nodeVisited(int depth) {
+		nodesNb++;
+		if (depth > maxDepth) {
+			maxDepth = depth;
+		}
+	}
+
+	void backtracked() {
+		backtracksNb++;
+	}
+
+	void propagated(int n) {
+		propagationsNb += n;
+	}
+
+	void validated(long nanos) {
+		validationNanos += nanos;
+	}
+
+	/**
+	 * Ajoute les compteurs de other, dont la durée n'est pas comptée.
+	 */
+	void add(SolverStats other) {
+		nodesNb += other.nodesNb;
+		backtracksNb += other.backtracksNb;
+		propagationsNb += other.propagationsNb;
+		maxDepth = Math.max(maxDepth, other.maxDepth);
+		validationNanos += other.validationNanos;
+	}
+
+	/**
+	 * Ajoute les compteurs de la dernière recherche de engine, dont la
+	 * racine est à la profondeur depth.
+	 */
+	void add(PropagationSolver engine, int depth) {
+		nodesNb += engine.nodesNb();
+		backtracksNb += engine.backtracksNb();
+		propagationsNb += engine.propagationsNb();
+		maxDepth = Math.max(maxDepth, depth + engine.maxDepth());
+		validationNanos += engine.validationNanos();
+	}
+
+	/**
+	 * Ajoute les compteurs de engine : décisions, conflits, littéraux
+	 * propagés et niveau maximal. validationNanos est le temps passé à
+	 * vérifier ses modèles.
+	 */
+	void add(CdclEngine engine, long validationNanos) {
+		nodesNb += engine.decisionsNb();
+		backtracksNb += engine.conflictsNb();
+		propagationsNb += engine.propagationsNb();
+		maxDepth = Math.max(maxDepth, engine.maxLevel());
+		this.validationNanos += validationNanos;
+	}
+}
@@ -0,0 +1,105 @@
+package model;
+
+import java.util.Arrays;
+
+import util.Contract;
+
+/**
+ * Table de transposition bornée : ensemble des états de recherche (clés de
+ * 64 bits, voir HashiGrid.stateHash()) dont l'exploration a échoué. La
+ * table est à correspondance directe par paires d'entrées : une clé ne
+ * peut occuper que les deux entrées de sa paire. Quand la paire est
+ * pleine, la nouvelle clé remplace celle dont l'échec a coûté le moins de
+ * nœuds : les sous-arbres les plus chers sont conservés le plus longtemps.
+ * Deux états de même clé sont confondus ; sur 64 bits, la probabilité
+ * d'une telle collision reste négligeable.
+ */
+final class TranspositionTable {
+
+	// CONSTANTES
+
+	private static final long EMPTY = 0L;
+
+	// ATTRIBUTS
+
+	private final long[] keys;
+	private final long[] costs;
+	private final int mask;
+	private long hitsNb;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Crée une table vide de capacity entrées, capacity étant une puissance
+	 * de deux au moins égale à 2.
+	 */
+	TranspositionTable(int capacity) {
+		Contract.checkCondition(capacity >= 2
+				&& Integer.bitCount(capacity) == 1);
+
+		keys = new long[capacity];
+		costs = new long[capacity];
+		mask = capacity - 2;
+		hitsNb = 0;
+	}
+
+	// REQUETES
+
+	/**
+	 * Nombre de fois où contains() a trouvé sa clé.
+	 */
+	long hitsNb() {
+		return hitsNb;
+	}
+
+	/**
+	 * Teste si l'état de clé key a déjà échoué.
+	 */
+	boolean contains(long key) {
+		key = nonEmpty(key);
+		int i = slot(key);
+		if (keys[i] == key || keys[i + 1] == key) {
+			hitsNb++;
+			return true;
+		}
+		return false;
+	}
+
+	// COMMANDES
+
+	/**
+	 * Enregistre l'échec de l'état de clé key, dont l'exploration a coûté
+	 * cost nœuds.
+	 */
+	void put(long key, long cost) {
+		key = nonEmpty(key);
+		int i = slot(key);
+		if (keys[i] == key || keys[i + 1] == key) {
+			return;
+		}
+		if (keys[i] != EMPTY
+				&& (keys[i + 1] == EMPTY || costs[i + 1] < costs[i])) {
+			i++;
+		}
+		keys[i] = key;
+		costs[i] = cost;
+	}
+
+	void clear() {
+		Arrays.fill(keys, EMPTY);
+		hitsNb = 0;
+	}
+
+	// OUTILS
+
+	/**
+	 * Première entrée de la paire de key.
+	 */
+	private int slot(long key) {
+		return (int) (key >>> (Long.SIZE - Integer.SIZE)) & mask;
+	}
+
+	private static long nonEmpty(long key) {
+		return key == EMPTY ? 1L : key;
+	}
+}
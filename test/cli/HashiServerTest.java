@@ -0,0 +1,224 @@
+package cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.HashiGenerator;
+import model.HashiGrid;
+import model.HashiSolver;
+import util.BadSyntaxException;
+import util.Json;
+
+/**
+ * Tests du HashiServer, démarré sur un port libre avec un seul jeton :
+ * réponses normales, et codes d'erreur 400, 404, 405 et 503.
+ */
+public class HashiServerTest {
+
+	// CONSTANTES
+
+	private static final String GRID = "2002\n0000\n0000\n2002\n";
+	private static final long TIMEOUT_MILLIS = 10000;
+	// Génération qu'aucun candidat ne satisfait en moins de quelques
+	// secondes : elle garde le jeton jusqu'à son échéance
+	private static final String SLOW_GENERATION =
+			"/generate?size=200&tier=isolation&seed=1";
+	private static final long BUSY_WAIT_MILLIS = 5000;
+	// Grille générée à deux solutions, longue à compter
+	private static final int AMBIGUOUS_SIZE = 30;
+	private static final long AMBIGUOUS_SEED = 6;
+
+	// ATTRIBUTS
+
+	private HashiServer server;
+	private HttpClient client;
+
+	// COMMANDES
+
+	@BeforeEach
+	public void start() throws IOException {
+		server = new HashiServer(0, 1, TIMEOUT_MILLIS);
+		server.start();
+		client = HttpClient.newHttpClient();
+	}
+
+	@AfterEach
+	public void stop() {
+		server.stop(0);
+	}
+
+	// TESTS
+
+	@Test
+	public void solveReturnsTheBridges() throws Exception {
+		for (String solver : new String[] {"easy", "backtrack",
+				"propagation", "parallel", "sat"}) {
+			HttpResponse<String> r = post("/solve?solver=" + solver, GRID);
+			assertEquals(200, r.statusCode());
+			Map<?, ?> body = json(r);
+			assertEquals("SOLVED", body.get("outcome"));
+			assertEquals(4, ((List<?>) body.get("bridges")).size());
+		}
+		HttpResponse<String> r = post("/solve", "[[2,0,2],[0,0,0],[2,0,2]]");
+		assertEquals(200, r.statusCode());
+	}
+
+	@Test
+	public void validateAndGenerate() throws Exception {
+		Map<?, ?> v = json(post("/validate", GRID));
+		assertEquals(1L, v.get("solutions"));
+		assertEquals(Boolean.TRUE, v.get("unique"));
+		HttpResponse<String> a = get("/generate?size=9&seed=4");
+		HttpResponse<String> b = get("/generate?height=9&width=9&seed=4");
+		assertEquals(200, a.statusCode());
+		assertEquals(a.body(), b.body());
+		HttpResponse<String> t = get("/generate?size=7&seed=4&format=text");
+		assertEquals(200, t.statusCode());
+		assertTrue(t.headers().firstValue("Content-Type").get()
+				.startsWith("text/plain"));
+	}
+
+	/**
+	 * Une grille à deux solutions dont le comptage demande des milliers
+	 * de nœuds : avec une échéance d'une milliseconde, le compte est
+	 * arrêté et l'unicité n'est pas affirmée.
+	 */
+	@Test
+	public void validateStoppedByTheDeadline() throws Exception {
+		HashiGenerator g = new HashiGenerator(AMBIGUOUS_SIZE, AMBIGUOUS_SEED);
+		g.generateRandomGrid();
+		int[][] islands = g.getIslands();
+		assertEquals(2, new HashiSolver(new HashiGrid(islands, null))
+				.countSolutions(2));
+		StringBuilder text = new StringBuilder();
+		for (int[] row : islands) {
+			for (int v : row) {
+				text.append(v);
+			}
+			text.append('\n');
+		}
+		Map<?, ?> v = json(post("/validate?timeout=1", text.toString()));
+		assertEquals("TIMEOUT", v.get("outcome"));
+		assertTrue((Long) v.get("solutions") < 2);
+		assertTrue(v.containsKey("unique"));
+		assertNull(v.get("unique"));
+		assertFalse(v.containsKey("tier"));
+		// Sans échéance serrée, le compte aboutit
+		v = json(post("/validate", text.toString()));
+		assertEquals("SOLVED", v.get("outcome"));
+		assertEquals(2L, v.get("solutions"));
+		assertEquals(Boolean.FALSE, v.get("unique"));
+	}
+
+	@Test
+	public void badRequests() throws Exception {
+		assertError(400, post("/solve", "[[2,0,2],[0,0"));
+		assertError(400, post("/solve", "{\"islands\":[]}"));
+		assertError(400, post("/solve", "[[9]]"));
+		assertError(400, post("/solve?solver=magic", GRID));
+		assertError(400, post("/solve?branching=magic", GRID));
+		assertError(400, post("/solve?timeout=0", GRID));
+		assertError(400, post("/solve?timeout=x", GRID));
+		assertError(400, post("/solve?timeout=600001", GRID));
+		assertError(400, get("/generate?size=2"));
+		assertError(400, get("/generate?size=201"));
+		assertError(400, get("/generate?size=4294967303"));
+		assertError(400, get("/generate?height=7&width=-4294967289"));
+		assertError(400, get("/generate?density=2"));
+		assertError(400, get("/generate?tier=expert"));
+		assertError(400, get("/generate?format=xml"));
+		assertError(400, get("/generate?seed=1.5"));
+	}
+
+	@Test
+	public void unknownPaths() throws Exception {
+		assertError(404, post("/solve/more", GRID));
+		assertError(404, get("/generate/"));
+		assertEquals(404, get("/nothing").statusCode());
+	}
+
+	@Test
+	public void disallowedMethods() throws Exception {
+		assertError(405, get("/solve"));
+		assertError(405, get("/validate"));
+		HttpRequest delete = HttpRequest.newBuilder(uri("/generate"))
+				.DELETE().build();
+		assertError(405, client.send(delete,
+				HttpResponse.BodyHandlers.ofString()));
+	}
+
+	@Test
+	public void deadlineReached() throws Exception {
+		assertError(503, get(SLOW_GENERATION + "&timeout=50"));
+		// Le jeton est rendu quand la génération s'est arrêtée
+		assertEquals(200, get("/generate?size=7&timeout="
+				+ BUSY_WAIT_MILLIS).statusCode());
+	}
+
+	@Test
+	public void busyServer() throws Exception {
+		CompletableFuture<HttpResponse<String>> slow = client.sendAsync(
+				HttpRequest.newBuilder(uri(SLOW_GENERATION + "&timeout="
+						+ BUSY_WAIT_MILLIS)).build(),
+				HttpResponse.BodyHandlers.ofString());
+		// Attend que la génération lente ait pris le jeton
+		long end = System.currentTimeMillis() + BUSY_WAIT_MILLIS;
+		HttpResponse<String> r;
+		do {
+			r = post("/solve?timeout=20", GRID);
+		} while (r.statusCode() == 200 && System.currentTimeMillis() < end);
+		assertError(503, r);
+		assertEquals("Server busy", json(r).get("error"));
+		assertError(503, slow.get());
+		assertEquals(200, post("/solve", GRID).statusCode());
+	}
+
+	// OUTILS
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + server.getPort() + path);
+	}
+
+	private HttpResponse<String> get(String path) throws IOException,
+			InterruptedException {
+		return client.send(HttpRequest.newBuilder(uri(path)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpResponse<String> post(String path, String body)
+			throws IOException, InterruptedException {
+		return client.send(HttpRequest.newBuilder(uri(path))
+				.POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static Map<?, ?> json(HttpResponse<String> r)
+			throws BadSyntaxException {
+		return (Map<?, ?>) Json.parse(r.body());
+	}
+
+	/**
+	 * Vérifie que r a le code status et un corps JSON portant un message
+	 * d'erreur.
+	 */
+	private static void assertError(int status, HttpResponse<String> r)
+			throws BadSyntaxException {
+		assertEquals(status, r.statusCode(), r.body());
+		assertTrue(json(r).get("error") instanceof String, r.body());
+	}
+}
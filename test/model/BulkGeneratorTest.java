@@ -0,0 +1,112 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du BulkGenerator : les grilles ne dépendent que de la graine, des
+ * dimensions et de leur rang, pas du nombre de fils ; les grilles ciblées
+ * répondent à leur cible, et chaque candidat est compté comme accepté ou
+ * rejeté pour un seul motif.
+ */
+public class BulkGeneratorTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 0x5EEDL;
+	private static final int HEIGHT = 9;
+	private static final int WIDTH = 12;
+	private static final int COUNT = 12;
+	private static final int FIRST = 5;
+	private static final int THREADS = 4;
+	private static final int TIER_COUNT = 3;
+
+	// TESTS
+
+	@Test
+	public void sameGridsWhateverTheThreads() throws InterruptedException {
+		BulkGenerator g = new BulkGenerator(HEIGHT, WIDTH, SEED, false);
+		List<int[][]> one = g.generate(0, COUNT, 1);
+		List<int[][]> many = g.generate(0, COUNT, THREADS);
+		assertEquals(COUNT, many.size());
+		for (int k = 0; k < COUNT; k++) {
+			assertArrayEquals(one.get(k), many.get(k));
+		}
+		// La grille k ne dépend pas de first
+		List<int[][]> tail = g.generate(FIRST, COUNT - FIRST, THREADS);
+		for (int k = FIRST; k < COUNT; k++) {
+			assertArrayEquals(one.get(k), tail.get(k - FIRST));
+		}
+		// Ni de l'instance
+		List<int[][]> other = new BulkGenerator(HEIGHT, WIDTH, SEED, false)
+				.generate(0, COUNT, THREADS);
+		for (int k = 0; k < COUNT; k++) {
+			assertArrayEquals(one.get(k), other.get(k));
+		}
+	}
+
+	@Test
+	public void solutionsSolveTheGrids() throws InterruptedException {
+		BulkGenerator g = new BulkGenerator(HEIGHT, WIDTH, SEED, false);
+		List<int[][]> grids = g.generate(0, COUNT, THREADS);
+		List<HashiGrid> solutions = g.generateSolutions(0, COUNT, THREADS);
+		for (int k = 0; k < COUNT; k++) {
+			HashiGrid s = solutions.get(k);
+			assertTrue(s.isValidGrid());
+			HashiGrid grid = new HashiGrid(grids.get(k), null);
+			assertEquals(grid.getEdgeTable().nbIslands(), s.nbIslands());
+			for (int i = 0; i < s.nbIslands(); i++) {
+				assertEquals(grid.getEdgeTable().islandValue(i),
+						s.getEdgeTable().islandValue(i));
+			}
+		}
+	}
+
+	@Test
+	public void uniqueGrids() throws InterruptedException {
+		BulkGenerator g = new BulkGenerator(HEIGHT, WIDTH, SEED, true);
+		for (int[][] islands : g.generate(0, COUNT, THREADS)) {
+			assertEquals(1, new PropagationSolver(new HashiGrid(islands, null))
+					.countSolutions(2));
+		}
+		checkCandidates(g, COUNT);
+	}
+
+	@Test
+	public void gridsOfATier() throws InterruptedException {
+		for (RuleTier tier : RuleTier.values()) {
+			BulkGenerator g = new BulkGenerator(HEIGHT, WIDTH, SEED, false,
+					0, tier);
+			List<int[][]> grids = g.generate(0, TIER_COUNT, THREADS);
+			for (int[][] islands : grids) {
+				DifficultyGrader grader = new DifficultyGrader(
+						new HashiGrid(islands, null));
+				assertEquals(tier, grader.grade());
+				assertFalse(grader.isGuessed());
+				assertEquals(SolverOutcome.SOLVED, grader.getOutcome());
+			}
+			checkCandidates(g, TIER_COUNT);
+			List<int[][]> again = g.generate(0, TIER_COUNT, 1);
+			for (int k = 0; k < TIER_COUNT; k++) {
+				assertArrayEquals(grids.get(k), again.get(k));
+			}
+		}
+	}
+
+	// OUTILS
+
+	/**
+	 * Vérifie que les count grilles acceptées et les candidats rejetés de
+	 * la dernière génération de g font tous ses candidats.
+	 */
+	private static void checkCandidates(BulkGenerator g, int count) {
+		assertEquals(g.candidatesNb(), count + g.notUniqueNb()
+				+ g.tooEasyNb() + g.tooHardNb());
+	}
+}
@@ -0,0 +1,181 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du CdclEngine sur des formules aléatoires assez petites pour
+ * être vérifiées par l'énumération de toutes les affectations : l'issue
+ * doit être la même, et tout modèle trouvé doit satisfaire chaque clause.
+ */
+public class CdclEngineTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 1;
+	private static final int FORMULAS_NB = 1500;
+	private static final int MAX_VARIABLES = 10;
+	// Clauses par variable : autour de 4,3 pour des clauses de longueur 3,
+	// les formules satisfiables et insatisfiables sont aussi fréquentes
+	private static final double MIN_RATIO = 1;
+	private static final double MAX_RATIO = 7;
+	private static final int MAX_CLAUSE_LENGTH = 3;
+
+	// TESTS
+
+	@Test
+	public void randomFormulasAgreeWithBruteForce() {
+		Random random = new Random(SEED);
+		int satNb = 0;
+		for (int k = 0; k < FORMULAS_NB; k++) {
+			int n = 1 + random.nextInt(MAX_VARIABLES);
+			int[][] clauses = randomFormula(random, n);
+			CdclEngine engine = newEngine(n);
+			addClauses(engine, clauses, 0, clauses.length);
+			if (checkOutcome(engine, n, clauses, clauses.length)) {
+				satNb++;
+			}
+		}
+		// Les deux issues doivent avoir été rencontrées
+		assertTrue(0 < satNb && satNb < FORMULAS_NB);
+	}
+
+	/**
+	 * Les clauses ajoutées entre deux appels à solve() sont prises en
+	 * compte, avec celles apprises lors du premier appel.
+	 */
+	@Test
+	public void incrementalClausesAgreeWithBruteForce() {
+		Random random = new Random(SEED + 1);
+		for (int k = 0; k < FORMULAS_NB; k++) {
+			int n = 1 + random.nextInt(MAX_VARIABLES);
+			int[][] clauses = randomFormula(random, n);
+			int half = clauses.length / 2;
+			CdclEngine engine = newEngine(n);
+			addClauses(engine, clauses, 0, half);
+			checkOutcome(engine, n, clauses, half);
+			addClauses(engine, clauses, half, clauses.length);
+			checkOutcome(engine, n, clauses, clauses.length);
+		}
+	}
+
+	@Test
+	public void contradictoryUnitsAreUnsatisfiable() {
+		CdclEngine engine = newEngine(2);
+		engine.addClause(1, 2);
+		engine.addClause(-1);
+		engine.addClause(-2);
+		assertFalse(engine.isConsistent());
+		assertEquals(SolverOutcome.UNSOLVED, engine.solve(null));
+	}
+
+	@Test
+	public void tautologiesAndDuplicatesAreIgnored() {
+		CdclEngine engine = newEngine(2);
+		engine.addClause(1, -1);
+		engine.addClause(2, 2, 2);
+		assertEquals(SolverOutcome.SOLVED, engine.solve(null));
+		assertTrue(engine.modelValue(2));
+	}
+
+	@Test
+	public void cancelledLimitsStopTheSearch() {
+		CdclEngine engine = newEngine(3);
+		engine.addClause(1, 2, 3);
+		SolverLimits limits = new SolverLimits();
+		limits.cancel();
+		assertEquals(SolverOutcome.CANCELLED, engine.solve(limits));
+		assertEquals(SolverOutcome.SOLVED, engine.solve(null));
+	}
+
+	// OUTILS
+
+	private static CdclEngine newEngine(int n) {
+		CdclEngine engine = new CdclEngine();
+		for (int v = 1; v <= n; v++) {
+			assertEquals(v, engine.newVariable());
+		}
+		return engine;
+	}
+
+	/**
+	 * Formule aléatoire sur les variables 1 à n. Les clauses peuvent
+	 * répéter un littéral ou contenir une variable et sa négation.
+	 */
+	private static int[][] randomFormula(Random random, int n) {
+		double ratio = MIN_RATIO + (MAX_RATIO - MIN_RATIO)
+				* random.nextDouble();
+		int[][] clauses = new int[(int) Math.ceil(ratio * n)][];
+		for (int c = 0; c < clauses.length; c++) {
+			// Surtout des clauses de longueur maximale
+			int length = random.nextInt(4) == 0
+					? 1 + random.nextInt(MAX_CLAUSE_LENGTH)
+					: MAX_CLAUSE_LENGTH;
+			clauses[c] = new int[length];
+			for (int k = 0; k < length; k++) {
+				int v = 1 + random.nextInt(n);
+				clauses[c][k] = random.nextBoolean() ? v : -v;
+			}
+		}
+		return clauses;
+	}
+
+	private static void addClauses(CdclEngine engine, int[][] clauses,
+			int from, int to) {
+		for (int c = from; c < to; c++) {
+			engine.addClause(clauses[c]);
+		}
+	}
+
+	/**
+	 * Résout et compare l'issue à l'énumération des affectations des n
+	 * variables sur les clauses 0 à count - 1. Renvoie true si la formule
+	 * est satisfiable.
+	 */
+	private static boolean checkOutcome(CdclEngine engine, int n,
+			int[][] clauses, int count) {
+		boolean isSat = false;
+		for (int mask = 0; mask < 1 << n && !isSat; mask++) {
+			isSat = satisfies(mask, clauses, count);
+		}
+		SolverOutcome outcome = engine.solve(null);
+		assertEquals(isSat ? SolverOutcome.SOLVED : SolverOutcome.UNSOLVED,
+				outcome);
+		if (isSat) {
+			int model = 0;
+			for (int v = 1; v <= n; v++) {
+				if (engine.modelValue(v)) {
+					model |= 1 << (v - 1);
+				}
+			}
+			assertTrue(satisfies(model, clauses, count));
+		}
+		return isSat;
+	}
+
+	/**
+	 * Teste si l'affectation mask (bit v - 1 pour la variable v) satisfait
+	 * les clauses 0 à count - 1.
+	 */
+	private static boolean satisfies(int mask, int[][] clauses, int count) {
+		for (int c = 0; c < count; c++) {
+			boolean isSatisfied = false;
+			for (int l : clauses[c]) {
+				boolean value = (mask >> (Math.abs(l) - 1) & 1) != 0;
+				if (value == l > 0) {
+					isSatisfied = true;
+					break;
+				}
+			}
+			if (!isSatisfied) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
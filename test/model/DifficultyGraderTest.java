@@ -0,0 +1,114 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du DifficultyGrader : niveau et étapes cohérents entre eux, grille
+ * remise dans son état initial, issue d'accord avec le SatSolver, et
+ * solution unique quand les règles suffisent sans deviner.
+ */
+public class DifficultyGraderTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 11;
+	private static final int GRIDS_NB = 300;
+	private static final RuleTier[] TIERS = RuleTier.values();
+
+	// TESTS
+
+	@Test
+	public void easyGrid() {
+		HashiGrid grid = new HashiGrid(new int[][] {
+			{2, 0, 2},
+			{0, 0, 0},
+			{0, 0, 0}}, null);
+		DifficultyGrader grader = new DifficultyGrader(grid);
+		assertEquals(RuleTier.EASY, grader.grade());
+		assertEquals(SolverOutcome.SOLVED, grader.getOutcome());
+		assertTrue(grader.stepsNb() > 0);
+		assertEquals(0, grader.stepsNb(RuleTier.CAPACITY)
+				+ grader.stepsNb(RuleTier.ISOLATION));
+		assertEquals(0, grid.bridgesOn(0));
+	}
+
+	@Test
+	public void ambiguousGridIsGuessed() {
+		DifficultyGrader grader = new DifficultyGrader(new HashiGrid(
+				new int[][] {{3, 0, 3}, {0, 0, 0}, {3, 0, 3}}, null));
+		grader.grade();
+		assertTrue(grader.isGuessed());
+		assertEquals(SolverOutcome.SOLVED, grader.getOutcome());
+	}
+
+	@Test
+	public void unsolvableGrid() {
+		DifficultyGrader grader = new DifficultyGrader(new HashiGrid(
+				new int[][] {{1, 0, 2}}, null));
+		grader.grade();
+		assertEquals(SolverOutcome.UNSOLVED, grader.getOutcome());
+	}
+
+	@Test
+	public void generatedGrids() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int[] tiersNb = new int[TIERS.length];
+		int guessedNb = 0;
+		for (int k = 0; k < GRIDS_NB; k++) {
+			int[][] islands = PropagationSolverTest.randomGrid(random);
+			if (random.nextInt(4) == 0) {
+				PropagationSolverTest.perturb(islands, random);
+			}
+			HashiGrid grid = new HashiGrid(islands, null);
+			int[] before = PropagationSolverTest.buildSome(grid, null,
+					random);
+			long hash = grid.stateHash();
+			DifficultyGrader grader = new DifficultyGrader(grid);
+			RuleTier tier = grader.grade();
+			assertArrayEquals(before, PropagationSolverTest.bridges(grid));
+			assertEquals(hash, grid.stateHash());
+			assertEquals(tier, grader.getHardestTier());
+			checkSteps(grader, tier);
+			boolean isSolvable = new SatSolver(grid).solve();
+			assertEquals(isSolvable ? SolverOutcome.SOLVED
+					: SolverOutcome.UNSOLVED, grader.getOutcome());
+			if (isSolvable && !grader.isGuessed()) {
+				// Les règles ne déduisent que des ponts forcés
+				assertEquals(1, new PropagationSolver(grid).countSolutions(2));
+			}
+			if (tier != null) {
+				tiersNb[tier.ordinal()]++;
+			}
+			guessedNb += grader.isGuessed() ? 1 : 0;
+		}
+		for (int n : tiersNb) {
+			assertTrue(n > 0);
+		}
+		assertTrue(guessedNb > 0);
+	}
+
+	// OUTILS
+
+	/**
+	 * Vérifie que stepsNb() est la somme des étapes par niveau, et que tier
+	 * est le plus difficile des niveaux ayant des étapes.
+	 */
+	private static void checkSteps(DifficultyGrader grader, RuleTier tier) {
+		int sum = 0;
+		RuleTier hardest = null;
+		for (RuleTier t : TIERS) {
+			sum += grader.stepsNb(t);
+			if (grader.stepsNb(t) > 0) {
+				hardest = t;
+			}
+		}
+		assertEquals(sum, grader.stepsNb());
+		assertEquals(hardest, tier);
+	}
+}
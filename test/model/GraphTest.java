@@ -0,0 +1,246 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du Graph contre un modèle naïf (matrice d'adjacence et parcours en
+ * largeur) : des suites aléatoires d'ajouts et de retraits d'arêtes, la
+ * dernière arête ajoutée étant souvent retirée la première (annulation de
+ * la dernière union) mais pas toujours (reconstruction), et de
+ * modifications des poids.
+ */
+public class GraphTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 17;
+	private static final int RUNS_NB = 200;
+	private static final int OPERATIONS_NB = 400;
+	private static final int MAX_SIZE = 12;
+	private static final int MAX_WEIGHT = 3;
+
+	// TESTS
+
+	@Test
+	public void randomOperationsMatchBfs() {
+		Random random = new Random(SEED);
+		for (int run = 0; run < RUNS_NB; run++) {
+			Model m = new Model(1 + random.nextInt(MAX_SIZE));
+			Graph g = new Graph(m.size);
+			// Pile des arêtes dans l'ordre de leur ajout
+			Deque<int[]> added = new ArrayDeque<int[]>();
+			for (int k = 0; k < OPERATIONS_NB; k++) {
+				int i = random.nextInt(m.size);
+				int j = random.nextInt(m.size);
+				int op = random.nextInt(10);
+				if (op < 4) {
+					// Arête dans un sens, ou dans les deux comme HashiGrid
+					g.addEdge(i, j);
+					m.arcs[i][j] = true;
+					if (random.nextBoolean()) {
+						g.addEdge(j, i);
+						m.arcs[j][i] = true;
+					}
+					added.push(new int[] {i, j});
+				} else if (op < 7 && !added.isEmpty()) {
+					// Retrait de la dernière arête ajoutée
+					int[] e = added.pop();
+					g.removeEdge(e[0], e[1]);
+					g.removeEdge(e[1], e[0]);
+					m.arcs[e[0]][e[1]] = false;
+					m.arcs[e[1]][e[0]] = false;
+				} else if (op < 8) {
+					g.removeEdge(i, j);
+					m.arcs[i][j] = false;
+				} else if (op < 9) {
+					int delta = m.weight[i] > 0 && random.nextBoolean() ? -1
+							: 1 + random.nextInt(MAX_WEIGHT);
+					g.addWeight(i, delta);
+					m.weight[i] += delta;
+				} else {
+					checkAll(g, m);
+				}
+			}
+			checkAll(g, m);
+			g.clear();
+			m.clearEdges();
+			checkAll(g, m);
+		}
+	}
+
+	/**
+	 * isWeightless() ne suit les listes d'adjacence que dans leur sens :
+	 * les arêtes sont ici toujours ajoutées dans les deux sens, comme le
+	 * fait HashiGrid, et le test est comparé au modèle que l'union-find soit
+	 * à jour ou à reconstruire.
+	 */
+	@Test
+	public void isWeightlessMatchesBfs() {
+		Random random = new Random(SEED + 1);
+		for (int run = 0; run < RUNS_NB; run++) {
+			Model m = new Model(2 + random.nextInt(MAX_SIZE - 1));
+			Graph g = new Graph(m.size);
+			for (int i = 0; i < m.size; i++) {
+				if (random.nextInt(3) == 0) {
+					g.addWeight(i, 1);
+					m.weight[i] = 1;
+				}
+			}
+			List<int[]> edges = new ArrayList<int[]>();
+			for (int k = 0; k < OPERATIONS_NB / 4; k++) {
+				int i = random.nextInt(m.size);
+				int j = random.nextInt(m.size);
+				if (random.nextInt(3) > 0 || edges.isEmpty()) {
+					if (!m.arcs[i][j]) {
+						g.addEdge(i, j);
+						g.addEdge(j, i);
+						m.arcs[i][j] = true;
+						m.arcs[j][i] = true;
+						edges.add(new int[] {i, j});
+					}
+				} else {
+					// Retrait d'une arête quelconque : l'union-find est
+					// souvent à reconstruire
+					int[] e = edges.remove(random.nextInt(edges.size()));
+					g.removeEdge(e[0], e[1]);
+					g.removeEdge(e[1], e[0]);
+					m.arcs[e[0]][e[1]] = false;
+					m.arcs[e[1]][e[0]] = false;
+				}
+				int v = random.nextInt(m.size);
+				assertEquals(m.componentWeight(v) == 0, g.isWeightless(v));
+			}
+		}
+	}
+
+	@Test
+	public void undoRestoresWeightsOfComponents() {
+		Graph g = new Graph(4);
+		for (int i = 0; i < 4; i++) {
+			g.addWeight(i, i + 1);
+		}
+		g.addEdge(0, 1);
+		g.addEdge(2, 3);
+		g.addEdge(1, 2);
+		assertEquals(10, g.componentWeight(3));
+		assertTrue(g.isConnected());
+		g.addWeight(0, -1);
+		assertEquals(9, g.componentWeight(2));
+		g.removeEdge(1, 2);
+		assertEquals(2, g.nbComponents());
+		assertEquals(2, g.componentWeight(1));
+		assertEquals(7, g.componentWeight(2));
+		// Retrait d'une arête ancienne : reconstruction
+		g.removeEdge(0, 1);
+		assertEquals(3, g.nbComponents());
+		assertFalse(g.areConnected(0, 1));
+		assertEquals(0, g.componentWeight(0));
+		assertTrue(g.isWeightless(0));
+		assertEquals(2, g.componentSize(3));
+		g.clear();
+		assertEquals(4, g.nbComponents());
+		assertEquals(4, g.componentWeight(3));
+	}
+
+	// OUTILS
+
+	private static void checkAll(Graph g, Model m) {
+		int[] comp = m.components();
+		int nb = 0;
+		for (int i = 0; i < m.size; i++) {
+			nb = Math.max(nb, comp[i] + 1);
+		}
+		assertEquals(nb, g.nbComponents());
+		assertEquals(nb == 1, g.isConnected());
+		for (int i = 0; i < m.size; i++) {
+			int size = 0;
+			int weight = 0;
+			for (int j = 0; j < m.size; j++) {
+				assertEquals(m.arcs[i][j], g.areAccessible(i, j));
+				assertEquals(comp[i] == comp[j], g.areConnected(i, j));
+				if (comp[i] == comp[j]) {
+					size++;
+					weight += m.weight[j];
+				}
+			}
+			assertEquals(m.weight[i], g.getWeight(i));
+			assertEquals(size, g.componentSize(i));
+			assertEquals(weight, g.componentWeight(i));
+		}
+	}
+
+	// CLASSES INTERNES
+
+	/**
+	 * Graphe naïf : matrice des arcs et poids, composantes calculées par
+	 * parcours en largeur, les arcs étant pris dans les deux sens.
+	 */
+	private static class Model {
+
+		private final int size;
+		private final boolean[][] arcs;
+		private final int[] weight;
+
+		Model(int size) {
+			this.size = size;
+			arcs = new boolean[size][size];
+			weight = new int[size];
+		}
+
+		/**
+		 * Numéro de composante de chaque sommet, numérotées à partir de 0.
+		 */
+		int[] components() {
+			int[] comp = new int[size];
+			Arrays.fill(comp, -1);
+			int n = 0;
+			for (int s = 0; s < size; s++) {
+				if (comp[s] != -1) {
+					continue;
+				}
+				Deque<Integer> queue = new ArrayDeque<Integer>();
+				queue.add(s);
+				comp[s] = n;
+				while (!queue.isEmpty()) {
+					int v = queue.poll();
+					for (int w = 0; w < size; w++) {
+						if ((arcs[v][w] || arcs[w][v]) && comp[w] == -1) {
+							comp[w] = n;
+							queue.add(w);
+						}
+					}
+				}
+				n++;
+			}
+			return comp;
+		}
+
+		int componentWeight(int i) {
+			int[] comp = components();
+			int w = 0;
+			for (int j = 0; j < size; j++) {
+				if (comp[j] == comp[i]) {
+					w += weight[j];
+				}
+			}
+			return w;
+		}
+
+		void clearEdges() {
+			for (boolean[] row : arcs) {
+				Arrays.fill(row, false);
+			}
+		}
+	}
+}
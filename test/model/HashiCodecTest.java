@@ -0,0 +1,305 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+import util.BadSyntaxException;
+
+/**
+ * Tests du HashiCodec : aller-retour de grilles générées, carrées ou
+ * rectangulaires, avec ou sans solution ; grilles sans île ; îles
+ * séparées par plus de MAX_GAP cases, qui demandent des mots de
+ * remplissage ; enregistrements altérés, que le décodage doit refuser.
+ */
+public class HashiCodecTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 11;
+	private static final int GRIDS_NB = 200;
+	private static final int MAX_SIDE = 20;
+	private static final int MAX_GAP = (1 << 28) - 1;
+	private static final int MAX_SIZE = Coord.MAX_COORD + 1;
+	private static final int HEADER_SIZE = 20;
+	// Positions des champs de l'en-tête
+	private static final int VERSION_AT = 4;
+	private static final int HEIGHT_AT = 8;
+	private static final int WIDTH_AT = 12;
+	private static final int WORDS_AT = 16;
+
+	@TempDir
+	File dir;
+
+	// TESTS
+
+	@Test
+	public void generatedGridsRoundTrip() throws BadSyntaxException {
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int k = 0; k < GRIDS_NB; k++) {
+			HashiGrid solution = randomSolution(random);
+			for (boolean withSolution : new boolean[] {false, true}) {
+				ByteBuffer buf = encode(solution, withSolution);
+				HashiGrid decoded = HashiCodec.decode(buf, true);
+				assertFalse(buf.hasRemaining());
+				assertSameIslands(solution, decoded);
+				EdgeTable t = decoded.getEdgeTable();
+				for (int e = 0; e < t.nbEdges(); e++) {
+					assertEquals(withSolution ? solution.bridgesOn(e) : 0,
+							decoded.bridgesOn(e));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void solutionIsSkippedOnRequest() throws BadSyntaxException {
+		HashiGrid solution = randomSolution(new SplittableRandom(SEED));
+		ByteBuffer buf = encode(solution, true);
+		HashiGrid decoded = HashiCodec.decode(buf, false);
+		assertFalse(buf.hasRemaining());
+		assertSameIslands(solution, decoded);
+		for (int e = 0; e < decoded.getEdgeTable().nbEdges(); e++) {
+			assertEquals(0, decoded.bridgesOn(e));
+		}
+	}
+
+	@Test
+	public void gridWithoutIslandsRoundTrips() throws BadSyntaxException {
+		HashiGrid empty = new HashiGrid(new int[4][9], null);
+		for (boolean withSolution : new boolean[] {false, true}) {
+			ByteBuffer buf = encode(empty, withSolution);
+			assertEquals(HEADER_SIZE + (withSolution ? Integer.BYTES : 0),
+					buf.remaining());
+			HashiGrid decoded = HashiCodec.decode(buf, true);
+			assertEquals(4, decoded.getHeight());
+			assertEquals(9, decoded.getWidth());
+			assertEquals(0, decoded.nbIslands());
+		}
+	}
+
+	/**
+	 * Deux îles séparées par gap cases vides, sur une grille de MAX_SIZE
+	 * colonnes : il faut ceil(gap / MAX_GAP) - 1 mots de remplissage pour
+	 * les séparer.
+	 */
+	@Test
+	public void largeGapsUseFillerWords() throws BadSyntaxException {
+		long[] gaps = {0, 1, MAX_GAP - 1, MAX_GAP, MAX_GAP + 1,
+				2L * MAX_GAP, 2L * MAX_GAP + 1,
+				(long) MAX_SIZE * MAX_SIZE - 2};
+		for (long gap : gaps) {
+			long p = gap + 1;
+			int x = (int) (p / MAX_SIZE);
+			int y = (int) (p % MAX_SIZE);
+			EdgeTable t = new EdgeTable(x + 1, MAX_SIZE, new int[] {0, x},
+					new int[] {0, y}, new int[] {1, 1});
+			HashiGrid grid = new HashiGrid(t, null);
+			int fillers = (int) Math.max(0,
+					(gap + MAX_GAP - 1) / MAX_GAP - 1);
+			ByteBuffer buf = encode(grid, false);
+			assertEquals(HEADER_SIZE + Integer.BYTES * (2 + fillers),
+					buf.remaining());
+			assertEquals(2 + fillers, buf.getInt(WORDS_AT));
+			HashiGrid decoded = HashiCodec.decode(buf, true);
+			assertSameIslands(grid, decoded);
+		}
+	}
+
+	@Test
+	public void filledGapKeepsTheSolution() throws BadSyntaxException {
+		// Plus de MAX_GAP cases entre la deuxième et la troisième île
+		int height = MAX_GAP / MAX_SIZE + 3;
+		EdgeTable t = new EdgeTable(height, MAX_SIZE, new int[] {0, 0,
+				height - 1}, new int[] {0, 5, 5}, new int[] {1, 3, 2});
+		assertEquals(2, t.nbEdges());
+		HashiGrid grid = new HashiGrid(t, new int[] {1, 2});
+		assertTrue(grid.isValidGrid());
+		ByteBuffer buf = encode(grid, true);
+		assertEquals(4, buf.getInt(WORDS_AT));
+		HashiGrid decoded = HashiCodec.decode(buf, true);
+		assertSameIslands(grid, decoded);
+		assertTrue(decoded.isValidGrid());
+	}
+
+	@Test
+	public void recordsAreSkippedOneByOne() throws BadSyntaxException {
+		SplittableRandom random = new SplittableRandom(SEED + 1);
+		List<HashiGrid> grids = new ArrayList<HashiGrid>();
+		int size = 0;
+		for (int k = 0; k < 10; k++) {
+			grids.add(randomSolution(random));
+			size += HashiCodec.encodedSize(grids.get(k), k % 2 == 0);
+		}
+		ByteBuffer buf = ByteBuffer.allocate(size);
+		for (int k = 0; k < grids.size(); k++) {
+			HashiCodec.encode(grids.get(k), k % 2 == 0, buf);
+		}
+		buf.flip();
+		for (int k = 0; k < grids.size(); k++) {
+			if (k % 3 == 0) {
+				HashiCodec.skip(buf);
+			} else {
+				assertSameIslands(grids.get(k), HashiCodec.decode(buf, true));
+			}
+		}
+		assertFalse(buf.hasRemaining());
+	}
+
+	@Test
+	public void savedFileIsMapped() throws IOException, BadSyntaxException {
+		SplittableRandom random = new SplittableRandom(SEED + 2);
+		List<HashiGrid> grids = new ArrayList<HashiGrid>();
+		for (int k = 0; k < 50; k++) {
+			grids.add(randomSolution(random));
+		}
+		File f = new File(dir, "pack.hshi");
+		HashiCodec.save(f, grids, true);
+		assertTrue(HashiCodec.isEncoded(f));
+		ByteBuffer buf = HashiCodec.map(f);
+		for (HashiGrid g : grids) {
+			HashiGrid decoded = HashiCodec.decode(buf, true);
+			assertSameIslands(g, decoded);
+			assertTrue(decoded.isValidGrid());
+		}
+		assertFalse(buf.hasRemaining());
+	}
+
+	@Test
+	public void corruptedHeadersAreRejected() {
+		HashiGrid grid = randomSolution(new SplittableRandom(SEED + 3));
+		int[][] corruptions = {
+			// position, valeur sur 4 octets (2 pour la version)
+			{0, 0x48534848},
+			{VERSION_AT, 2},
+			{HEIGHT_AT, 0},
+			{HEIGHT_AT, -1},
+			{HEIGHT_AT, MAX_SIZE + 1},
+			{WIDTH_AT, 0},
+			{WIDTH_AT, MAX_SIZE + 1},
+			{WORDS_AT, -1},
+			{WORDS_AT, Integer.MAX_VALUE},
+		};
+		for (int[] c : corruptions) {
+			ByteBuffer buf = encode(grid, true);
+			if (c[0] == VERSION_AT) {
+				buf.putShort(c[0], (short) c[1]);
+			} else {
+				buf.putInt(c[0], c[1]);
+			}
+			assertRejected(buf);
+		}
+	}
+
+	@Test
+	public void corruptedIslandsAreRejected() {
+		HashiGrid grid = new HashiGrid(new int[][] {
+			{2, 0, 2},
+			{0, 0, 0},
+			{2, 0, 2}}, null);
+		// Valeur d'île au-delà de 8
+		ByteBuffer buf = encode(grid, false);
+		buf.putInt(HEADER_SIZE, buf.getInt(HEADER_SIZE) | 9);
+		assertRejected(buf);
+		// Île au-delà de la dernière case
+		buf = encode(grid, false);
+		int last = HEADER_SIZE + 3 * Integer.BYTES;
+		buf.putInt(last, buf.getInt(last) + (1 << 4));
+		assertRejected(buf);
+		// Enregistrement tronqué
+		buf = encode(grid, false);
+		buf.limit(buf.limit() - 1);
+		assertRejected(buf);
+	}
+
+	@Test
+	public void corruptedSolutionsAreRejected() {
+		HashiGrid grid = new HashiGrid(new int[][] {
+			{2, 0, 2},
+			{0, 0, 0},
+			{2, 0, 2}}, null);
+		for (int e = 0; e < grid.getEdgeTable().nbEdges(); e++) {
+			grid.buildBridge(e);
+		}
+		assertTrue(grid.isValidGrid());
+		int edgesAt = HashiCodec.encodedSize(grid, false);
+		int bridgesAt = edgesAt + Integer.BYTES;
+		// Nombre d'arêtes faux
+		ByteBuffer buf = encode(grid, true);
+		buf.putInt(edgesAt, 3);
+		assertRejected(buf);
+		// Trois ponts sur une arête
+		buf = encode(grid, true);
+		buf.put(bridgesAt, (byte) (buf.get(bridgesAt) | 3));
+		assertRejected(buf);
+		// Deux ponts partout : plus que la valeur des îles
+		buf = encode(grid, true);
+		buf.put(bridgesAt, (byte) 0xAA);
+		assertRejected(buf);
+		// Solution tronquée
+		buf = encode(grid, true);
+		buf.limit(buf.limit() - 1);
+		assertRejected(buf);
+	}
+
+	// OUTILS
+
+	/**
+	 * Solution générée d'une grille de dimensions aléatoires.
+	 */
+	private static HashiGrid randomSolution(SplittableRandom random) {
+		int height = HashiGenerator.MIN_SIZE + random.nextInt(MAX_SIDE);
+		int width = HashiGenerator.MIN_SIZE + random.nextInt(MAX_SIDE);
+		HashiGenerator g = new HashiGenerator(height, width, random.split());
+		g.generateRandomGrid();
+		return g.getLastGridSolution();
+	}
+
+	/**
+	 * Enregistrement de grid, prêt à être lu.
+	 */
+	private static ByteBuffer encode(HashiGrid grid, boolean withSolution) {
+		ByteBuffer buf = ByteBuffer.allocate(HashiCodec.encodedSize(grid,
+				withSolution));
+		HashiCodec.encode(grid, withSolution, buf);
+		assertFalse(buf.hasRemaining());
+		buf.flip();
+		return buf;
+	}
+
+	private static void assertSameIslands(HashiGrid expected,
+			HashiGrid actual) {
+		EdgeTable e = expected.getEdgeTable();
+		EdgeTable a = actual.getEdgeTable();
+		assertEquals(e.getHeight(), a.getHeight());
+		assertEquals(e.getWidth(), a.getWidth());
+		assertEquals(e.nbIslands(), a.nbIslands());
+		assertEquals(e.nbEdges(), a.nbEdges());
+		for (int i = 0; i < e.nbIslands(); i++) {
+			assertEquals(e.islandX(i), a.islandX(i));
+			assertEquals(e.islandY(i), a.islandY(i));
+			assertEquals(e.islandValue(i), a.islandValue(i));
+		}
+	}
+
+	private static void assertRejected(final ByteBuffer buf) {
+		assertThrows(BadSyntaxException.class, new Executable() {
+			@Override
+			public void execute() throws BadSyntaxException {
+				HashiCodec.decode(buf, true);
+			}
+		});
+	}
+}
@@ -0,0 +1,245 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de HashiGrid par des suites aléatoires de ponts construits et
+ * retirés, d'îles évaluées et de retours à des points de reprise
+ * emboîtés : après rollback() la grille doit être exactement celle du
+ * point de reprise, hachage compris ; le hachage ne doit dépendre que de
+ * l'état ; les compteurs d'îles satisfaites et de composantes closes
+ * doivent donner les mêmes réponses qu'un calcul direct.
+ */
+public class HashiGridTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 23;
+	private static final int GRIDS_NB = 150;
+	private static final int OPERATIONS_NB = 300;
+	private static final int MAX_SIDE = 10;
+
+	// TESTS
+
+	@Test
+	public void randomChangesAreRolledBack() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int sealedSeen = 0;
+		int validSeen = 0;
+		for (int k = 0; k < GRIDS_NB; k++) {
+			HashiGrid grid = randomGrid(random, k % 2 == 0);
+			EdgeTable t = grid.getEdgeTable();
+			if (t.nbIslands() == 0) {
+				continue;
+			}
+			Deque<Integer> marks = new ArrayDeque<Integer>();
+			Deque<State> states = new ArrayDeque<State>();
+			for (int n = 0; n < OPERATIONS_NB; n++) {
+				int op = random.nextInt(10);
+				if (op == 0) {
+					marks.push(grid.mark());
+					states.push(new State(grid));
+				} else if (op == 1 && !marks.isEmpty()) {
+					grid.rollback(marks.pop());
+					states.pop().assertSame(grid);
+				} else if (op < 5 && t.nbEdges() > 0) {
+					grid.removeBridge(random.nextInt(t.nbEdges()));
+				} else if (op < 9 && t.nbEdges() > 0) {
+					grid.buildBridge(random.nextInt(t.nbEdges()));
+				} else {
+					grid.setEvaluated(random.nextBoolean(),
+							random.nextInt(t.nbIslands()));
+				}
+				checkCounters(grid);
+				sealedSeen += grid.hasSealedComponent() ? 1 : 0;
+				validSeen += grid.isValidGrid() ? 1 : 0;
+			}
+			assertEquals(sameStateHash(grid, random), grid.stateHash());
+			while (!marks.isEmpty()) {
+				grid.rollback(marks.pop());
+				states.pop().assertSame(grid);
+				checkCounters(grid);
+			}
+		}
+		// Les deux cas rares ont bien été rencontrés
+		assertTrue(sealedSeen > 0);
+		assertTrue(validSeen > 0);
+	}
+
+	@Test
+	public void clearRemovesEverything() {
+		HashiGrid grid = randomGrid(new SplittableRandom(SEED + 1), true);
+		grid.setEvaluated(true, 0);
+		grid.clear();
+		assertEquals(0, grid.stateHash());
+		for (int e = 0; e < grid.getEdgeTable().nbEdges(); e++) {
+			assertEquals(0, grid.bridgesOn(e));
+		}
+		for (int i = 0; i < grid.nbIslands(); i++) {
+			assertEquals(0, grid.bridgesPlaced(i));
+		}
+		checkCounters(grid);
+	}
+
+	// OUTILS
+
+	/**
+	 * Grille générée de dimensions aléatoires, résolue si isSolved, sans
+	 * pont sinon.
+	 */
+	private static HashiGrid randomGrid(SplittableRandom random,
+			boolean isSolved) {
+		int height = HashiGenerator.MIN_SIZE + random.nextInt(MAX_SIDE);
+		int width = HashiGenerator.MIN_SIZE + random.nextInt(MAX_SIDE);
+		HashiGenerator g = new HashiGenerator(height, width, random.split());
+		g.generateRandomGrid();
+		return isSolved ? g.getLastGridSolution() : g.getLastGeneratedGrid();
+	}
+
+	/**
+	 * Hachage d'une grille neuve ayant les mêmes ponts et les mêmes îles
+	 * évaluées que grid, obtenus dans un ordre aléatoire.
+	 */
+	private static long sameStateHash(HashiGrid grid,
+			SplittableRandom random) {
+		EdgeTable t = grid.getEdgeTable();
+		List<Integer> changes = new ArrayList<Integer>();
+		for (int e = 0; e < t.nbEdges(); e++) {
+			for (int b = 0; b < grid.bridgesOn(e); b++) {
+				changes.add(e);
+			}
+		}
+		for (int i = 0; i < t.nbIslands(); i++) {
+			if (grid.isEvaluated(i)) {
+				changes.add(-1 - i);
+			}
+		}
+		Collections.shuffle(changes, new Random(random.nextLong()));
+		HashiGrid copy = new HashiGrid(t, null);
+		for (int c : changes) {
+			if (c >= 0) {
+				copy.buildBridge(c);
+			} else {
+				copy.setEvaluated(true, -1 - c);
+			}
+		}
+		new State(grid).assertSame(copy);
+		return copy.stateHash();
+	}
+
+	/**
+	 * Compare isValidGrid(), notConnectedGrid() et hasSealedComponent() à un
+	 * calcul direct à partir des ponts de chaque arête.
+	 */
+	private static void checkCounters(HashiGrid grid) {
+		EdgeTable t = grid.getEdgeTable();
+		int n = t.nbIslands();
+		int[] placed = new int[n];
+		for (int e = 0; e < t.nbEdges(); e++) {
+			placed[t.edgeFrom(e)] += grid.bridgesOn(e);
+			placed[t.edgeTo(e)] += grid.bridgesOn(e);
+		}
+		boolean allComplete = true;
+		for (int i = 0; i < n; i++) {
+			assertEquals(placed[i], grid.bridgesPlaced(i));
+			allComplete &= placed[i] == t.islandValue(i);
+		}
+		int[] comp = components(grid);
+		boolean isConnected = true;
+		boolean[] isOpen = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			isConnected &= comp[i] == 0;
+			isOpen[comp[i]] |= placed[i] != t.islandValue(i);
+		}
+		boolean isSealed = false;
+		for (int i = 0; i < n; i++) {
+			isSealed |= !isConnected && !isOpen[comp[i]];
+		}
+		assertEquals(allComplete && isConnected, grid.isValidGrid());
+		assertEquals(allComplete && !isConnected, grid.notConnectedGrid());
+		assertEquals(isSealed, grid.hasSealedComponent());
+	}
+
+	/**
+	 * Numéro de composante de chaque île, les îles étant reliées par les
+	 * arêtes portant au moins un pont.
+	 */
+	private static int[] components(HashiGrid grid) {
+		EdgeTable t = grid.getEdgeTable();
+		int n = t.nbIslands();
+		int[] comp = new int[n];
+		Arrays.fill(comp, -1);
+		int nb = 0;
+		for (int s = 0; s < n; s++) {
+			if (comp[s] != -1) {
+				continue;
+			}
+			comp[s] = nb;
+			boolean changed = true;
+			while (changed) {
+				changed = false;
+				for (int e = 0; e < t.nbEdges(); e++) {
+					int i = t.edgeFrom(e);
+					int j = t.edgeTo(e);
+					if (grid.bridgesOn(e) > 0 && (comp[i] == nb) != (comp[j]
+							== nb)) {
+						comp[i] = nb;
+						comp[j] = nb;
+						changed = true;
+					}
+				}
+			}
+			nb++;
+		}
+		return comp;
+	}
+
+	// CLASSES INTERNES
+
+	/**
+	 * Copie de l'état observable d'une grille.
+	 */
+	private static class State {
+
+		private final int[] bridges;
+		private final int[] placed;
+		private final boolean[] evaluated;
+		private final long hash;
+
+		State(HashiGrid grid) {
+			EdgeTable t = grid.getEdgeTable();
+			bridges = new int[t.nbEdges()];
+			for (int e = 0; e < bridges.length; e++) {
+				bridges[e] = grid.bridgesOn(e);
+			}
+			placed = new int[t.nbIslands()];
+			evaluated = new boolean[t.nbIslands()];
+			for (int i = 0; i < placed.length; i++) {
+				placed[i] = grid.bridgesPlaced(i);
+				evaluated[i] = grid.isEvaluated(i);
+			}
+			hash = grid.stateHash();
+		}
+
+		void assertSame(HashiGrid grid) {
+			State s = new State(grid);
+			assertArrayEquals(bridges, s.bridges);
+			assertArrayEquals(placed, s.placed);
+			assertArrayEquals(evaluated, s.evaluated);
+			assertEquals(hash, s.hash);
+		}
+	}
+}
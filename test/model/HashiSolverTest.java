@@ -0,0 +1,91 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du comptage des solutions par HashiSolver : nombre de solutions
+ * et issue, avec ou sans limites.
+ */
+public class HashiSolverTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 0x5EEDL;
+	private static final int GRIDS_NB = 20;
+	private static final int SIZE = 13;
+	private static final long[] NODE_LIMITS = {1, 2, 4, 16, 64, 256};
+	// Deux solutions : ponts simples en haut et en bas, doubles sur les
+	// côtés, ou l'inverse
+	private static final int[][] AMBIGUOUS = {
+		{3, 0, 3},
+		{0, 0, 0},
+		{3, 0, 3}};
+
+	// TESTS
+
+	@Test
+	public void countSolutionsOfAnAmbiguousGrid() {
+		HashiGrid grid = new HashiGrid(AMBIGUOUS, null);
+		HashiSolver s = new HashiSolver(grid);
+		assertEquals(2, s.countSolutions(2));
+		assertEquals(SolverOutcome.SOLVED, s.getOutcome());
+		assertEquals(2, s.countSolutions(5));
+		assertEquals(1, s.countSolutions(1));
+		assertEquals(SolverOutcome.SOLVED, s.getOutcome());
+		// La grille n'est pas modifiée
+		for (int e = 0; e < grid.getEdgeTable().nbEdges(); e++) {
+			assertEquals(0, grid.bridgesOn(e));
+		}
+	}
+
+	@Test
+	public void countSolutionsOfAnUnsolvableGrid() {
+		HashiSolver s = new HashiSolver(new HashiGrid(new int[][] {
+			{1, 0, 2}}, null));
+		assertEquals(0, s.countSolutions(2));
+		assertEquals(SolverOutcome.UNSOLVED, s.getOutcome());
+	}
+
+	/**
+	 * Un comptage arrêté par les limites avant la deuxième solution n'est
+	 * qu'un minorant : son issue n'est jamais SOLVED, même si une solution
+	 * a été trouvée.
+	 */
+	@Test
+	public void countStoppedByLimitsIsNotSolved() {
+		int partialCounts = 0;
+		for (int k = 0; k < GRIDS_NB; k++) {
+			HashiGenerator g = new HashiGenerator(SIZE, SEED + k);
+			g.generateRandomGrid();
+			int[][] islands = g.getIslands();
+			int all = new HashiSolver(new HashiGrid(islands, null))
+					.countSolutions(2);
+			for (long maxNodes : NODE_LIMITS) {
+				HashiSolver s = new HashiSolver(new HashiGrid(islands, null));
+				int n = s.countSolutions(2, new SolverLimits(0, maxNodes));
+				assertTrue(n <= all);
+				if (s.getOutcome() == SolverOutcome.TIMEOUT) {
+					partialCounts += n > 0 ? 1 : 0;
+				} else {
+					assertEquals(all, n);
+					assertEquals(all > 0 ? SolverOutcome.SOLVED
+							: SolverOutcome.UNSOLVED, s.getOutcome());
+				}
+			}
+		}
+		// Des comptages arrêtés après la première solution ont bien eu lieu
+		assertTrue(partialCounts > 0);
+	}
+
+	@Test
+	public void cancelledCount() {
+		SolverLimits limits = new SolverLimits();
+		limits.cancel();
+		HashiSolver s = new HashiSolver(new HashiGrid(AMBIGUOUS, null));
+		assertTrue(s.countSolutions(2, limits) < 2);
+		assertEquals(SolverOutcome.CANCELLED, s.getOutcome());
+	}
+}
@@ -0,0 +1,144 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du NogoodStore contre un HashSet : des suites aléatoires d'ajouts,
+ * de retraits et de tests, sur des tables assez petites pour que les
+ * suites de sondage se chevauchent et passent de la fin de la table à son
+ * début.
+ */
+public class NogoodStoreTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 3;
+	private static final int RUNS_NB = 200;
+	private static final int OPERATIONS_NB = 2000;
+	private static final int MAX_VALUE = 2;
+
+	// TESTS
+
+	@Test
+	public void randomOperationsMatchHashSet() {
+		Random random = new Random(SEED);
+		for (int run = 0; run < RUNS_NB; run++) {
+			int maxSize = 1 + random.nextInt(32);
+			NogoodStore store = new NogoodStore(maxSize);
+			Set<Long> expected = new HashSet<Long>();
+			// Peu d'arêtes : les mêmes couples reviennent souvent
+			int edges = 1 + random.nextInt(2 * maxSize);
+			for (int k = 0; k < OPERATIONS_NB; k++) {
+				int edge = random.nextInt(edges);
+				int value = random.nextInt(MAX_VALUE + 1);
+				Long key = key(edge, value);
+				int op = random.nextInt(3);
+				if (op == 0 && (expected.size() < maxSize
+						|| expected.contains(key))) {
+					assertEquals(expected.add(key), store.add(edge, value));
+				} else if (op == 1) {
+					expected.remove(key);
+					store.remove(edge, value);
+				}
+				assertEquals(expected.contains(key),
+						store.contains(edge, value));
+				assertEquals(expected.size(), store.size());
+			}
+			checkAll(store, expected, edges);
+		}
+	}
+
+	/**
+	 * Des nogoods dont la suite de sondage commence dans les dernières
+	 * cases de la table occupent aussi ses premières ; chacun d'eux est
+	 * retiré à son tour, les autres devant rester accessibles.
+	 */
+	@Test
+	public void removalAcrossTheEndOfTheTable() {
+		int maxSize = 16;
+		NogoodStore probe = new NogoodStore(maxSize);
+		int last = probe.capacity() - 1;
+		List<Integer> wrapping = new ArrayList<Integer>();
+		for (int edge = 0; wrapping.size() < maxSize / 2; edge++) {
+			if (probe.home(edge, 0) >= last - 1) {
+				wrapping.add(edge);
+			}
+		}
+		List<Integer> others = new ArrayList<Integer>();
+		for (int edge = 0; others.size() < maxSize / 2; edge++) {
+			if (probe.home(edge, 1) <= 1) {
+				others.add(edge);
+			}
+		}
+		int edges = Math.max(wrapping.get(wrapping.size() - 1),
+				others.get(others.size() - 1)) + 1;
+		for (int removed = 0; removed < wrapping.size(); removed++) {
+			NogoodStore store = new NogoodStore(maxSize);
+			Set<Long> expected = new HashSet<Long>();
+			for (int edge : wrapping) {
+				store.add(edge, 0);
+				expected.add(key(edge, 0));
+			}
+			for (int edge : others) {
+				store.add(edge, 1);
+				expected.add(key(edge, 1));
+			}
+			int edge = wrapping.get(removed);
+			store.remove(edge, 0);
+			expected.remove(key(edge, 0));
+			assertFalse(store.contains(edge, 0));
+			checkAll(store, expected, edges);
+			for (int e : others) {
+				assertTrue(store.contains(e, 1));
+			}
+			// Les retraits suivants gardent la table cohérente
+			for (int e : wrapping) {
+				store.remove(e, 0);
+				expected.remove(key(e, 0));
+				checkAll(store, expected, edges);
+			}
+		}
+	}
+
+	@Test
+	public void clearEmptiesTheStore() {
+		NogoodStore store = new NogoodStore(4);
+		store.add(1, 2);
+		store.add(3, 0);
+		store.clear();
+		assertEquals(0, store.size());
+		assertFalse(store.contains(1, 2));
+		assertTrue(store.add(1, 2));
+	}
+
+	// OUTILS
+
+	private static long key(int edge, int value) {
+		return (long) edge * (MAX_VALUE + 1) + value;
+	}
+
+	/**
+	 * Vérifie tous les couples d'arête inférieure à edges et compare la
+	 * taille.
+	 */
+	private static void checkAll(NogoodStore store, Set<Long> expected,
+			int edges) {
+		for (int edge = 0; edge < edges; edge++) {
+			for (int value = 0; value <= MAX_VALUE; value++) {
+				assertEquals(expected.contains(key(edge, value)),
+						store.contains(edge, value));
+			}
+		}
+		assertEquals(expected.size(), store.size());
+	}
+}
@@ -0,0 +1,115 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du solveur parallèle, lancé par HashiSolver sur un pool de
+ * plusieurs fils : il doit s'accorder avec le PropagationSolver sur
+ * l'existence d'une solution, résoudre la grille quand elle en a une, et
+ * la laisser telle qu'elle était sinon, ou quand la recherche est
+ * arrêtée.
+ */
+public class ParallelSolverTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 5;
+	private static final int GRIDS_NB = 200;
+	private static final int THREADS = 4;
+	private static final int LARGE_SIZE = 40;
+	private static final long MAX_NODES = 2;
+
+	// ATTRIBUTS
+
+	private ForkJoinPool pool;
+
+	// COMMANDES
+
+	@BeforeEach
+	public void start() {
+		pool = new ForkJoinPool(THREADS);
+	}
+
+	@AfterEach
+	public void stop() {
+		pool.shutdownNow();
+	}
+
+	// TESTS
+
+	@Test
+	public void agreesWithPropagation() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int solvedNb = 0;
+		int unsolvableNb = 0;
+		for (int k = 0; k < GRIDS_NB; k++) {
+			int[][] islands = PropagationSolverTest.randomGrid(random);
+			if (random.nextBoolean()) {
+				PropagationSolverTest.perturb(islands, random);
+			}
+			HashiGrid grid = new HashiGrid(islands, null);
+			int[] before = PropagationSolverTest.buildSome(grid, null,
+					random);
+			long hash = grid.stateHash();
+			boolean isSolvable = new PropagationSolver(grid).solve();
+			SolverOutcome o = new HashiSolver(grid).tryParallelSolver(
+					new SolverLimits(), pool);
+			if (isSolvable) {
+				solvedNb++;
+				assertEquals(SolverOutcome.SOLVED, o);
+				assertTrue(grid.isValidGrid());
+				for (int e = 0; e < before.length; e++) {
+					assertTrue(grid.bridgesOn(e) >= before[e]);
+				}
+			} else {
+				unsolvableNb++;
+				assertEquals(SolverOutcome.UNSOLVED, o);
+				assertArrayEquals(before, PropagationSolverTest.bridges(grid));
+				assertEquals(hash, grid.stateHash());
+			}
+		}
+		assertTrue(solvedNb > 0 && unsolvableNb > 0);
+	}
+
+	@Test
+	public void stoppedSearchLeavesTheGridUnchanged() {
+		int stoppedNb = 0;
+		for (int k = 0; k < GRIDS_NB / 10; k++) {
+			HashiGenerator g = new HashiGenerator(LARGE_SIZE, SEED + k);
+			g.generateRandomGrid();
+			HashiGrid grid = g.getLastGeneratedGrid();
+			int[] before = PropagationSolverTest.bridges(grid);
+			SolverOutcome o = new HashiSolver(grid).tryParallelSolver(
+					new SolverLimits(0, MAX_NODES), pool);
+			if (o == SolverOutcome.TIMEOUT) {
+				stoppedNb++;
+				assertArrayEquals(before, PropagationSolverTest.bridges(grid));
+			} else {
+				assertEquals(SolverOutcome.SOLVED, o);
+			}
+		}
+		assertTrue(stoppedNb > 0);
+	}
+
+	@Test
+	public void cancelledSearch() {
+		HashiGenerator g = new HashiGenerator(LARGE_SIZE, SEED);
+		g.generateRandomGrid();
+		HashiGrid grid = g.getLastGeneratedGrid();
+		SolverLimits limits = new SolverLimits();
+		limits.cancel();
+		assertEquals(SolverOutcome.CANCELLED,
+				new HashiSolver(grid).tryParallelSolver(limits, pool));
+		assertArrayEquals(new int[grid.getEdgeTable().nbEdges()],
+				PropagationSolverTest.bridges(grid));
+	}
+}
@@ -0,0 +1,197 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests de la résolution par propagation de contraintes, lancée par
+ * HashiSolver sur des grilles générées : une grille résoluble est résolue,
+ * les ponts déjà construits étant conservés ; une grille sans solution, ou
+ * une recherche arrêtée par ses limites, laisse la grille telle qu'elle
+ * était. L'existence d'une solution est comparée au SatSolver.
+ */
+public class PropagationSolverTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 3;
+	private static final int GRIDS_NB = 200;
+	private static final int MIN_SIDE = 3;
+	private static final int MAX_SIDE = 12;
+	private static final int MAX_VALUE = 8;
+	private static final int LARGE_SIZE = 40;
+	private static final long MAX_NODES = 2;
+
+	// TESTS
+
+	@Test
+	public void solvableGridsAreSolved() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int k = 0; k < GRIDS_NB; k++) {
+			HashiGrid grid = new HashiGrid(randomGrid(random), null);
+			int[] kept = buildSome(grid, solution(grid), random);
+			HashiSolver s = new HashiSolver(grid);
+			assertEquals(SolverOutcome.SOLVED,
+					s.tryPropagationSolver(new SolverLimits()));
+			assertTrue(grid.isValidGrid());
+			for (int e = 0; e < kept.length; e++) {
+				assertTrue(grid.bridgesOn(e) >= kept[e]);
+			}
+		}
+	}
+
+	@Test
+	public void unsolvableGridsAreLeftUnchanged() {
+		SplittableRandom random = new SplittableRandom(SEED + 1);
+		int unsolvableNb = 0;
+		for (int k = 0; k < GRIDS_NB; k++) {
+			int[][] islands = randomGrid(random);
+			perturb(islands, random);
+			HashiGrid grid = new HashiGrid(islands, null);
+			boolean isSolvable = new SatSolver(grid).solve();
+			int[] before = buildSome(grid, null, random);
+			long hash = grid.stateHash();
+			SolverOutcome o = new HashiSolver(grid).tryPropagationSolver(
+					new SolverLimits());
+			if (o == SolverOutcome.UNSOLVED) {
+				unsolvableNb++;
+				assertArrayEquals(before, bridges(grid));
+				assertEquals(hash, grid.stateHash());
+			} else {
+				assertEquals(SolverOutcome.SOLVED, o);
+				assertTrue(grid.isValidGrid());
+			}
+			// Les ponts construits au hasard peuvent rendre la grille
+			// insoluble, mais pas l'inverse
+			assertTrue(isSolvable || o == SolverOutcome.UNSOLVED);
+		}
+		assertTrue(unsolvableNb > 0);
+	}
+
+	@Test
+	public void stoppedSearchLeavesTheGridUnchanged() {
+		int stoppedNb = 0;
+		for (int k = 0; k < GRIDS_NB / 10; k++) {
+			HashiGenerator g = new HashiGenerator(LARGE_SIZE, SEED + k);
+			g.generateRandomGrid();
+			HashiGrid grid = g.getLastGeneratedGrid();
+			int[] before = bridges(grid);
+			SolverOutcome o = new HashiSolver(grid).tryPropagationSolver(
+					new SolverLimits(0, MAX_NODES));
+			if (o == SolverOutcome.TIMEOUT) {
+				stoppedNb++;
+				assertArrayEquals(before, bridges(grid));
+			} else {
+				assertEquals(SolverOutcome.SOLVED, o);
+			}
+		}
+		assertTrue(stoppedNb > 0);
+	}
+
+	/**
+	 * L'heuristique de branchement change l'ordre de la recherche, pas son
+	 * résultat : même nombre de solutions, et une solution valide quand il
+	 * y en a une.
+	 */
+	@Test
+	public void everyBranchingFindsTheSameSolutions() {
+		SplittableRandom random = new SplittableRandom(SEED + 2);
+		for (int k = 0; k < GRIDS_NB / 4; k++) {
+			int[][] islands = randomGrid(random);
+			if (random.nextBoolean()) {
+				perturb(islands, random);
+			}
+			int count = new PropagationSolver(new HashiGrid(islands, null))
+					.countSolutions(3);
+			for (Branching b : Branching.values()) {
+				HashiGrid grid = new HashiGrid(islands, null);
+				HashiSolver s = new HashiSolver(grid);
+				s.setBranching(b);
+				assertEquals(count, s.countSolutions(3));
+				s.tryPropagationSolver();
+				assertEquals(count > 0, grid.isValidGrid());
+			}
+		}
+	}
+
+	// OUTILS
+
+	/**
+	 * Grille générée de dimensions aléatoires, ayant au moins une île.
+	 */
+	static int[][] randomGrid(SplittableRandom random) {
+		int height = MIN_SIDE + random.nextInt(MAX_SIDE - MIN_SIDE + 1);
+		int width = MIN_SIDE + random.nextInt(MAX_SIDE - MIN_SIDE + 1);
+		HashiGenerator g = new HashiGenerator(height, width, random.split());
+		do {
+			g.generateRandomGrid();
+		} while (g.getLastGeneratedGrid().nbIslands() == 0);
+		int[][] islands = g.getIslands();
+		for (int x = 0; x < islands.length; x++) {
+			islands[x] = islands[x].clone();
+		}
+		return islands;
+	}
+
+	/**
+	 * Change de 1 la valeur d'une île choisie au hasard.
+	 */
+	static void perturb(int[][] islands, SplittableRandom random) {
+		int x;
+		int y;
+		do {
+			x = random.nextInt(islands.length);
+			y = random.nextInt(islands[0].length);
+		} while (islands[x][y] == 0);
+		int v = islands[x][y];
+		if (v == MAX_VALUE || v > 1 && random.nextBoolean()) {
+			islands[x][y] = v - 1;
+		} else {
+			islands[x][y] = v + 1;
+		}
+	}
+
+	/**
+	 * Construit au hasard quelques ponts sur grid : des ponts de solution
+	 * si elle n'est pas null, des ponts quelconques sinon. Renvoie les
+	 * ponts de chaque arête après construction.
+	 */
+	static int[] buildSome(HashiGrid grid, int[] solution,
+			SplittableRandom random) {
+		int n = grid.getEdgeTable().nbEdges();
+		for (int e = 0; e < n; e++) {
+			if (random.nextInt(4) == 0) {
+				int b = solution == null ? 1 : solution[e];
+				for (int k = 0; k < b; k++) {
+					grid.buildBridge(e);
+				}
+			}
+		}
+		return bridges(grid);
+	}
+
+	/**
+	 * Ponts de chaque arête de grid.
+	 */
+	static int[] bridges(HashiGrid grid) {
+		int[] b = new int[grid.getEdgeTable().nbEdges()];
+		for (int e = 0; e < b.length; e++) {
+			b[e] = grid.bridgesOn(e);
+		}
+		return b;
+	}
+
+	/**
+	 * Solution de la grille grid trouvée par le SatSolver.
+	 */
+	private static int[] solution(HashiGrid grid) {
+		SatSolver sat = new SatSolver(grid);
+		assertTrue(sat.solve());
+		return sat.getSolution();
+	}
+}
@@ -0,0 +1,164 @@
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests du SatSolver contre le PropagationSolver sur de petites grilles :
+ * des grilles générées, toutes résolubles, et les mêmes grilles dont une
+ * île a changé de valeur, le plus souvent sans solution. Les deux solveurs
+ * doivent s'accorder sur l'existence d'une solution, la solution du
+ * SatSolver doit être valide, et elle doit être celle du
+ * PropagationSolver quand la solution est unique.
+ */
+public class SatSolverTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 7;
+	private static final int GRIDS_NB = 400;
+	private static final int MIN_SIDE = 3;
+	private static final int MAX_SIDE = 9;
+	private static final int MAX_VALUE = 8;
+
+	// TESTS
+
+	@Test
+	public void generatedGridsAgreeWithPropagation() {
+		SplittableRandom random = new SplittableRandom(SEED);
+		int uniqueNb = 0;
+		for (int k = 0; k < GRIDS_NB; k++) {
+			if (compare(randomGrid(random)) == 1) {
+				uniqueNb++;
+			}
+		}
+		assertTrue(uniqueNb > 0);
+	}
+
+	@Test
+	public void perturbedGridsAgreeWithPropagation() {
+		SplittableRandom random = new SplittableRandom(SEED + 1);
+		int unsolvableNb = 0;
+		for (int k = 0; k < GRIDS_NB; k++) {
+			int[][] islands = randomGrid(random);
+			perturb(islands, random);
+			if (compare(islands) == 0) {
+				unsolvableNb++;
+			}
+		}
+		assertTrue(unsolvableNb > 0);
+	}
+
+	@Test
+	public void builtBridgesAreKept() {
+		SplittableRandom random = new SplittableRandom(SEED + 2);
+		for (int k = 0; k < GRIDS_NB; k++) {
+			HashiGrid grid = new HashiGrid(randomGrid(random), null);
+			int[] expected = solution(grid);
+			// Un pont de la solution est posé d'avance
+			int e = 0;
+			while (expected[e] == 0) {
+				e++;
+			}
+			grid.buildBridge(e);
+			SatSolver sat = new SatSolver(grid);
+			assertTrue(sat.solve());
+			assertTrue(sat.getSolution()[e] > 0);
+			assertTrue(isValid(grid, sat.getSolution()));
+		}
+	}
+
+	// OUTILS
+
+	/**
+	 * Grille générée de dimensions aléatoires.
+	 */
+	private static int[][] randomGrid(SplittableRandom random) {
+		int height = MIN_SIDE + random.nextInt(MAX_SIDE - MIN_SIDE + 1);
+		int width = MIN_SIDE + random.nextInt(MAX_SIDE - MIN_SIDE + 1);
+		HashiGenerator g = new HashiGenerator(height, width, random.split());
+		do {
+			g.generateRandomGrid();
+		} while (g.getLastGeneratedGrid().nbIslands() == 0);
+		int[][] islands = g.getIslands();
+		for (int x = 0; x < islands.length; x++) {
+			islands[x] = islands[x].clone();
+		}
+		return islands;
+	}
+
+	/**
+	 * Change de 1 la valeur d'une île choisie au hasard.
+	 */
+	private static void perturb(int[][] islands, SplittableRandom random) {
+		int x;
+		int y;
+		do {
+			x = random.nextInt(islands.length);
+			y = random.nextInt(islands[0].length);
+		} while (islands[x][y] == 0);
+		int v = islands[x][y];
+		if (v == MAX_VALUE || v > 1 && random.nextBoolean()) {
+			islands[x][y] = v - 1;
+		} else {
+			islands[x][y] = v + 1;
+		}
+	}
+
+	/**
+	 * Résout la grille islands par les deux solveurs, vérifie qu'ils
+	 * s'accordent et renvoie son nombre de solutions, au plus 2.
+	 */
+	private static int compare(int[][] islands) {
+		HashiGrid grid = new HashiGrid(islands, null);
+		PropagationSolver propagation = new PropagationSolver(grid);
+		int count = propagation.countSolutions(2);
+		SatSolver sat = new SatSolver(grid);
+		boolean isSolved = sat.solve();
+		assertEquals(count > 0, isSolved);
+		if (isSolved) {
+			assertTrue(isValid(grid, sat.getSolution()));
+		}
+		if (count == 1) {
+			assertArrayEquals(propagation.getSolution(), sat.getSolution());
+		}
+		return count;
+	}
+
+	/**
+	 * Solution de la grille grid trouvée par le PropagationSolver.
+	 */
+	private static int[] solution(HashiGrid grid) {
+		PropagationSolver propagation = new PropagationSolver(grid);
+		assertTrue(propagation.solve());
+		return propagation.getSolution();
+	}
+
+	/**
+	 * Teste si les ponts solution, posés sur une copie vierge de grid, la
+	 * résolvent.
+	 */
+	private static boolean isValid(HashiGrid grid, int[] solution) {
+		EdgeTable table = grid.getEdgeTable();
+		int[][] islands = new int[grid.getHeight()][grid.getWidth()];
+		for (int i = 0; i < table.nbIslands(); i++) {
+			islands[table.islandX(i)][table.islandY(i)] =
+					table.islandValue(i);
+		}
+		HashiGrid copy = new HashiGrid(islands, null);
+		for (int e = 0; e < solution.length; e++) {
+			for (int n = 0; n < solution[e]; n++) {
+				if (!copy.canBuildBridge(e)) {
+					return false;
+				}
+				copy.buildBridge(e);
+			}
+		}
+		return copy.isValidGrid();
+	}
+}
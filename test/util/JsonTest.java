@@ -0,0 +1,165 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+/**
+ * Tests du lecteur JSON : valeurs, échappements, imbrication, nombres, et
+ * textes mal formés qui doivent lever une BadSyntaxException.
+ */
+public class JsonTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 13;
+	private static final int STRINGS_NB = 500;
+
+	// TESTS
+
+	@Test
+	public void literalsAndNumbers() throws BadSyntaxException {
+		assertEquals(Boolean.TRUE, Json.parse("true"));
+		assertEquals(Boolean.FALSE, Json.parse(" false "));
+		assertNull(Json.parse("null"));
+		assertEquals(0L, Json.parse("0"));
+		assertEquals(-12L, Json.parse("-12"));
+		assertEquals(Long.MAX_VALUE, Json.parse("9223372036854775807"));
+		assertEquals(100000.0, Json.parse("1e5"));
+		assertEquals(-0.25, Json.parse("-2.5E-1"));
+		assertEquals(1.5, Json.parse("1.5e+0"));
+		assertEquals(0.5, Json.parse("0.5"));
+	}
+
+	@Test
+	public void malformedNumbersAreRejected() {
+		String[] texts = {"-", "1-2", "--1", "+1", "01", "-01", "1.", ".5",
+				"-.5", "1e", "1e+", "1.e5", "1ee5", "0x10", "1d",
+				"9223372036854775808", "NaN", "Infinity"};
+		for (String text : texts) {
+			assertRejected(text);
+		}
+	}
+
+	@Test
+	public void escapes() throws BadSyntaxException {
+		assertEquals("a\"b\\c/d\b\f\n\r\t",
+				Json.parse("\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\""));
+		assertEquals("é\u0001", Json.parse("\"\\u00E9\\u0001\""));
+		// Paire de substitution : un seul caractère hors du plan de base
+		String s = (String) Json.parse("\"\\ud83d\\ude00\"");
+		assertEquals(1, s.codePointCount(0, s.length()));
+		assertEquals(0x1F600, s.codePointAt(0));
+	}
+
+	@Test
+	public void malformedStringsAreRejected() {
+		String[] texts = {"\"abc", "\"\\x\"", "\"\\u12\"", "\"\\u12G4\"",
+				"\"\\u+123\"", "\"a\nb\"", "\"\\", "'a'"};
+		for (String text : texts) {
+			assertRejected(text);
+		}
+	}
+
+	@Test
+	public void quotedStringsRoundTrip() throws BadSyntaxException {
+		Random random = new Random(SEED);
+		for (int k = 0; k < STRINGS_NB; k++) {
+			char[] chars = new char[random.nextInt(20)];
+			for (int i = 0; i < chars.length; i++) {
+				// Surtout des caractères spéciaux et de contrôle
+				chars[i] = random.nextBoolean()
+						? "\"\\/\b\f\n\r\t\u0000\u001f".charAt(
+								random.nextInt(10))
+						: (char) random.nextInt(0x800);
+			}
+			String s = new String(chars);
+			assertEquals(s, Json.parse(Json.quote(s)));
+		}
+	}
+
+	@Test
+	public void nesting() throws BadSyntaxException {
+		Map<String, Object> inner = new LinkedHashMap<String, Object>();
+		inner.put("b", Arrays.asList(1L, Arrays.asList(), "c"));
+		inner.put("d", new LinkedHashMap<String, Object>());
+		Map<String, Object> outer = new LinkedHashMap<String, Object>();
+		outer.put("a", inner);
+		outer.put("e", null);
+		assertEquals(outer, Json.parse(
+				" { \"a\" : {\"b\":[1, [ ],\"c\"], \"d\":{}}, \"e\":null } "));
+		String deep = repeat("[", 512) + repeat("]", 512);
+		Object value = Json.parse(deep);
+		for (int k = 1; k < 512; k++) {
+			value = ((List<?>) value).get(0);
+		}
+		assertEquals(Arrays.asList(), value);
+	}
+
+	@Test
+	public void malformedStructuresAreRejected() {
+		String[] texts = {"", " ", "[", "]", "[1,]", "[,1]", "[1 2]",
+				"{\"a\"}", "{\"a\":}", "{a:1}", "{\"a\":1,}", "{\"a\":1",
+				"tru", "nul", "true false", "[1] x", "{} {}", "1 2",
+				repeat("[", 513) + repeat("]", 513),
+				repeat("[", 100000)};
+		for (String text : texts) {
+			assertRejected(text);
+		}
+	}
+
+	@Test
+	public void gridFromRowsAndStrings() throws BadSyntaxException {
+		int[][] expected = {{1, 0, 2}, {0, 0, 0}, {3, 0, 4}};
+		assertArrayEquals(expected, Json.gridFrom(Json.parse(
+				"[[1,0,2],[0,0,0],[3,0,4]]")));
+		assertArrayEquals(expected, Json.gridFrom(Json.parse(
+				"{\"islands\":[\"102\",\"000\",\"304\"]}")));
+		assertArrayEquals(expected, Json.gridFrom(Json.parse(
+				Json.gridToJson(expected))));
+	}
+
+	@Test
+	public void malformedGridsAreRejected() {
+		String[] texts = {"[]", "{}", "{\"islands\":1}", "[[1,0],[1]]",
+				"[[1,0],\"1x\"]", "[[1.5,0]]", "[[9,0],[0,1]]", "[[-1,0]]",
+				"[[1,0],null]", "\"10\""};
+		for (final String text : texts) {
+			assertThrows(BadSyntaxException.class, new Executable() {
+				@Override
+				public void execute() throws BadSyntaxException {
+					Json.gridFrom(Json.parse(text));
+				}
+			});
+		}
+	}
+
+	// OUTILS
+
+	private static String repeat(String s, int n) {
+		StringBuilder b = new StringBuilder();
+		for (int k = 0; k < n; k++) {
+			b.append(s);
+		}
+		return b.toString();
+	}
+
+	private static void assertRejected(final String text) {
+		assertThrows(BadSyntaxException.class, new Executable() {
+			@Override
+			public void execute() throws BadSyntaxException {
+				Json.parse(text);
+			}
+		}, text);
+	}
+}
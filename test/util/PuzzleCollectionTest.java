@@ -0,0 +1,246 @@
+package util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests du PuzzleCollection avec de petites fenêtres : les grilles
+ * chevauchent la limite d'une fenêtre, ou ne tiennent pas dans la fenêtre
+ * qui doit alors être agrandie ; fins de ligne CRLF ; dernière ligne sans
+ * saut de ligne ; grilles mal formées.
+ */
+public class PuzzleCollectionTest {
+
+	// CONSTANTES
+
+	private static final long SEED = 5;
+	private static final int FILES_NB = 60;
+	private static final int MAX_PUZZLES = 30;
+	private static final int MAX_SIDE = 12;
+	private static final int[] WINDOW_SIZES = {1, 2, 3, 7, 16, 61, 256,
+			1 << 26};
+
+	@TempDir
+	File dir;
+
+	// TESTS
+
+	@Test
+	public void randomCollectionsAreReadWithAnyWindow() throws IOException,
+			BadSyntaxException {
+		Random random = new Random(SEED);
+		for (int k = 0; k < FILES_NB; k++) {
+			List<Puzzle> puzzles = randomPuzzles(random);
+			boolean isCrlf = random.nextBoolean();
+			boolean hasFinalNewLine = random.nextBoolean();
+			File f = write(format(puzzles, isCrlf, hasFinalNewLine, random));
+			for (int w : WINDOW_SIZES) {
+				assertRead(puzzles, f, w);
+			}
+		}
+	}
+
+	/**
+	 * Une grande grille entre deux petites : la fenêtre doit être agrandie
+	 * plusieurs fois, et la grille suivante lue ensuite.
+	 */
+	@Test
+	public void oversizedEntryGrowsTheWindow() throws IOException,
+			BadSyntaxException {
+		Random random = new Random(SEED + 1);
+		List<Puzzle> puzzles = new ArrayList<Puzzle>();
+		puzzles.add(randomPuzzle(random, "small", 3, 3));
+		puzzles.add(randomPuzzle(random, "large", 60, 70));
+		puzzles.add(randomPuzzle(random, "after", 4, 5));
+		File f = write(format(puzzles, false, true, null));
+		for (int w : WINDOW_SIZES) {
+			assertRead(puzzles, f, w);
+		}
+	}
+
+	@Test
+	public void crlfAndNoFinalNewLine() throws IOException,
+			BadSyntaxException {
+		File f = write("#a\r\n120\r\n003\r\n\r\n#b\r\n45\r\n67");
+		for (int w : WINDOW_SIZES) {
+			PuzzleCollection c = new PuzzleCollection(f, w);
+			try {
+				Puzzle a = c.read();
+				assertEquals("a", a.getId());
+				assertArrayEquals(new int[][] {{1, 2, 0}, {0, 0, 3}},
+						a.getIslands());
+				Puzzle b = c.read();
+				assertEquals("b", b.getId());
+				assertArrayEquals(new int[][] {{4, 5}, {6, 7}},
+						b.getIslands());
+				assertNull(c.read());
+			} finally {
+				c.close();
+			}
+		}
+	}
+
+	@Test
+	public void headerInsideALineIsNotAnEntry() throws IOException,
+			BadSyntaxException {
+		File f = write("#a\n1#2\n34\n");
+		PuzzleCollection c = new PuzzleCollection(f, 2);
+		try {
+			assertArrayEquals(new int[][] {{1, 2}, {3, 4}},
+					c.read().getIslands());
+			assertNull(c.read());
+		} finally {
+			c.close();
+		}
+	}
+
+	@Test
+	public void malformedEntriesAreRejected() throws IOException {
+		String[] texts = {
+			"12\n34\n",
+			"#\n12\n",
+			"#a\n",
+			"#a\n\n\n#b\n12\n",
+			"#a\n12\n345\n",
+			"#a\n12\n\n34\n",
+		};
+		for (String text : texts) {
+			for (int w : WINDOW_SIZES) {
+				final PuzzleCollection c = new PuzzleCollection(write(text),
+						w);
+				try {
+					assertThrows(BadSyntaxException.class, new Executable() {
+						@Override
+						public void execute() throws IOException,
+								BadSyntaxException {
+							while (c.read() != null) {
+								// grilles correctes avant l'erreur
+							}
+						}
+					});
+				} finally {
+					c.close();
+				}
+			}
+		}
+	}
+
+	@Test
+	public void iteratorWrapsErrors() throws IOException {
+		final PuzzleCollection c = new PuzzleCollection(write("#a\n12\n3\n"));
+		try {
+			assertThrows(IllegalArgumentException.class, new Executable() {
+				@Override
+				public void execute() {
+					c.hasNext();
+				}
+			});
+		} finally {
+			c.close();
+		}
+	}
+
+	@Test
+	public void streamReadsEveryEntry() throws IOException {
+		Random random = new Random(SEED + 2);
+		List<Puzzle> puzzles = randomPuzzles(random);
+		File f = write(format(puzzles, false, true, random));
+		assertTrue(PuzzleCollection.isCollection(f));
+		Stream<Puzzle> s = new PuzzleCollection(f, 16).stream();
+		try {
+			assertEquals(puzzles.size(), s.count());
+		} finally {
+			s.close();
+		}
+		assertFalse(PuzzleCollection.isCollection(write(" \n12\n")));
+	}
+
+	// OUTILS
+
+	private static List<Puzzle> randomPuzzles(Random random) {
+		int n = random.nextInt(MAX_PUZZLES + 1);
+		List<Puzzle> puzzles = new ArrayList<Puzzle>();
+		for (int k = 0; k < n; k++) {
+			puzzles.add(randomPuzzle(random, "p" + k + "-" + random.nextInt(),
+					1 + random.nextInt(MAX_SIDE),
+					1 + random.nextInt(MAX_SIDE)));
+		}
+		return puzzles;
+	}
+
+	private static Puzzle randomPuzzle(Random random, String id, int height,
+			int width) {
+		int[][] islands = new int[height][width];
+		for (int x = 0; x < height; x++) {
+			for (int y = 0; y < width; y++) {
+				islands[x][y] = random.nextInt(3) == 0
+						? 1 + random.nextInt(8) : 0;
+			}
+		}
+		return new Puzzle(id, islands);
+	}
+
+	/**
+	 * Texte du recueil puzzles. Si random != null, des lignes vides et des
+	 * espaces sont ajoutés au hasard entre les grilles.
+	 */
+	private static String format(List<Puzzle> puzzles, boolean isCrlf,
+			boolean hasFinalNewLine, Random random) {
+		String eol = isCrlf ? "\r\n" : "\n";
+		StringBuilder b = new StringBuilder();
+		for (Puzzle p : puzzles) {
+			if (random != null && random.nextInt(4) == 0) {
+				b.append(" ").append(eol).append(eol);
+			}
+			b.append('#').append(p.getId()).append(eol);
+			for (int[] row : p.getIslands()) {
+				for (int v : row) {
+					b.append(v);
+				}
+				b.append(eol);
+			}
+		}
+		if (!hasFinalNewLine && b.length() > 0) {
+			b.setLength(b.length() - eol.length());
+		}
+		return b.toString();
+	}
+
+	private File write(String text) throws IOException {
+		File f = File.createTempFile("collection", ".txt", dir);
+		Files.write(f.toPath(), text.getBytes(StandardCharsets.UTF_8));
+		return f;
+	}
+
+	private static void assertRead(List<Puzzle> expected, File f,
+			int windowSize) throws IOException, BadSyntaxException {
+		PuzzleCollection c = new PuzzleCollection(f, windowSize);
+		try {
+			for (Puzzle p : expected) {
+				Puzzle q = c.read();
+				assertEquals(p.getId(), q.getId());
+				assertArrayEquals(p.getIslands(), q.getIslands());
+			}
+			assertNull(c.read());
+		} finally {
+			c.close();
+		}
+	}
+}
@@ -8,6 +8,17 @@ public final class Contract {
     	// rien ici
     }
     
+    /**
+     * Vérifie la condition condition et si elle n'est pas correct, lève une
+     * AssertionError sans message. Cette version évite l'allocation du
+     * tableau de la version à nombre variable d'arguments.
+     */
+    public static void checkCondition(final boolean condition) {
+        if (!condition) {
+            throw new AssertionError();
+        }
+    }
+    
     /**
      * Vérifie la condition condition et si elle n'est pas correct, lève une
      * AssertionError avec ou sans message.
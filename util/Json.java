@@ -0,0 +1,396 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecture et écriture minimales de JSON, sans dépendance externe.
+ * Un texte est lu en objets Java : Map (objet, clés dans l'ordre du texte),
+ * List (tableau), String, Long (nombre entier), Double (autre nombre),
+ * Boolean ou null.
+ */
+public final class Json {
+
+	// CONSTANTES
+
+	// Profondeur maximale des tableaux et objets imbriqués : au-delà, la
+	// lecture récursive risquerait de déborder la pile
+	private static final int MAX_DEPTH = 512;
+
+	// ATTRIBUTS
+
+	private final String text;
+	private int pos;
+	private int depth;
+
+	// CONSTRUCTEURS
+
+	private Json(String text) {
+		this.text = text;
+		pos = 0;
+		depth = 0;
+	}
+
+	// FONCTIONS PUBLIQUES ET STATIQUES
+
+	/**
+	 * Valeur du texte JSON text. Lève une BadSyntaxException si text n'est
+	 * pas une unique valeur JSON bien formée (RFC 8259), ou si elle imbrique
+	 * plus de MAX_DEPTH tableaux et objets.
+	 */
+	public static Object parse(String text) throws BadSyntaxException {
+		Contract.checkCondition(text != null);
+
+		Json p = new Json(text);
+		Object value = p.readValue();
+		p.skipBlanks();
+		if (p.pos < text.length()) {
+			throw p.error();
+		}
+		return value;
+	}
+
+	/**
+	 * La chaîne s entre guillemets, ses caractères spéciaux échappés.
+	 */
+	public static String quote(String s) {
+		Contract.checkCondition(s != null);
+
+		StringBuilder b = new StringBuilder(s.length() + 2);
+		b.append('"');
+		for (int k = 0; k < s.length(); k++) {
+			char c = s.charAt(k);
+			switch (c) {
+			case '"':
+				b.append("\\\"");
+				break;
+			case '\\':
+				b.append("\\\\");
+				break;
+			case '\n':
+				b.append("\\n");
+				break;
+			case '\r':
+				b.append("\\r");
+				break;
+			case '\t':
+				b.append("\\t");
+				break;
+			default:
+				if (c < ' ') {
+					b.append(String.format("\\u%04x", (int) c));
+				} else {
+					b.append(c);
+				}
+			}
+		}
+		return b.append('"').toString();
+	}
+
+	/**
+	 * Tableau JSON des lignes de la grille islands.
+	 */
+	public static String gridToJson(int[][] islands) {
+		Contract.checkCondition(islands != null);
+
+		StringBuilder b = new StringBuilder();
+		b.append('[');
+		for (int x = 0; x < islands.length; x++) {
+			b.append(x > 0 ? "," : "").append('[');
+			for (int y = 0; y < islands[x].length; y++) {
+				b.append(y > 0 ? "," : "").append(islands[x][y]);
+			}
+			b.append(']');
+		}
+		return b.append(']').toString();
+	}
+
+	/**
+	 * Grille décrite par la valeur JSON value : un tableau de lignes, ou un
+	 * objet dont le champ "islands" est ce tableau. Chaque ligne est un
+	 * tableau de valeurs d'îles (0 pour une case vide) ou une chaîne au
+	 * format de Utils.loadGridFrom. Lève une BadSyntaxException si la
+	 * grille est mal formée.
+	 */
+	public static int[][] gridFrom(Object value) throws BadSyntaxException {
+		if (value instanceof Map) {
+			value = ((Map<?, ?>) value).get("islands");
+		}
+		if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+			throw new BadSyntaxException("Missing grid rows");
+		}
+		List<?> rows = (List<?>) value;
+		int[][] islands = new int[rows.size()][];
+		for (int x = 0; x < islands.length; x++) {
+			islands[x] = rowFrom(rows.get(x));
+		}
+		if (!Utils.isValidTab(islands)) {
+			throw new BadSyntaxException("Invalid grid");
+		}
+		return islands;
+	}
+
+	// OUTILS
+
+	private static int[] rowFrom(Object row) throws BadSyntaxException {
+		if (row instanceof String) {
+			String s = (String) row;
+			int[] r = new int[s.length()];
+			for (int y = 0; y < r.length; y++) {
+				if (!Character.isDigit(s.charAt(y))) {
+					throw new BadSyntaxException("Invalid row " + s);
+				}
+				r[y] = s.charAt(y) - '0';
+			}
+			return r;
+		}
+		if (!(row instanceof List)) {
+			throw new BadSyntaxException("Invalid row " + row);
+		}
+		List<?> cells = (List<?>) row;
+		int[] r = new int[cells.size()];
+		for (int y = 0; y < r.length; y++) {
+			Object c = cells.get(y);
+			if (!(c instanceof Long)) {
+				throw new BadSyntaxException("Invalid cell " + c);
+			}
+			long v = (Long) c;
+			r[y] = v < 0 || v > Integer.MAX_VALUE ? -1 : (int) v;
+		}
+		return r;
+	}
+
+	private BadSyntaxException error() {
+		return new BadSyntaxException("Invalid JSON at offset " + pos);
+	}
+
+	private void skipBlanks() {
+		while (pos < text.length()
+				&& Character.isWhitespace(text.charAt(pos))) {
+			pos++;
+		}
+	}
+
+	/**
+	 * Lit le caractère c, précédé de blancs éventuels.
+	 */
+	private void expect(char c) throws BadSyntaxException {
+		skipBlanks();
+		if (pos >= text.length() || text.charAt(pos) != c) {
+			throw error();
+		}
+		pos++;
+	}
+
+	/**
+	 * Teste si le prochain caractère non blanc est c, et le lit si oui.
+	 */
+	private boolean accept(char c) {
+		skipBlanks();
+		if (pos < text.length() && text.charAt(pos) == c) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	private Object readValue() throws BadSyntaxException {
+		skipBlanks();
+		if (pos >= text.length()) {
+			throw error();
+		}
+		char c = text.charAt(pos);
+		switch (c) {
+		case '{':
+			return readObject();
+		case '[':
+			return readArray();
+		case '"':
+			return readString();
+		case 't':
+			return readWord("true", Boolean.TRUE);
+		case 'f':
+			return readWord("false", Boolean.FALSE);
+		case 'n':
+			return readWord("null", null);
+		default:
+			if (c == '-' || '0' <= c && c <= '9') {
+				return readNumber();
+			}
+			throw error();
+		}
+	}
+
+	private Map<String, Object> readObject() throws BadSyntaxException {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		expect('{');
+		enter();
+		if (!accept('}')) {
+			do {
+				skipBlanks();
+				String key = readString();
+				expect(':');
+				map.put(key, readValue());
+			} while (accept(','));
+			expect('}');
+		}
+		depth--;
+		return map;
+	}
+
+	private List<Object> readArray() throws BadSyntaxException {
+		List<Object> list = new ArrayList<Object>();
+		expect('[');
+		enter();
+		if (!accept(']')) {
+			do {
+				list.add(readValue());
+			} while (accept(','));
+			expect(']');
+		}
+		depth--;
+		return list;
+	}
+
+	/**
+	 * Entre dans un tableau ou un objet de plus.
+	 */
+	private void enter() throws BadSyntaxException {
+		if (++depth > MAX_DEPTH) {
+			throw new BadSyntaxException("JSON nested too deeply");
+		}
+	}
+
+	private String readString() throws BadSyntaxException {
+		if (pos >= text.length() || text.charAt(pos) != '"') {
+			throw error();
+		}
+		pos++;
+		StringBuilder b = new StringBuilder();
+		while (pos < text.length()) {
+			char c = text.charAt(pos++);
+			if (c == '"') {
+				return b.toString();
+			}
+			if (c < ' ') {
+				pos--;
+				throw error();
+			}
+			if (c != '\\') {
+				b.append(c);
+			} else if (pos < text.length()) {
+				char e = text.charAt(pos++);
+				switch (e) {
+				case 'b':
+					b.append('\b');
+					break;
+				case 'f':
+					b.append('\f');
+					break;
+				case 'n':
+					b.append('\n');
+					break;
+				case 'r':
+					b.append('\r');
+					break;
+				case 't':
+					b.append('\t');
+					break;
+				case 'u':
+					int code = 0;
+					for (int k = 0; k < 4; k++) {
+						int d = pos < text.length()
+								? Character.digit(text.charAt(pos), 16) : -1;
+						if (d < 0) {
+							throw error();
+						}
+						code = code << 4 | d;
+						pos++;
+					}
+					b.append((char) code);
+					break;
+				case '"':
+				case '\\':
+				case '/':
+					b.append(e);
+					break;
+				default:
+					pos--;
+					throw error();
+				}
+			}
+		}
+		throw error();
+	}
+
+	private Object readWord(String word, Object value)
+			throws BadSyntaxException {
+		if (!text.startsWith(word, pos)) {
+			throw error();
+		}
+		pos += word.length();
+		return value;
+	}
+
+	/**
+	 * Lit un nombre : un signe moins facultatif, une partie entière sans
+	 * zéro initial superflu, puis une partie décimale et un exposant
+	 * facultatifs.
+	 */
+	private Object readNumber() throws BadSyntaxException {
+		int start = pos;
+		boolean isIntegral = true;
+		take('-');
+		if (!take('0')) {
+			readDigits();
+		}
+		if (take('.')) {
+			isIntegral = false;
+			readDigits();
+		}
+		if (take('e') || take('E')) {
+			isIntegral = false;
+			if (!take('+')) {
+				take('-');
+			}
+			readDigits();
+		}
+		String s = text.substring(start, pos);
+		try {
+			return isIntegral ? (Object) Long.valueOf(s)
+					: (Object) Double.valueOf(s);
+		} catch (NumberFormatException e) {
+			// Entier hors des long
+			pos = start;
+			throw error();
+		}
+	}
+
+	/**
+	 * Lit le caractère c s'il est le caractère courant, sans sauter de
+	 * blancs. Renvoie true s'il a été lu.
+	 */
+	private boolean take(char c) {
+		if (pos < text.length() && text.charAt(pos) == c) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Lit une suite non vide de chiffres.
+	 */
+	private void readDigits() throws BadSyntaxException {
+		int start = pos;
+		while (pos < text.length() && '0' <= text.charAt(pos)
+				&& text.charAt(pos) <= '9') {
+			pos++;
+		}
+		if (pos == start) {
+			throw error();
+		}
+	}
+}
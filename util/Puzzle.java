@@ -0,0 +1,32 @@
+package util;
+
+/**
+ * Grille d'un recueil (voir PuzzleCollection) : son identifiant et ses îles,
+ * au format de Utils.loadGridFrom.
+ */
+public final class Puzzle {
+
+	// ATTRIBUTS
+
+	private final String id;
+	private final int[][] islands;
+
+	// CONSTRUCTEURS
+
+	public Puzzle(String id, int[][] islands) {
+		Contract.checkCondition(id != null && islands != null);
+
+		this.id = id;
+		this.islands = islands;
+	}
+
+	// REQUETES
+
+	public String getId() {
+		return id;
+	}
+
+	public int[][] getIslands() {
+		return islands;
+	}
+}
@@ -0,0 +1,310 @@
+package util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lecture séquentielle d'un recueil de grilles : un fichier texte où chaque
+ * grille est introduite par une ligne "#identifiant", suivie de ses lignes
+ * au format de Utils.loadGridFrom. Les lignes vides entre deux grilles sont
+ * ignorées.
+ * Le fichier est projeté en mémoire (FileChannel.map) par fenêtres de
+ * taille bornée, et les grilles sont décodées une à une, à la demande : le
+ * fichier n'est jamais chargé en entier, quelle que soit sa taille. Quand
+ * la grille en cours dépasse la fenêtre, celle-ci est reprojetée à partir
+ * du début de la grille, et agrandie si la grille ne tient toujours pas.
+ * Un recueil se parcourt une seule fois, par read(), comme un itérateur ou
+ * comme un flot (stream()), et doit être fermé après usage.
+ */
+public final class PuzzleCollection implements Iterator<Puzzle>, Closeable {
+
+	// CONSTANTES
+
+	private static final int WINDOW_SIZE = 1 << 26;
+	private static final byte HEADER = '#';
+	private static final byte NEW_LINE = '\n';
+
+	// ATTRIBUTS
+
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private int windowSize;
+	// Position dans le fichier du prochain octet à lire
+	private long position;
+	// Grille lue d'avance par hasNext()
+	private Puzzle pending;
+
+	// CONSTRUCTEURS
+
+	/**
+	 * Ouvre le recueil f. Lève une IOException si f ne peut être ouvert.
+	 */
+	public PuzzleCollection(File f) throws IOException {
+		this(f, WINDOW_SIZE);
+	}
+
+	/**
+	 * Ouvre le recueil f, projeté par fenêtres de windowSize octets au
+	 * départ.
+	 */
+	PuzzleCollection(File f, int windowSize) throws IOException {
+		Contract.checkCondition(f != null && windowSize > 0);
+
+		channel = FileChannel.open(f.toPath(), StandardOpenOption.READ);
+		size = channel.size();
+		window = null;
+		windowStart = 0;
+		this.windowSize = windowSize;
+		position = 0;
+		pending = null;
+	}
+
+	// REQUETES
+
+	/**
+	 * Teste si le fichier f est un recueil, c'est-à-dire si son premier
+	 * caractère non blanc est '#'.
+	 */
+	public static boolean isCollection(File f) throws IOException {
+		Contract.checkCondition(f != null);
+
+		InputStream in = new FileInputStream(f);
+		try {
+			int b = in.read();
+			while (b != -1 && Character.isWhitespace(b)) {
+				b = in.read();
+			}
+			return b == HEADER;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Teste s'il reste une grille à lire. Une grille mal formée est signalée
+	 * par une IllegalArgumentException dont la cause est la
+	 * BadSyntaxException de read(), une erreur de lecture par une
+	 * UncheckedIOException.
+	 */
+	@Override
+	public boolean hasNext() {
+		if (pending == null) {
+			try {
+				pending = read();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} catch (BadSyntaxException e) {
+				throw new IllegalArgumentException(e.getMessage(), e);
+			}
+		}
+		return pending != null;
+	}
+
+	/**
+	 * Les grilles restantes, sous forme de flot séquentiel. Fermer le flot
+	 * ferme le recueil.
+	 */
+	public Stream<Puzzle> stream() {
+		Stream<Puzzle> s = StreamSupport.stream(
+				Spliterators.spliteratorUnknownSize(this,
+						Spliterator.ORDERED | Spliterator.NONNULL), false);
+		return s.onClose(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		});
+	}
+
+	// COMMANDES
+
+	/**
+	 * Grille suivante. Voir hasNext() pour les erreurs.
+	 */
+	@Override
+	public Puzzle next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Puzzle p = pending;
+		pending = null;
+		return p;
+	}
+
+	/**
+	 * Lit et renvoie la grille suivante, ou null à la fin du recueil. Lève
+	 * une BadSyntaxException si la grille est mal formée : en-tête absent ou
+	 * sans identifiant, grille vide, lignes de longueurs différentes ou
+	 * ligne vide au milieu de la grille.
+	 */
+	public Puzzle read() throws IOException, BadSyntaxException {
+		if (pending != null) {
+			Puzzle p = pending;
+			pending = null;
+			return p;
+		}
+		while (position < size && isBlank(byteAt(position))) {
+			position++;
+		}
+		if (position == size) {
+			return null;
+		}
+		if (byteAt(position) != HEADER) {
+			throw new BadSyntaxException("Missing header at byte " + position);
+		}
+		long start = position;
+		long end = entryEnd(start);
+		position = end;
+		return parse((int) (start - windowStart), (int) (end - windowStart));
+	}
+
+	/**
+	 * Ferme le recueil. Les fenêtres déjà projetées sont libérées par le
+	 * ramasse-miettes.
+	 */
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	// OUTILS
+
+	private static boolean isBlank(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == NEW_LINE;
+	}
+
+	/**
+	 * Octet à la position p du fichier, en projetant au besoin une fenêtre
+	 * commençant en p.
+	 */
+	private byte byteAt(long p) throws IOException {
+		if (window == null || p < windowStart
+				|| p >= windowStart + window.limit()) {
+			map(p);
+		}
+		return window.get((int) (p - windowStart));
+	}
+
+	/**
+	 * Projette la fenêtre commençant à la position from du fichier.
+	 */
+	private void map(long from) throws IOException {
+		window = channel.map(FileChannel.MapMode.READ_ONLY, from,
+				Math.min(windowSize, size - from));
+		windowStart = from;
+	}
+
+	/**
+	 * Fin de la grille commençant en start : la position du '#' de la
+	 * grille suivante en début de ligne, ou la fin du fichier. En sortie,
+	 * toute la grille est dans la fenêtre.
+	 */
+	private long entryEnd(long start) throws IOException, BadSyntaxException {
+		long p = start + 1;
+		boolean isLineStart = false;
+		while (p < size) {
+			if (p == windowStart + window.limit()) {
+				if (start == windowStart) {
+					if (windowSize == Integer.MAX_VALUE) {
+						throw new BadSyntaxException("Entry at byte " + start
+								+ " is too large");
+					}
+					windowSize = (int) Math.min(2L * windowSize,
+							Integer.MAX_VALUE);
+				}
+				map(start);
+			}
+			byte b = window.get((int) (p - windowStart));
+			if (isLineStart && b == HEADER) {
+				return p;
+			}
+			isLineStart = b == NEW_LINE;
+			p++;
+		}
+		return p;
+	}
+
+	/**
+	 * Décode la grille occupant les octets from à to - 1 de la fenêtre.
+	 * Comme Utils.loadGridFrom, les caractères qui ne sont pas des chiffres
+	 * sont ignorés dans les lignes de la grille.
+	 */
+	private Puzzle parse(int from, int to) throws BadSyntaxException {
+		int eol = lineEnd(from, to);
+		byte[] header = new byte[eol - from - 1];
+		window.position(from + 1);
+		window.get(header);
+		String id = new String(header, StandardCharsets.UTF_8).trim();
+		List<int[]> rows = new ArrayList<int[]>();
+		int blankLines = 0;
+		for (int p = eol + 1; p < to; p = eol + 1) {
+			eol = lineEnd(p, to);
+			int width = 0;
+			for (int k = p; k < eol; k++) {
+				if (isDigit(window.get(k))) {
+					width++;
+				}
+			}
+			if (width == 0) {
+				blankLines++;
+			} else if (blankLines > 0 || rows.size() > 0
+					&& width != rows.get(0).length) {
+				throw new BadSyntaxException("Entry " + id + " is incorrect");
+			} else {
+				int[] row = new int[width];
+				int y = 0;
+				for (int k = p; k < eol; k++) {
+					byte b = window.get(k);
+					if (isDigit(b)) {
+						row[y++] = b - '0';
+					}
+				}
+				rows.add(row);
+			}
+		}
+		if (id.isEmpty() || rows.isEmpty()) {
+			throw new BadSyntaxException("Entry at byte "
+					+ (windowStart + from) + " is incorrect");
+		}
+		return new Puzzle(id, rows.toArray(new int[rows.size()][]));
+	}
+
+	/**
+	 * Position du saut de ligne terminant la ligne commençant en from, ou
+	 * to s'il n'y en a pas avant to.
+	 */
+	private int lineEnd(int from, int to) {
+		int p = from;
+		while (p < to && window.get(p) != NEW_LINE) {
+			p++;
+		}
+		return p;
+	}
+
+	private static boolean isDigit(byte b) {
+		return '0' <= b && b <= '9';
+	}
+}
@@ -6,6 +6,11 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class Utils {
 	
@@ -30,37 +35,54 @@ public final class Utils {
 	
 	/**
 	 * Charge une grille d'Hashiwokakero depuis le fichier filename et renvoie
-	 * le resultat sous forme de tableau d'entiers. Lève une IOException en cas
-	 * d'erreur durant l'ouverture du fichier, et une BadSyntaxException si une
-	 * ligne du fichier est syntaxiquement incorrect.
+	 * le resultat sous forme de tableau d'entiers. La grille peut être
+	 * rectangulaire : chaque ligne du fichier est une ligne de la grille, et
+	 * toutes doivent avoir la longueur de la première. Les lignes vides de
+	 * fin de fichier sont ignorées. Lève une IOException en cas d'erreur
+	 * durant l'ouverture du fichier, et une BadSyntaxException si une ligne
+	 * du fichier est syntaxiquement incorrect.
 	 */
 	public static int[][] loadGridFrom(String filename)
 			throws IOException, BadSyntaxException {
 		Contract.checkCondition(filename != null, "The file path is incorrect");
 		
-		File f = new File(filename);
-		BufferedReader r = new BufferedReader(new FileReader(f));
-		String line = removeNonDigit(r.readLine());
-		int size = line.length();
-		int[][] tab = new int[size][size];
-		int x = 0;
+		return loadGridFrom(new FileReader(new File(filename)));
+	}
+	
+	/**
+	 * Charge une grille au même format depuis in, qui est fermé après la
+	 * lecture.
+	 */
+	public static int[][] loadGridFrom(Reader in)
+			throws IOException, BadSyntaxException {
+		Contract.checkCondition(in != null);
 		
-		while (line != null && x < size) {
+		BufferedReader r = new BufferedReader(in);
+		List<int[]> rows = new ArrayList<int[]>();
+		int blankLines = 0;
+		String line = r.readLine();
+		while (line != null) {
 			line = removeNonDigit(line);
-			if (line.length() != size) {
+			if (line.length() == 0) {
+				blankLines++;
+			} else if (blankLines > 0 || rows.size() > 0
+					&& line.length() != rows.get(0).length) {
 				r.close();
 				throw new BadSyntaxException("Your file is incorrect");
+			} else {
+				int[] row = new int[line.length()];
+				for (int y = 0; y < row.length; y++) {
+					row[y] = Character.getNumericValue(line.charAt(y));
+				}
+				rows.add(row);
 			}
-			char[] c = line.toCharArray();
-			for (int y = 0; y < size; y++) {
-				int n = Character.getNumericValue(c[y]);
-				tab[x][y] = n;
-			}
-			x++;
 			line = r.readLine();
 		}
 		r.close();
-		return tab;
+		if (rows.isEmpty()) {
+			throw new BadSyntaxException("Your file is incorrect");
+		}
+		return rows.toArray(new int[rows.size()][]);
 	}
 	
 	/**
@@ -70,22 +92,79 @@ public final class Utils {
 	 */
 	public static void createFileFrom(String filename, int[][] islands)
 			throws IOException {
+		createFileFrom(new File(new File("puzzles/"), filename), islands);
+	}
+	
+	/**
+	 * Sauvegarde le tableau d'île islands dans le fichier f, au même format.
+	 */
+	public static void createFileFrom(File f, int[][] islands)
+			throws IOException {
 		Contract.checkCondition(isValidTab(islands), "Invalid grid");
 		
-		File f = new File(new File("puzzles/"), filename);
 		BufferedWriter w = new BufferedWriter(new FileWriter(f));
+		try {
+			writeGridTo(w, islands);
+		} finally {
+			w.close();
+		}
+	}
+	
+	/**
+	 * Écrit le tableau d'île islands dans w, au même format, sans fermer w.
+	 */
+	public static void writeGridTo(Writer w, int[][] islands)
+			throws IOException {
+		Contract.checkCondition(w != null && isValidTab(islands),
+				"Invalid grid");
+		
 		for (int[] line : islands) {
 			w.write(intArrayToCharArray(line));
-			w.newLine();
+			w.write(System.lineSeparator());
+		}
+	}
+	
+	/**
+	 * Sauvegarde les grilles puzzles dans le recueil f (voir
+	 * PuzzleCollection), dans l'ordre de la liste. Les identifiants ne
+	 * doivent contenir ni saut de ligne ni espace en bordure.
+	 */
+	public static void createCollectionFrom(File f, List<Puzzle> puzzles)
+			throws IOException {
+		Contract.checkCondition(f != null && puzzles != null);
+		
+		BufferedWriter w = new BufferedWriter(new FileWriter(f,
+				StandardCharsets.UTF_8));
+		try {
+			for (Puzzle p : puzzles) {
+				Contract.checkCondition(isValidId(p.getId())
+						&& isValidTab(p.getIslands()), "Invalid puzzle");
+				
+				w.write('#');
+				w.write(p.getId());
+				w.newLine();
+				for (int[] line : p.getIslands()) {
+					w.write(intArrayToCharArray(line));
+					w.newLine();
+				}
+			}
+		} finally {
+			w.close();
 		}
-		w.close();
 	}
 	
 	/**
-	 * Vérifie si islands et un tableau d'île valide.
+	 * Vérifie si islands et un tableau d'île valide : rectangulaire, non vide
+	 * et dont les valeurs sont comprises entre 0 et 8.
 	 */
 	public static boolean isValidTab(int[][] islands) {
+		if (islands.length == 0 || islands[0].length == 0) {
+			return false;
+		}
 		for (int[] t : islands) {
+			if (t.length != islands[0].length) {
+				return false;
+			}
 			for (int i : t) {
 				if (i < 0 || i > 8) {
 					return false;
@@ -95,6 +174,11 @@ public final class Utils {
 		return true;
 	}
 	
+	private static boolean isValidId(String id) {
+		return !id.isEmpty() && id.trim().equals(id) && id.indexOf('\n') < 0
+				&& id.indexOf('\r') < 0;
+	}
+	
 	private static char[] intArrayToCharArray(int[] array) {
 		char[] r = new char[array.length];
 		for (int i = 0; i < array.length; i++) {